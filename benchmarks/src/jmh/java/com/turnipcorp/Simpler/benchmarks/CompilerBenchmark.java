@@ -0,0 +1,62 @@
+package com.turnipcorp.Simpler.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.turnipcorp.Simpler.interpreter.Compiler;
+import com.turnipcorp.Simpler.interpreter.Instruction;
+import com.turnipcorp.Simpler.interpreter.Interpreter;
+import com.turnipcorp.Simpler.interpreter.Program;
+import com.turnipcorp.Simpler.interpreter.Source;
+import com.turnipcorp.Simpler.interpreter.SymbolTable;
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * Tokenizes and compiles programs, without running them.
+ * <br /> compile is the tokenizer and the Compiler alone, optimize adds the Optimizer, like Interpreter.compile.
+ * @see Programs#straightLine(int, int)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompilerBenchmark {
+
+	@Param({"100", "1000", "10000"})
+	public int lines;
+
+	@Param({"1", "16", "256"})
+	public int variables;
+
+	private Source source;
+	private Interpreter interpreter;
+
+	@Setup
+	public void setup() {
+		source = Source.of(Programs.straightLine(lines, variables));
+		interpreter = new Interpreter();
+	}
+
+	@Benchmark
+	public Instruction[] compile() throws SimplerException {
+		return Compiler.compile(source, new SymbolTable());
+	}
+
+	@Benchmark
+	public Program optimize() throws SimplerException {
+		return interpreter.compile(source);
+	}
+}
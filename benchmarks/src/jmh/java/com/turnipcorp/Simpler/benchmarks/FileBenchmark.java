@@ -0,0 +1,80 @@
+package com.turnipcorp.Simpler.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.turnipcorp.Simpler.console.SimplerFileHandler;
+import com.turnipcorp.Simpler.interpreter.Source;
+
+/**
+ * Reads a program file the three ways the SimplerFileHandler can, every line is reached once.
+ * <br /> read makes a String per line, map decodes a line only when it is asked for, open is the Reader run streams from.
+ * @see Programs#straightLine(int, int)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileBenchmark {
+
+	@Param({"1000", "100000"})
+	public int lines;
+
+	private final SimplerFileHandler fileHandler = new SimplerFileHandler();
+	private Path file;
+
+	@Setup
+	public void setup() throws IOException {
+		file = Files.createTempFile("simpler-benchmark", ".spp");
+		Files.write(file, Arrays.asList(Programs.straightLine(lines, 16)));
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Benchmark
+	public int read() throws IOException {
+		int length = 0;
+		for (String line : fileHandler.read(file.toString())) length += line.length();
+		return length;
+	}
+
+	@Benchmark
+	public int map() throws IOException {
+		Source source = fileHandler.map(file.toString());
+		int length = 0;
+		for (int i = 0; i < source.lineCount(); i++) length += source.line(i).length();
+		return length;
+	}
+
+	@Benchmark
+	public int open() throws IOException {
+		int length = 0;
+		try (BufferedReader reader = new BufferedReader(fileHandler.open(file.toString()))) {
+			String line;
+			while ((line = reader.readLine()) != null) length += line.length();
+		}
+		return length;
+	}
+}
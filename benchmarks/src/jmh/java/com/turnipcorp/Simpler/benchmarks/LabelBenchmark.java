@@ -0,0 +1,21 @@
+package com.turnipcorp.Simpler.benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Jumps back to labels with GOTO, the label lookup and the budget of every label.
+ * @see Programs#labels(int, int)
+ */
+public class LabelBenchmark extends ProgramBenchmark {
+
+	@Param({"1", "16", "256"})
+	public int labels;
+
+	@Param({"10", "1000"})
+	public int jumps;
+
+	@Override
+	protected String[] code() {
+		return Programs.labels(labels, jumps);
+	}
+}
@@ -0,0 +1,21 @@
+package com.turnipcorp.Simpler.benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Runs a FOR loop, the loop itself and the integer variables changed on every trip.
+ * @see Programs#loop(int, int)
+ */
+public class LoopBenchmark extends ProgramBenchmark {
+
+	@Param({"10", "1000", "100000"})
+	public int trips;
+
+	@Param({"1", "16"})
+	public int variables;
+
+	@Override
+	protected String[] code() {
+		return Programs.loop(trips, variables);
+	}
+}
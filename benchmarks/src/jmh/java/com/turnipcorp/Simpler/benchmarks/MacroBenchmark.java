@@ -0,0 +1,21 @@
+package com.turnipcorp.Simpler.benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Calls a macro from a loop, the macro call and return, and the variables the macro changes.
+ * @see Programs#macro(int, int)
+ */
+public class MacroBenchmark extends ProgramBenchmark {
+
+	@Param({"10", "1000", "100000"})
+	public int calls;
+
+	@Param({"1", "16"})
+	public int variables;
+
+	@Override
+	protected String[] code() {
+		return Programs.macro(calls, variables);
+	}
+}
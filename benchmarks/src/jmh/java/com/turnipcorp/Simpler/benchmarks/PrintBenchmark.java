@@ -0,0 +1,59 @@
+package com.turnipcorp.Simpler.benchmarks;
+
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.turnipcorp.Simpler.interpreter.Interpreter;
+import com.turnipcorp.Simpler.interpreter.Output;
+import com.turnipcorp.Simpler.interpreter.Program;
+import com.turnipcorp.Simpler.interpreter.Source;
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * Runs a program that prints on every line, with both flush policies of the Output.
+ * <br /> The Output writes to a Writer that drops everything, so only the buffer and the flushes are measured.
+ * @see Programs#printing(int)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrintBenchmark {
+
+	@Param({"1000", "100000"})
+	public int lines;
+
+	@Param({"LINE", "BUFFER"})
+	public Output.Flush policy;
+
+	private Interpreter interpreter;
+	private Output output;
+	private Program program;
+
+	@Setup
+	public void setup() throws SimplerException {
+		output = new Output(Writer.nullWriter(), Output.DEFAULT_CAPACITY, policy);
+		interpreter = new Interpreter(null, output);
+		interpreter.getBudget().setMaxLabelJumps(0);
+		program = interpreter.compile(Source.of(Programs.printing(lines)));
+	}
+
+	@Benchmark
+	public void run() throws SimplerException {
+		interpreter.newContext(program, output).run();
+	}
+}
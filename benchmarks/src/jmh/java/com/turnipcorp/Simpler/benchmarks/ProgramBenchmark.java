@@ -0,0 +1,76 @@
+package com.turnipcorp.Simpler.benchmarks;
+
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.turnipcorp.Simpler.interpreter.Engine;
+import com.turnipcorp.Simpler.interpreter.Interpreter;
+import com.turnipcorp.Simpler.interpreter.Output;
+import com.turnipcorp.Simpler.interpreter.Program;
+import com.turnipcorp.Simpler.interpreter.Source;
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * Runs a program on every engine, the subclasses write the program from their parameters.
+ * <br /> The program is compiled once, every operation is one run of it in a new ExecutionContext, printing to nothing.
+ * The label budget is unlimited, so the longest runs are not stopped.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> + engine : Engine
+ * <li> - interpreter : Interpreter
+ * <li> - output : Output
+ * <li> - program : Program
+ * </ul>
+ * <br /> List of methods:
+ * <ul>
+ * <li> + setup () : void
+ * <li> + run () : void
+ * <li> # code () : String[]
+ * </ul>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class ProgramBenchmark {
+
+	@Param({"INTERPRETER", "AST", "VM", "JIT", "TIERED"})
+	public Engine engine;
+
+	private Interpreter interpreter;
+	private Output output;
+	private Program program;
+
+	@Setup
+	public void setup() throws SimplerException {
+		output = new Output(Writer.nullWriter(), Output.DEFAULT_CAPACITY, Output.Flush.BUFFER);
+		interpreter = new Interpreter(null, output);
+		interpreter.setEngine(engine);
+		interpreter.getBudget().setMaxLabelJumps(0);
+		program = interpreter.compile(Source.of(code()));
+	}
+
+	@Benchmark
+	public void run() throws SimplerException {
+		interpreter.newContext(program, output).run();
+	}
+
+	/**
+	 * @return the lines of the program, written from the parameters
+	 */
+	protected abstract String[] code();
+}
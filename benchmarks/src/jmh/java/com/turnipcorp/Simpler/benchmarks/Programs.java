@@ -0,0 +1,120 @@
+package com.turnipcorp.Simpler.benchmarks;
+
+import java.util.ArrayList;
+
+/**
+ * Writes the Simpler++ programs the benchmarks run, sized by their parameters.
+ * <br /> List of methods:
+ * <ul>
+ * <li> ~ straightLine (int, int) : String[]
+ * <li> ~ loop (int, int) : String[]
+ * <li> ~ macro (int, int) : String[]
+ * <li> ~ labels (int, int) : String[]
+ * <li> ~ printing (int) : String[]
+ * </ul>
+ */
+final class Programs {
+
+	/**
+	 * Static class, no constructor.
+	 */
+	private Programs() {}
+
+	/**
+	 * @param lines the number of lines, at least variables
+	 * @param variables the number of integers the lines use
+	 * @return declarations, then arithmetic and comparisons on every variable in turn
+	 */
+	static String[] straightLine(int lines, int variables) {
+		ArrayList<String> code = new ArrayList<>();
+		for (int i = 0; i < variables; i++) code.add("INT v" + i + " = " + i);
+		for (int i = 0; code.size() < lines; i++) {
+			String variable = "v" + i % variables;
+			switch (i % 4) {
+				case 0: {
+					code.add(variable + " += " + i);
+					break;
+				} case 1: {
+					code.add(variable + " *= 3");
+					break;
+				} case 2: {
+					code.add("IF " + variable + " > 1000");
+					code.add(variable + " -= 1000");
+					code.add("END IF");
+					break;
+				} default: {
+					code.add(variable + " ++");
+				}
+			}
+		}
+		return code.toArray(new String[code.size()]);
+	}
+
+	/**
+	 * @param trips the number of times the loop runs
+	 * @param variables the number of integers the body changes
+	 * @return a FOR loop whose body changes every variable, with a branch so it cannot be closed
+	 */
+	static String[] loop(int trips, int variables) {
+		ArrayList<String> code = new ArrayList<>();
+		for (int i = 0; i < variables; i++) code.add("INT v" + i + " = 0");
+		code.add("FOR k FROM 1 TO " + trips);
+		for (int i = 0; i < variables; i++) code.add("v" + i + " += k");
+		code.add("IF v0 > 1000000");
+		code.add("v0 -= 1000000");
+		code.add("END IF");
+		code.add("END FOR");
+		code.add("PRINTVAR v0 endl");
+		return code.toArray(new String[code.size()]);
+	}
+
+	/**
+	 * @param calls the number of times the macro is called
+	 * @param variables the number of integers the macro changes
+	 * @return a macro changing the variables, called from a FOR loop
+	 */
+	static String[] macro(int calls, int variables) {
+		ArrayList<String> code = new ArrayList<>();
+		for (int i = 0; i < variables; i++) code.add("INT v" + i + " = 0");
+		code.add("MACRO step");
+		for (int i = 0; i < variables; i++) code.add("v" + i + " ++");
+		code.add("END MACRO");
+		code.add("FOR k FROM 1 TO " + calls);
+		code.add("CALL step");
+		code.add("END FOR");
+		code.add("PRINTVAR v0 endl");
+		return code.toArray(new String[code.size()]);
+	}
+
+	/**
+	 * @param labels the number of labels
+	 * @param jumps the number of backward jumps to every label
+	 * @return one GOTO loop per label, one after the other, each one with its own counter
+	 */
+	static String[] labels(int labels, int jumps) {
+		ArrayList<String> code = new ArrayList<>();
+		for (int i = 0; i < labels; i++) {
+			code.add("INT n" + i + " = 0");
+			code.add("LABEL l" + i);
+			code.add("n" + i + " ++");
+			code.add("IF n" + i + " < " + jumps);
+			code.add("GOTO l" + i);
+			code.add("END IF");
+		}
+		code.add("PRINTVAR n0 endl");
+		return code.toArray(new String[code.size()]);
+	}
+
+	/**
+	 * @param lines the number of lines printed
+	 * @return a FOR loop printing a string and a variable on every line
+	 */
+	static String[] printing(int lines) {
+		return new String[] {
+			"FOR k FROM 1 TO " + lines,
+			"PRINTSTR \"line \"",
+			"PRINTVAR k endl",
+			"END FOR"
+		};
+	}
+}
@@ -0,0 +1,170 @@
+package com.turnipcorp.Simpler.console;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.turnipcorp.Simpler.interpreter.Engine;
+import com.turnipcorp.Simpler.interpreter.Interpreter;
+import com.turnipcorp.Simpler.interpreter.Output;
+import com.turnipcorp.Simpler.interpreter.Program;
+import com.turnipcorp.Simpler.interpreter.Source;
+import com.turnipcorp.Simpler.lang.Logger;
+
+/**
+ * Runs many files without the console, several at a time, each one with its own Interpreter.
+ * <br /> What a file prints is kept apart until it ends, then the outputs are written to System.out in the order
+ * the files were given. How every file ended, and how long it took, is written to System.err.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - jobs : int
+ * <li> - engine : Engine
+ * <li> - fileHandler : SimplerFileHandler
+ * </ul>
+ * <br /> List of methods:
+ * <ul>
+ * <li> + BatchRunner (int, Engine)
+ * <li> + run (String[]) : int
+ * <li> - runFile (String) : Result
+ * </ul>
+ * @see com.turnipcorp.Simpler.main.Main#main(String[])
+ */
+public class BatchRunner {
+
+	/**
+	 * Exit code of a file that ran to its end.
+	 */
+	public static final int OK = 0;
+
+	/**
+	 * Exit code of a file that stopped on an error, a syntax error or a budget that ran out.
+	 */
+	public static final int FAILED = 1;
+
+	/**
+	 * Exit code of a file that could not be read.
+	 */
+	public static final int UNREADABLE = 2;
+
+	/**
+	 * How a file ended.
+	 */
+	private static final class Result {
+		final String output;
+		final int status;
+		final String error;
+		final long nanos;
+
+		Result(String output, int status, String error, long nanos) {
+			this.output = output;
+			this.status = status;
+			this.error = error;
+			this.nanos = nanos;
+		}
+	}
+
+	/**
+	 * How many files run at the same time.
+	 */
+	private final int jobs;
+
+	/**
+	 * The engine of every Interpreter.
+	 */
+	private final Engine engine;
+
+	private final SimplerFileHandler fileHandler = new SimplerFileHandler();
+
+	/**
+	 * Constructor
+	 * @param jobs how many files run at the same time, at least 1
+	 * @param engine the engine that runs the files
+	 */
+	public BatchRunner(int jobs, Engine engine) {
+		this.jobs = Math.max(1, jobs);
+		this.engine = engine;
+	}
+
+	/**
+	 * Runs the files and waits for all of them.
+	 * @param files the paths of the files
+	 * @return OK if every file ran to its end, otherwise the highest exit code of the files
+	 */
+	public int run(String[] files) {
+		long start = System.nanoTime();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(jobs, Math.max(1, files.length)), task -> {
+			Thread thread = new Thread(task, "Simpler++ job");
+			thread.setDaemon(true);
+			return thread;
+		});
+		ArrayList<Future<Result>> results = new ArrayList<>();
+		for (String file : files) results.add(executor.submit(() -> runFile(file)));
+		executor.shutdown();
+		int status = OK, failed = 0;
+		long busy = 0;
+		for (int i = 0; i < files.length; i++) {
+			Result result;
+			try {
+				result = results.get(i).get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				executor.shutdownNow();
+				return FAILED;
+			} catch (ExecutionException e) {
+				result = new Result("", FAILED, String.valueOf(e.getCause()), 0);
+			}
+			System.out.print(result.output);
+			System.out.flush();
+			long millis = result.nanos / 1_000_000;
+			if (result.status == OK) {
+				System.err.println(files[i] + ": ok, " + millis + " ms");
+			} else {
+				System.err.println(files[i] + ": " + result.error + " (exit " + result.status + "), " + millis + " ms");
+				Logger.error("Batch run of " + files[i] + " failed: " + result.error);
+				failed++;
+			}
+			status = Math.max(status, result.status);
+			busy += result.nanos;
+		}
+		System.err.println(files.length + " files in " + (System.nanoTime() - start) / 1_000_000 + " ms (" + busy / 1_000_000 + " ms of runs, "
+				+ jobs + " jobs): " + (files.length - failed) + " ok, " + failed + " failed");
+		return status;
+	}
+
+	/**
+	 * Runs a file with a new Interpreter, which prints to memory, the file is released once it is compiled.
+	 * @param file the path of the file
+	 * @return what it printed and how it ended
+	 */
+	private Result runFile(String file) {
+		StringWriter printed = new StringWriter();
+		Interpreter interpreter = new Interpreter();
+		interpreter.setEngine(engine);
+		interpreter.setOutput(new Output(printed, Output.DEFAULT_CAPACITY, Output.Flush.BUFFER));
+		long start = System.nanoTime();
+		int status = OK;
+		String error = null;
+		try {
+			Program program;
+			try (Source source = fileHandler.map(file)) {
+				program = interpreter.compile(source);
+			}
+			interpreter.run(program);
+		} catch (NoSuchFileException e) {
+			status = UNREADABLE;
+			error = "File not found";
+		} catch (IOException e) {
+			status = UNREADABLE;
+			error = "Cannot read the file: " + e.getMessage();
+		} catch (Exception | Error e) {
+			status = FAILED;
+			error = e.getMessage();
+		}
+		return new Result(printed.toString(), status, error, System.nanoTime() - start);
+	}
+}
@@ -1,12 +1,28 @@
 package com.turnipcorp.Simpler.console;
 
+import java.io.File;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.util.Arrays;
 import java.util.Scanner;
 
+import com.turnipcorp.Simpler.interpreter.Engine;
 import com.turnipcorp.Simpler.interpreter.Interpreter;
+import com.turnipcorp.Simpler.interpreter.Output;
+import com.turnipcorp.Simpler.interpreter.Program;
+import com.turnipcorp.Simpler.interpreter.ProgramCache;
+import com.turnipcorp.Simpler.interpreter.Source;
 import com.turnipcorp.Simpler.lang.Logger;
 import com.turnipcorp.Simpler.lang.TerminatedError;
 import com.turnipcorp.Simpler.main.Main;
 
+/**
+ * Reads the commands, and the console code of the interpreter, from a Scanner, and prints to a PrintStream.
+ * <br /> The console of the program uses System.in and System.out, and exit ends the program. A session of the
+ * ReplServer uses its own connection, and exit only ends the session.
+ * @see ReplServer
+ */
 public class Console {
 	
 	private int cmdNumber = 0;
@@ -14,19 +30,39 @@ public class Console {
 	private String versionInfo = "Prerelease Version 0.5.4";
 	
 	/**
-	 * Interpreter object
+	 * Scanner for the commands, System.in for the console of the program
 	 */
-	public Interpreter interpreter = new Interpreter();
+	private final Scanner consoleScanner;
+	
+	/**
+	 * Where the console prints, System.out for the console of the program
+	 */
+	private final PrintStream out;
+	
+	/**
+	 * Whether the console is a session of the ReplServer, which must not end the program.
+	 */
+	private final boolean session;
+	
+	/**
+	 * False once a session has exited.
+	 */
+	private boolean open = true;
+	
+	/**
+	 * Interpreter object, reads the console code from the same scanner as the commands.
+	 */
+	private final Interpreter interpreter;
 	
 	/**
 	 * File handler object
 	 */
-	public SimplerFileHandler fileHandler = new SimplerFileHandler();
+	private SimplerFileHandler fileHandler = new SimplerFileHandler();
 	
 	/**
-	 * Scanner for System.in
+	 * Lets through the log entries of at most 1000 commands per second, for scripts that drive the console.
 	 */
-	private Scanner consoleScanner = new Scanner(System.in);
+	private Logger.Sampler commandSampler = new Logger.Sampler(1000, 1000);
 	
 	/**
 	 * Echo, like cmd::echo.
@@ -34,23 +70,53 @@ public class Console {
 	private boolean echo = true;
 	
 	/**
-	 * Empty constructor
+	 * Constructor, the console of the program, on System.in and System.out.
+	 */
+	public Console() {
+		this(new Scanner(System.in), System.out, false);
+	}
+	
+	/**
+	 * Constructor, a session, where programs print after every endl.
+	 * @param input where the commands and the console code are read
+	 * @param out where the session prints, flushed before every command is read
 	 */
-	public Console() {}
+	public Console(Scanner input, PrintStream out) {
+		this(input, out, true);
+	}
 	
+	private Console(Scanner input, PrintStream out, boolean session) {
+		this.consoleScanner = input;
+		this.out = out;
+		this.session = session;
+		this.interpreter = new Interpreter(input, output(Output.DEFAULT_CAPACITY, session ? Output.Flush.LINE : Output.Flush.BUFFER));
+	}
+	
+	/**
+	 * Reads a command and executes it.
+	 * @throws java.util.NoSuchElementException If the input has ended
+	 */
 	public void getCommand() throws Exception, TerminatedError {
-		if (cmdNumber++ != 0) System.out.println();
-		if (echo) System.out.print("Simpler++Console> ");
+		if (cmdNumber++ != 0) out.println();
+		if (echo) out.print("Simpler++Console> ");
+		out.flush();
 		exec(consoleScanner.nextLine());
 	}
 	
+	/**
+	 * @return false once a session has executed exit
+	 */
+	public boolean isOpen() {
+		return open;
+	}
+	
 	/**
 	 * Executes a console command.
 	 * @param cmd the command : String
 	 * @throws Exception when an exception is thrown by the interpreter.
 	 */
 	public void exec(String cmd) throws Exception, TerminatedError {
-		Logger.info("Executing command: \"" + cmd + "\"");
+		Logger.info(commandSampler, "Executing command: \"{}\"", cmd);
 		String[] params = cmd.split(" ");
 		switch (params[0]) {
 			/*case "-run": {
@@ -60,6 +126,11 @@ public class Console {
 				interpreter.interpretConsoleCode();
 				break;
 			} case "exit": {
+				if (session) {
+					Logger.info("Session exited");
+					open = false;
+					break;
+				}
 				Logger.info("Exited");
 				Logger.Destruct();
 				System.exit(0);
@@ -69,6 +140,26 @@ public class Console {
 			} case "debug": {
 				interpreter.toggleDebug();
 				break;
+			} case "budget": {
+				setBudget(params);
+				break;
+			} case "engine": {
+				setEngine(params);
+				break;
+			} case "cache": {
+				setCache(params);
+				break;
+			} case "log": {
+				setLogLevel(params);
+				break;
+			} case "output": {
+				setOutput(params);
+				break;
+			} case "run": {
+				try (Reader reader = fileHandler.open(cmdArgument(params))) {
+					interpreter.interpretAndRun(reader);
+				}
+				break;
 			} case "help": {
 				printHelp();
 				break;
@@ -76,10 +167,18 @@ public class Console {
 				printVersionInfo();
 				break;
 			} case "dev::crash": {
+				if (session) {
+					Logger.error("Command \"" + cmd + "\" " + "not available in a session.");
+					break;
+				}
 				Main.crash();
 				throw new TerminatedError("Hmm...");
 			} case "dev::testfile": {
-				interpreter.interpretAndRun(fileHandler.read(params[1]));
+				Program program;
+				try (Source source = fileHandler.map(params[1])) {
+					program = interpreter.compile(source);
+				}
+				interpreter.run(program);
 			} default: {
 				Logger.error("Command \"" + cmd + "\" " + "not found.");
 			}
@@ -87,15 +186,121 @@ public class Console {
 	}
 	
 	private void printHelp() {
-		System.out.println("> interpret: Interprets code entered from the console");
-		System.out.println("> echo [on/off]: Works like echo on/off in windows cmd.");
-		System.out.println("> debug: Notifies you which line it is executing.");
-		System.out.println("> help: Shows this menu.");
-		System.out.println("> exit: Exits this program and destructs the logger.");
-		System.out.println("> version: Shows version information.");
+		out.println("> interpret: Interprets code entered from the console");
+		out.println("> echo [on/off]: Works like echo on/off in windows cmd.");
+		out.println("> debug: Notifies you which line it is executing.");
+		out.println("> budget [label/program/depth] [number]: Limits the backward jumps per label or per program, or the macro call depth, 0 for unlimited.");
+		out.println("> engine [interpreter/ast/vm/jit/tiered] [threshold]: Chooses what runs your code, the line interpreter, the syntax tree, the bytecode machine, compiled JVM code,");
+		out.println("  or the line interpreter compiling what runs more than threshold times (1000 by default).");
+		out.println("> run [file]: Runs a file, it starts running while the rest of the file is still being read.");
+		out.println("> cache [directory/off]: Keeps compiled programs in the directory, so unchanged files are not compiled again.");
+		out.println("> log [info/error/fatal/off]: Only logs the entries at least as important as the level.");
+		out.println("> output [line/buffer] [size]: Writes what programs print after every endl, or only when the buffer of size characters is full,");
+		out.println("  at a FLUSH and at the end of the program (" + (session ? "line" : "buffer") + " by default).");
+		out.println("> help: Shows this menu.");
+		out.println(session ? "> exit: Ends this session." : "> exit: Exits this program and destructs the logger.");
+		out.println("> version: Shows version information.");
+	}
+	
+	/**
+	 * Changes the loop guard of the interpreter, or prints it without parameters.
+	 * @param params budget [label/program/depth] [number]
+	 */
+	private void setBudget(String[] params) {
+		if (params.length < 3) {
+			out.println(interpreter.getBudget());
+			return;
+		}
+		if (params[1].equals("label")) interpreter.getBudget().setMaxLabelJumps(Integer.parseInt(params[2]));
+		else if (params[1].equals("program")) interpreter.getBudget().setMaxJumps(Long.parseLong(params[2]));
+		else if (params[1].equals("depth")) interpreter.getBudget().setMaxCallDepth(Integer.parseInt(params[2]));
+		else Logger.error("Unknown budget \"" + params[1] + "\".");
+	}
+	
+	/**
+	 * Changes the engine of the interpreter, or prints it without parameters.
+	 * @param params engine [interpreter/ast/vm/jit/tiered] [threshold]
+	 */
+	private void setEngine(String[] params) {
+		if (params.length < 2) {
+			out.println(interpreter.getEngine().toString().toLowerCase());
+			return;
+		}
+		try {
+			interpreter.setEngine(Engine.valueOf(params[1].toUpperCase()));
+			if (params.length > 2) interpreter.setTierThreshold(Integer.parseInt(params[2]));
+		} catch (NumberFormatException e) {
+			Logger.error("Unknown threshold \"" + params[2] + "\".");
+		} catch (IllegalArgumentException e) {
+			Logger.error("Unknown engine \"" + params[1] + "\".");
+		}
+	}
+	
+	/**
+	 * Changes the level of the logger, or prints it without parameters.
+	 * @param params log [info/error/fatal/off]
+	 */
+	private void setLogLevel(String[] params) {
+		if (params.length < 2) {
+			out.println(Logger.getLevel().toString().toLowerCase());
+			return;
+		}
+		try {
+			Logger.setLevel(Logger.Level.valueOf(params[1].toUpperCase()));
+		} catch (IllegalArgumentException e) {
+			Logger.error("Unknown log level \"" + params[1] + "\".");
+		}
+	}
+	
+	/**
+	 * Changes when the output of the programs is written, or prints it without parameters.
+	 * @param params output [line/buffer] [size]
+	 */
+	private void setOutput(String[] params) {
+		if (params.length < 2) {
+			out.println(interpreter.getOutput());
+			return;
+		}
+		try {
+			Output.Flush policy = Output.Flush.valueOf(params[1].toUpperCase());
+			int capacity = params.length > 2 ? Integer.parseInt(params[2]) : interpreter.getOutput().getCapacity();
+			interpreter.setOutput(output(capacity, policy));
+		} catch (NumberFormatException e) {
+			Logger.error("Unknown size \"" + params[2] + "\".");
+		} catch (IllegalArgumentException e) {
+			Logger.error("Unknown output policy \"" + params[1] + "\".");
+		}
+	}
+	
+	/**
+	 * Changes the compiled program cache of the interpreter, or prints its directory without parameters.
+	 * @param params cache [directory/off]
+	 */
+	private void setCache(String[] params) {
+		if (params.length < 2) {
+			out.println(interpreter.getCache() == null ? "off" : interpreter.getCache().getDirectory().getPath());
+			return;
+		}
+		if (params[1].equals("off")) interpreter.setCache(null);
+		else interpreter.setCache(new ProgramCache(new File(cmdArgument(params))));
+	}
+	
+	/**
+	 * @param params a command split by spaces
+	 * @return everything after the command, for paths with spaces
+	 */
+	private String cmdArgument(String[] params) {
+		return String.join(" ", Arrays.copyOfRange(params, 1, params.length));
+	}
+	
+	/**
+	 * @return an output for the programs, printing where the console prints
+	 */
+	private Output output(int capacity, Output.Flush policy) {
+		return new Output(new OutputStreamWriter(out, out.charset()), capacity, policy);
 	}
 	
 	private void printVersionInfo() {
-		System.out.println(versionInfo);
+		out.println(versionInfo);
 	}
 }
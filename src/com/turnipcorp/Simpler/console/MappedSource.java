@@ -0,0 +1,151 @@
+package com.turnipcorp.Simpler.console;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import com.turnipcorp.Simpler.interpreter.Source;
+
+/**
+ * A source file mapped in memory, whose lines are only decoded when the Compiler reads them.
+ * <br /> Loading the file scans the mapped bytes once for line terminators, and keeps the offset of the start of every line
+ * in a single int array. No String exists for a line until line(int) is called.
+ * <br /> Lines end with \n, \r\n or \r like with a LineNumberReader, and are decoded as UTF-8.
+ * <br /> Files up to COPIED_BYTES are copied into the heap instead, a mapping costs more than a copy at that size.
+ * Closing the source drops the mapping, which the JVM unmaps once the buffer is collected, so nothing but the
+ * compiled program outlives the compile.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - COPIED_BYTES : int
+ * <li> - buffer : ByteBuffer
+ * <li> - starts : int[]
+ * <li> - lineCount : int
+ * </ul>
+ * <br /> List of methods:
+ * <ul>
+ * <li> + MappedSource (String)
+ * <li> + lineCount () : int
+ * <li> + line (int) : String
+ * <li> + hash (MessageDigest) : void
+ * <li> + close () : void
+ * <li> - buffer () : ByteBuffer
+ * <li> - end (int) : int
+ * </ul>
+ * @see SimplerFileHandler#map(String)
+ */
+public final class MappedSource implements Source {
+
+	/**
+	 * Size of the largest file copied instead of mapped.
+	 */
+	private static final int COPIED_BYTES = 1 << 20;
+
+	/**
+	 * The bytes of the file, null once closed.
+	 */
+	private ByteBuffer buffer;
+
+	/**
+	 * Offset of the first byte of every line, followed by the size of the file.
+	 */
+	private int[] starts;
+
+	private int lineCount;
+
+	/**
+	 * Copies or maps a file and indexes its lines, the file is closed right away, the mapping stays valid until close.
+	 * @param filename the path to the file
+	 * @throws IOException If the file cannot be read, or is larger than 2 GB
+	 */
+	public MappedSource(String filename) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) throw new IOException("File too large to map: " + filename);
+			if (channel.size() > COPIED_BYTES) {
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			} else {
+				buffer = ByteBuffer.allocate((int) channel.size());
+				while (buffer.hasRemaining() && channel.read(buffer) >= 0);
+				buffer.flip();
+			}
+		}
+		int size = buffer.limit();
+		starts = new int[Math.max(16, size / 32)];
+		int position = 0;
+		while (position < size) {
+			if (lineCount + 1 == starts.length) starts = Arrays.copyOf(starts, starts.length * 2);
+			starts[lineCount++] = position;
+			byte b = 0;
+			while (position < size && (b = buffer.get(position)) != '\n' && b != '\r') position++;
+			if (position == size) break;
+			position++;
+			if (b == '\r' && position < size && buffer.get(position) == '\n') position++;
+		}
+		starts[lineCount] = size;
+	}
+
+	@Override
+	public int lineCount() {
+		return lineCount;
+	}
+
+	@Override
+	public String line(int index) {
+		ByteBuffer buffer = buffer();
+		if (index < 0 || index >= lineCount) throw new IndexOutOfBoundsException("Line " + index + " of " + lineCount);
+		byte[] bytes = new byte[end(index) - starts[index]];
+		buffer.get(starts[index], bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Hashes the mapped bytes directly, the same as the default for files in valid UTF-8, without decoding any line.
+	 */
+	@Override
+	public void hash(MessageDigest digest) {
+		ByteBuffer buffer = buffer();
+		byte[] bytes = new byte[8192];
+		for (int i = 0; i < lineCount; i++) {
+			digest.update((byte) '\n');
+			for (int position = starts[i], end = end(i); position < end; position += bytes.length) {
+				int length = Math.min(bytes.length, end - position);
+				buffer.get(position, bytes, 0, length);
+				digest.update(bytes, 0, length);
+			}
+		}
+	}
+
+	/**
+	 * Drops the bytes of the file, a mapping is unmapped as soon as the garbage collector reclaims it.
+	 * <br /> Java 21 has no way to unmap a buffer right away outside of the preview memory API.
+	 */
+	@Override
+	public void close() {
+		buffer = null;
+		starts = null;
+	}
+
+	/**
+	 * @return the bytes of the file
+	 * @throws IllegalStateException If the source is closed
+	 */
+	private ByteBuffer buffer() {
+		if (buffer == null) throw new IllegalStateException("Source already closed");
+		return buffer;
+	}
+
+	/**
+	 * @param index index of a line
+	 * @return offset right after the last byte of the line, before its terminator
+	 */
+	private int end(int index) {
+		int end = starts[index + 1];
+		if (end > starts[index] && buffer.get(end - 1) == '\n') end--;
+		if (end > starts[index] && buffer.get(end - 1) == '\r') end--;
+		return end;
+	}
+}
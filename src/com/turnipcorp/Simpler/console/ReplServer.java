@@ -0,0 +1,136 @@
+package com.turnipcorp.Simpler.console;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.turnipcorp.Simpler.lang.Logger;
+
+/**
+ * Serves console sessions on a Unix domain socket, so tools can keep one warm JVM instead of starting one per run.
+ * <br /> Every connection gets a Console of its own, with its own Interpreter, on a virtual thread of its own. A session
+ * waiting for its next command only parks its virtual thread, so thousands of idle sessions cost almost nothing.
+ * The session ends with exit, or when the client closes the connection.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - socket : Path
+ * <li> - server : ServerSocketChannel
+ * <li> - threads : ExecutorService
+ * <li> - sessions : AtomicInteger
+ * <li> - sessionSampler : Logger.Sampler
+ * </ul>
+ * <br /> List of methods:
+ * <ul>
+ * <li> + ReplServer (Path)
+ * <li> + serve () : void
+ * <li> + getSessions () : int
+ * <li> + close () : void
+ * <li> - session (SocketChannel) : void
+ * </ul>
+ * @see Console#Console(Scanner, PrintStream)
+ * @see com.turnipcorp.Simpler.main.Main#main(String[])
+ */
+public class ReplServer implements AutoCloseable {
+
+	private final Path socket;
+	private final ServerSocketChannel server;
+	private final ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+
+	/**
+	 * Number of sessions open right now.
+	 */
+	private final AtomicInteger sessions = new AtomicInteger();
+
+	/**
+	 * Lets through the log entries of at most 1000 sessions opened or closed per second.
+	 */
+	private final Logger.Sampler sessionSampler = new Logger.Sampler(1000, 1000);
+
+	/**
+	 * Constructor, binds the socket, replacing the file a previous server left behind.
+	 * @param socket the path of the socket file
+	 * @throws IOException If the socket cannot be bound
+	 */
+	public ReplServer(Path socket) throws IOException {
+		this.socket = socket;
+		Files.deleteIfExists(socket);
+		server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+		server.bind(UnixDomainSocketAddress.of(socket));
+	}
+
+	/**
+	 * Accepts connections until the server is closed, each one served on a new virtual thread.
+	 * @throws IOException If a connection cannot be accepted
+	 */
+	public void serve() throws IOException {
+		Logger.info("Serving sessions on " + socket);
+		while (server.isOpen()) {
+			SocketChannel client;
+			try {
+				client = server.accept();
+			} catch (ClosedChannelException e) {
+				return;
+			}
+			threads.execute(() -> session(client));
+		}
+	}
+
+	/**
+	 * @return the number of sessions open right now
+	 */
+	public int getSessions() {
+		return sessions.get();
+	}
+
+	/**
+	 * Stops accepting connections and deletes the socket file, the sessions already open go on until they end.
+	 */
+	@Override
+	public void close() throws IOException {
+		server.close();
+		threads.shutdown();
+		Files.deleteIfExists(socket);
+	}
+
+	/**
+	 * Body of a session, the errors the console throws are printed to the session instead of ending it.
+	 */
+	private void session(SocketChannel client) {
+		int opened = sessions.incrementAndGet();
+		Logger.info(sessionSampler, "Session opened, {} open", opened);
+		try (client) {
+			PrintStream out = new PrintStream(new BufferedOutputStream(Channels.newOutputStream(client)), false, StandardCharsets.UTF_8);
+			Console console = new Console(new Scanner(Channels.newInputStream(client), StandardCharsets.UTF_8), out);
+			while (console.isOpen() && !out.checkError()) {
+				try {
+					console.getCommand();
+				} catch (NoSuchElementException | IllegalStateException e) {
+					break;
+				} catch (Exception | Error e) {
+					out.println(e.getMessage());
+					Logger.error(e.getMessage());
+				}
+			}
+			out.flush();
+		} catch (IOException e) {
+			Logger.error("Could not close a session: " + e.getMessage());
+		} finally {
+			int left = sessions.decrementAndGet();
+			Logger.info(sessionSampler, "Session closed, {} open", left);
+		}
+	}
+}
@@ -5,9 +5,10 @@ import java.io.LineNumberReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.io.FileReader;
+import java.io.Reader;
 import java.io.FileWriter;
 
-import com.turnipcorp.Simpler.interpreter.Strings;
+import com.turnipcorp.Simpler.interpreter.Source;
 
 public class SimplerFileHandler {
 	
@@ -30,13 +31,34 @@ public class SimplerFileHandler {
 	public String[] read(String filename) throws FileNotFoundException, IOException {
 		reader = new LineNumberReader(new FileReader(filename));
 		String buffer;
-		ArrayList<String> result = new ArrayList<>();;
-		do {
-			buffer = reader.readLine();
+		ArrayList<String> result = new ArrayList<>();
+		while ((buffer = reader.readLine()) != null) {
 			result.add(buffer);
-		} while (buffer != null);
+		}
 		reader.close();
-		return Strings.pop(Strings.toStringArray(result.toArray()));
+		return result.toArray(new String[result.size()]);
+	}
+	
+	/**
+	 * Maps a file in memory instead of reading it, for large files.
+	 * <br /> Only the offsets of the lines are kept, every line is decoded when the Compiler reaches it.
+	 * @param filename the path to the file
+	 * @return the lines of the file, to close once they are compiled
+	 * @throws IOException If the file does not exist or cannot be mapped
+	 * @see MappedSource
+	 */
+	public Source map(String filename) throws IOException {
+		return new MappedSource(filename);
+	}
+	
+	/**
+	 * Opens a file to be read line by line, for a program that runs while it is read.
+	 * @param filename the path to the file
+	 * @return the reader of the file, to close once the program ended
+	 * @throws FileNotFoundException if the file does not exist
+	 */
+	public Reader open(String filename) throws FileNotFoundException {
+		return new FileReader(filename);
 	}
 	
 	/**
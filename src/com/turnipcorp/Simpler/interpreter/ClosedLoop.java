@@ -0,0 +1,194 @@
+package com.turnipcorp.Simpler.interpreter;
+
+/**
+ * A FOR loop whose body only accumulates into integers, run in closed form instead of once per repetition.
+ * <br /> The body can only have lines like sum += i, sum -= 3, count ++ or x *= 2, each variable either added to or
+ * multiplied, never both, and never the variable of the loop. The bounds and the increment are literals, so the number of
+ * repetitions is known before the loop runs, and the result of n repetitions is computed with the same int wrap around.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - slot : int
+ * <li> - local : boolean
+ * <li> - repetitions : long
+ * <li> - lastValue : int
+ * <li> - slots : int[]
+ * <li> - locals : boolean[]
+ * <li> - changes : int[]
+ * <li> - multiplied : boolean[]
+ * </ul>
+ * <br /> List of methods:
+ * <ul>
+ * <li> ~ analyze (Instruction[]) : ClosedLoop[]
+ * <li> ~ run (Frame, Frame, LoopGuard) : boolean
+ * <li> - of (Instruction[], int) : ClosedLoop
+ * <li> - power (int, long) : int
+ * </ul>
+ * @see Interpreter
+ */
+final class ClosedLoop {
+
+	/**
+	 * The variable of the loop.
+	 */
+	private final int slot;
+	private final boolean local;
+
+	/**
+	 * How many times the body would run, at least 1.
+	 */
+	private final long repetitions;
+
+	/**
+	 * The value of the variable of the loop in the last repetition.
+	 */
+	private final int lastValue;
+
+	/**
+	 * The variables the body accumulates into.
+	 */
+	private final int[] slots;
+	private final boolean[] locals;
+
+	/**
+	 * What every variable is added to or multiplied by over all the repetitions.
+	 */
+	private final int[] changes;
+	private final boolean[] multiplied;
+
+	private ClosedLoop(int slot, boolean local, long repetitions, int lastValue, int[] slots, boolean[] locals, int[] changes, boolean[] multiplied) {
+		this.slot = slot;
+		this.local = local;
+		this.repetitions = repetitions;
+		this.lastValue = lastValue;
+		this.slots = slots;
+		this.locals = locals;
+		this.changes = changes;
+		this.multiplied = multiplied;
+	}
+
+	/**
+	 * Analyzes every FOR of a program once.
+	 * @param program the compiled program
+	 * @return the closed form of every FOR line, null for the other lines and the loops that have to run
+	 */
+	static ClosedLoop[] analyze(Instruction[] program) {
+		ClosedLoop[] loops = new ClosedLoop[program.length];
+		for (int line = 0; line < program.length; line++) {
+			if (program[line].getOpcode() == Opcode.FOR) loops[line] = of(program, line);
+		}
+		return loops;
+	}
+
+	/**
+	 * @param code the compiled program
+	 * @param line index of a FOR line
+	 * @return the closed form of the loop, null if it has to run
+	 */
+	private static ClosedLoop of(Instruction[] code, int line) {
+		Instruction loop = code[line];
+		int end = loop.getTarget();
+		int count = loop.tokenCount();
+		if (end == -1 || loop.getSlot() == -1 || (count != 6 && count != 8)) return null;
+		if (!loop.isNumeric(3) || !loop.isNumeric(5) || (count == 8 && !loop.isNumeric(7))) return null;
+		long start = loop.getLiteral(3), last = loop.getLiteral(5), inc = count == 8 ? loop.getLiteral(7) : 1;
+		if (inc <= 0 || start > last) return null;
+		long repetitions = (last - start) / inc + 1;
+		if (start + repetitions * inc > Integer.MAX_VALUE) return null;
+		long sum = repetitions % 2 == 0 ? repetitions / 2 * (repetitions - 1) : repetitions * ((repetitions - 1) / 2);
+		int values = (int) (repetitions * start + sum * inc);
+		int[] slots = new int[end - line];
+		boolean[] locals = new boolean[end - line];
+		int[] changes = new int[end - line];
+		boolean[] multiplied = new boolean[end - line];
+		boolean[] added = new boolean[end - line];
+		int variables = 0;
+		for (int i = line + 1; i < end; i++) {
+			Instruction instruction = code[i];
+			if (instruction.getOpcode() == Opcode.COMMENT) continue;
+			if (instruction.getOpcode() != Opcode.ASSIGN || instruction.getSlot() == -1 || instruction.tokenCount() < 2) return null;
+			if (instruction.getStorage() != Instruction.Storage.INT && instruction.getStorage() != Instruction.Storage.MUTABLE) return null;
+			if (instruction.getSlot() == loop.getSlot() && instruction.isLocal() == loop.isLocal()) return null;
+			boolean counter = instruction.tokenCount() == 3 && instruction.getOperandSlot() == loop.getSlot() && instruction.isOperandLocal() == loop.isLocal();
+			boolean literal = instruction.tokenCount() == 3 && instruction.getOperandSlot() == -1 && instruction.isNumeric(2);
+			int v = 0;
+			while (v < variables && (slots[v] != instruction.getSlot() || locals[v] != instruction.isLocal())) v++;
+			if (v == variables) {
+				slots[v] = instruction.getSlot();
+				locals[v] = instruction.isLocal();
+				variables++;
+			}
+			int change;
+			switch (instruction.getToken(1)) {
+				case "++": case "--": {
+					if (instruction.tokenCount() != 2) return null;
+					change = (int) repetitions * (instruction.getToken(1).equals("++") ? 1 : -1);
+					break;
+				} case "+=": case "-=": {
+					if (counter) change = values;
+					else if (literal) change = (int) repetitions * instruction.getLiteral(2);
+					else return null;
+					if (instruction.getToken(1).equals("-=")) change = -change;
+					break;
+				} case "*=": {
+					if (!literal || added[v]) return null;
+					if (!multiplied[v]) changes[v] = 1;
+					multiplied[v] = true;
+					changes[v] *= power(instruction.getLiteral(2), repetitions);
+					continue;
+				} default: {
+					return null;
+				}
+			}
+			if (multiplied[v]) return null;
+			added[v] = true;
+			changes[v] += change;
+		}
+		int[] fitted = new int[variables];
+		boolean[] fittedLocals = new boolean[variables];
+		int[] fittedChanges = new int[variables];
+		boolean[] fittedMultiplied = new boolean[variables];
+		System.arraycopy(slots, 0, fitted, 0, variables);
+		System.arraycopy(locals, 0, fittedLocals, 0, variables);
+		System.arraycopy(changes, 0, fittedChanges, 0, variables);
+		System.arraycopy(multiplied, 0, fittedMultiplied, 0, variables);
+		return new ClosedLoop(loop.getSlot(), loop.isLocal(), repetitions, (int) (start + (repetitions - 1) * inc),
+				fitted, fittedLocals, fittedChanges, fittedMultiplied);
+	}
+
+	/**
+	 * @return base multiplied by itself exponent times, wrapping around like repeated *= would
+	 */
+	private static int power(int base, long exponent) {
+		int result = 1;
+		while (exponent > 0) {
+			if ((exponent & 1) == 1) result *= base;
+			base *= base;
+			exponent >>= 1;
+		}
+		return result;
+	}
+
+	/**
+	 * Runs every repetition at once, and leaves the variable of the loop at its last value.
+	 * @param globals the global variables
+	 * @param frame the frame of the macro call the loop is in, null outside of macros
+	 * @param guard charges the repetitions to the budget
+	 * @return false if nothing ran because a variable is not a declared integer, the loop then has to run to fail properly
+	 * @throws StackOverflowError When the repetitions are more than the budget allows
+	 */
+	boolean run(Frame globals, Frame frame, LoopGuard guard) throws StackOverflowError {
+		for (int v = 0; v < slots.length; v++) {
+			if ((locals[v] ? frame : globals).states[slots[v]] != Frame.DECLARED) return false;
+		}
+		guard.backwardJumps(repetitions - 1);
+		for (int v = 0; v < slots.length; v++) {
+			Frame memory = locals[v] ? frame : globals;
+			if (multiplied[v]) memory.integers[slots[v]] *= changes[v];
+			else memory.integers[slots[v]] += changes[v];
+		}
+		Frame memory = local ? frame : globals;
+		memory.integers[slot] = lastValue;
+		memory.states[slot] = Frame.DECLARED;
+		return true;
+	}
+}
@@ -0,0 +1,457 @@
+package com.turnipcorp.Simpler.interpreter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import com.turnipcorp.Simpler.interpreter.Instruction.Storage;
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * Turns Simpler++ source into an immutable array of Instructions, so every line is tokenized exactly once per program.
+ * <br /> Compiling happens in four passes: tokenizing, matching every IF / FOR / MACRO with its END, declaring every
+ * variable and LABEL, then resolving every variable name into its slot and every jump into its target line.
+ * <br /> List of methods:
+ * <ul>
+ * <li> + compile (String[], SymbolTable) : Instruction[]
+ * <li> + compile (Source, SymbolTable) : Instruction[]
+ * <li> + compile (Source, SymbolTable, boolean) : Instruction[]
+ * <li> + compileLine (String, int, SymbolTable) : Instruction
+ * <li> ~ declarePart (String[][], int, SymbolTable, HashMap) : SymbolTable[]
+ * <li> ~ resolvePart (String[], String[][], int, int[], SymbolTable, SymbolTable[], HashMap) : Instruction[]
+ * <li> ~ lex (String, int) : String[]
+ * <li> ~ matchBlocks (String[][], int) : int[]
+ * <li> - declare (String[], int, SymbolTable, SymbolTable, HashMap) : void
+ * <li> - resolve (String[], String, int, SymbolTable, SymbolTable, HashMap, int) : Instruction
+ * <li> - integerStorage (int, SymbolTable) : Storage
+ * <li> - tokenize (String) : String[]
+ * <li> - tokenizeSimple (String) : String[]
+ * <li> - tokenizeQuotes (String) : String[]
+ * <li> - tokenizeBraces (String) : String[]
+ * <li> ~ opcodeOf (String[]) : Opcode
+ * </ul>
+ * @see Instruction
+ * @see SymbolTable
+ * @see Interpreter#interpretAndRun(String[])
+ */
+public class Compiler {
+
+	/**
+	 * starting keywords that signal that the line will be tokenized by spaces
+	 * @see #tokenizeSimple(String)
+	 */
+	private static final String[] tokenizedBySpace = {"INT", "PRINTVAR", "CALL", "MUTABLE INT", "//", "GOTO", "LABEL"};
+
+	/**
+	 * Starting keywords that signal that the line will be tokenized by quotes
+	 * @see #tokenizeQuotes(String)
+	 */
+	private static final String[] tokenizedByQuotes = {"STRING", "PRINTSTR"};
+
+	/**
+	 * Starting keywords that signal that the line will (ideally) be tokenized by braces
+	 * @see #tokenizeBraces(String)
+	 */
+	private static final String[] tokenizedByBraces = {"IF", "FOR", "MACRO"};
+
+	/**
+	 * Starting keywords that end IF, FOR and MACRO.
+	 */
+	private static final String[] endingStrings = {"END IF", "END FOR", "END MACRO"};
+
+	/**
+	 * Static class, no constructor.
+	 */
+	private Compiler() {}
+
+	/**
+	 * Compiles a whole program, the Instructions keep the lines since the array holds them anyway.
+	 * <br /> Variables declared between MACRO and END MACRO are local to the macro and resolved into its scope.
+	 * @param code the lines of code
+	 * @param symbols the table every variable name is resolved into
+	 * @return one Instruction per line, with the same indices as the lines
+	 * @throws SimplerException Whenever a line cannot be tokenized, a block is not closed or a LABEL is declared twice
+	 * @see SymbolTable#macroScope(String)
+	 */
+	public static Instruction[] compile(String[] code, SymbolTable symbols) throws SimplerException {
+		return compile(Source.of(code), symbols, true);
+	}
+
+	/**
+	 * Compiles a whole program, reading every line of the source exactly once, only the tokens of the lines are kept.
+	 * @param source the lines of code
+	 * @param symbols the table every variable name is resolved into
+	 * @return one Instruction per line, with the same indices as the lines
+	 * @throws SimplerException Whenever a line cannot be tokenized, a block is not closed or a LABEL is declared twice
+	 * @see #compile(String[], SymbolTable)
+	 */
+	public static Instruction[] compile(Source source, SymbolTable symbols) throws SimplerException {
+		return compile(source, symbols, false);
+	}
+
+	/**
+	 * Compiles a whole program, reading every line of the source exactly once.
+	 * <br /> Without keepSource a line is dropped as soon as it is tokenized, so a large file never has a String per
+	 * line alive at the same time.
+	 * @param source the lines of code
+	 * @param symbols the table every variable name is resolved into
+	 * @param keepSource whether every Instruction keeps its line, for debug mode
+	 * @return one Instruction per line, with the same indices as the lines
+	 * @throws SimplerException Whenever a line cannot be tokenized, a block is not closed or a LABEL is declared twice
+	 * @see Instruction#getSource()
+	 */
+	public static Instruction[] compile(Source source, SymbolTable symbols, boolean keepSource) throws SimplerException {
+		int length = source.lineCount();
+		String[] code = keepSource ? new String[length] : null;
+		String[][] tokens = new String[length][];
+		HashMap<String, Integer> jumpTable = new HashMap<>();
+		for (int i = 0; i < length; i++) {
+			String line = source.line(i);
+			if (keepSource) code[i] = line;
+			tokens[i] = lex(line, i);
+		}
+		int[] blocks = matchBlocks(tokens, 0);
+		SymbolTable[] scopes = declarePart(tokens, 0, symbols, jumpTable);
+		return resolvePart(code, tokens, 0, blocks, symbols, scopes, jumpTable);
+	}
+
+	/**
+	 * Declares the variables and LABELs of consecutive lines, the third pass for a whole program or a part of one.
+	 * <br /> A part always starts outside of every block, so it starts outside of every macro.
+	 * @param tokens the tokens of every line of the part
+	 * @param first index of the first line of the part in its program
+	 * @param symbols the table to declare labels and global variables into
+	 * @param jumpTable the line of every LABEL declared so far
+	 * @return the macro every line is in, null for the lines outside of macros
+	 * @throws SimplerException When a LABEL is declared twice
+	 */
+	static SymbolTable[] declarePart(String[][] tokens, int first, SymbolTable symbols, HashMap<String, Integer> jumpTable) throws SimplerException {
+		SymbolTable[] scopes = new SymbolTable[tokens.length];
+		SymbolTable scope = null;
+		for (int i = 0; i < tokens.length; i++) {
+			scopes[i] = scope;
+			declare(tokens[i], first + i, symbols, scope, jumpTable);
+			if (opcodeOf(tokens[i]) == Opcode.MACRO) scope = symbols.macroScope(tokens[i][1]);
+			else if (opcodeOf(tokens[i]) == Opcode.END && tokens[i][1].equals("MACRO")) scope = null;
+		}
+		return scopes;
+	}
+
+	/**
+	 * Resolves consecutive declared lines into Instructions, the fourth pass for a whole program or a part of one.
+	 * @param code the lines of the part, null when the Instructions do not keep them
+	 * @param tokens the tokens of every line of the part
+	 * @param first index of the first line of the part in its program
+	 * @param blocks the block index of the part, from matchBlocks
+	 * @param symbols the table to resolve labels and global variables from
+	 * @param scopes the result of declarePart
+	 * @param jumpTable the line of every LABEL declared so far, a GOTO to a LABEL not in it fails when it runs
+	 * @return one Instruction per line, numbered from first
+	 */
+	static Instruction[] resolvePart(String[] code, String[][] tokens, int first, int[] blocks, SymbolTable symbols, SymbolTable[] scopes, HashMap<String, Integer> jumpTable) {
+		Instruction[] program = new Instruction[tokens.length];
+		for (int i = 0; i < tokens.length; i++) {
+			program[i] = resolve(tokens[i], code == null ? null : code[i], first + i, symbols, scopes[i], jumpTable, blocks[i]);
+		}
+		return program;
+	}
+
+	/**
+	 * Compiles a single line, which cannot open a block.
+	 * @param line the line of code
+	 * @param lineNumber index of the line in its program
+	 * @param symbols the table every variable name is resolved into
+	 * @return the decoded Instruction, a GOTO can only jump to a LABEL on the same line
+	 * @throws SimplerException Whenever the line cannot be tokenized or opens a block
+	 */
+	public static Instruction compileLine(String line, int lineNumber, SymbolTable symbols) throws SimplerException {
+		HashMap<String, Integer> jumpTable = new HashMap<>();
+		String[] tokens = lex(line, lineNumber);
+		int[] blocks = matchBlocks(new String[][] {tokens}, 0);
+		declare(tokens, lineNumber, symbols, null, jumpTable);
+		return resolve(tokens, line, lineNumber, symbols, null, jumpTable, blocks[0]);
+	}
+
+	/**
+	 * First pass, tokenizes a line.
+	 * @param line the line of code
+	 * @param lineNumber index of the line in its program
+	 * @return the tokens, {"//"} for an empty line
+	 * @throws SimplerException Whenever the line cannot be tokenized
+	 */
+	static String[] lex(String line, int lineNumber) throws SimplerException {
+		String stripped = line.strip();
+		if (stripped.isEmpty()) return new String[] {"//"};
+		String[] tokens = tokenize(stripped);
+		if (tokens == null || tokens.length == 0) throw new SimplerException("Syntax Error on line " + lineNumber + ": " + line);
+		return tokens;
+	}
+
+	/**
+	 * Second pass, builds the block index: the line of the matching END of every IF / FOR / MACRO, and the line of the
+	 * opener of every END, respecting nesting.
+	 * @param tokens the tokens of every line
+	 * @param first index of the first line in its program, the index holds line numbers counted from it
+	 * @return the index, -1 for lines that are not part of a block structure
+	 * @throws SimplerException When a block is not closed, or closed by the wrong END
+	 */
+	static int[] matchBlocks(String[][] tokens, int first) throws SimplerException {
+		int[] blocks = new int[tokens.length];
+		int[] openers = new int[tokens.length];
+		int open = 0;
+		for (int i = 0; i < tokens.length; i++) {
+			blocks[i] = -1;
+			switch (opcodeOf(tokens[i])) {
+				case IF: case FOR: case MACRO: {
+					openers[open++] = i;
+					break;
+				} case END: {
+					if (tokens[i].length < 2) throw new SimplerException("Syntax Error on line " + (first + i) + ": Expected END IF, END FOR or END MACRO");
+					if (open == 0) throw new SimplerException("Syntax Error on line " + (first + i) + ": END " + tokens[i][1] + " without " + tokens[i][1]);
+					int opener = openers[--open];
+					if (!tokens[opener][0].equals(tokens[i][1])) throw new SimplerException("Syntax Error on line " + (first + i) + ": Expected END " + tokens[opener][0]);
+					blocks[opener] = first + i;
+					blocks[i] = first + opener;
+					break;
+				} default: {
+					break;
+				}
+			}
+		}
+		if (open != 0) throw new SimplerException("Syntax Error on line " + (first + openers[open - 1]) + ": Expected END " + tokens[openers[open - 1]][0]);
+		return blocks;
+	}
+
+	/**
+	 * Third pass, gives every variable declared by the line a slot, and puts every LABEL into the jump table.
+	 * @param tokens the tokens of the line
+	 * @param lineNumber index of the line in its program
+	 * @param symbols the table to declare labels and global variables into
+	 * @param scope the macro the line is in, null outside of macros
+	 * @param jumpTable the line of every LABEL of the program
+	 * @throws SimplerException When a LABEL is declared twice
+	 */
+	private static void declare(String[] tokens, int lineNumber, SymbolTable symbols, SymbolTable scope, HashMap<String, Integer> jumpTable) throws SimplerException {
+		SymbolTable variables = scope == null ? symbols : scope;
+		switch (opcodeOf(tokens)) {
+			case INT: case FOR: {
+				if (tokens.length > 1) variables.declareInteger(tokens[1]);
+				break;
+			} case MUTABLE: {
+				if (tokens.length > 2) variables.declareMutable(tokens[2]);
+				break;
+			} case STRING: {
+				variables.declareString(tokens[1]);
+				break;
+			} case LABEL: {
+				if (jumpTable.containsKey(tokens[1])) throw new SimplerException("Label " + tokens[1] + " already exists!");
+				symbols.declareLabel(tokens[1]);
+				jumpTable.put(tokens[1], lineNumber);
+				break;
+			} default: {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Fourth pass, resolves the variable names of the line into slots, local slots first.
+	 * @param tokens the tokens of the line
+	 * @param line the line of code, null when it is not kept
+	 * @param lineNumber index of the line in its program
+	 * @param symbols the table to resolve labels and global variables from
+	 * @param scope the macro the line is in, null outside of macros
+	 * @param jumpTable the line of every LABEL of the program
+	 * @param block the matching line from the block index, -1 if none
+	 * @return the decoded Instruction
+	 */
+	private static Instruction resolve(String[] tokens, String line, int lineNumber, SymbolTable symbols, SymbolTable scope, HashMap<String, Integer> jumpTable, int block) {
+		Opcode opcode = opcodeOf(tokens);
+		Storage storage = Storage.NONE;
+		int slot = -1, operandSlot = -1, target = block;
+		boolean local = false, operandLocal = false;
+		String name = null;
+		switch (opcode) {
+			case INT: case FOR: case STRING: case IF: case PRINTVAR: {
+				if (tokens.length > 1) name = tokens[1];
+				break;
+			} case MUTABLE: {
+				if (tokens.length > 2) name = tokens[2];
+				break;
+			} case ASSIGN: {
+				name = tokens[0];
+				break;
+			} default: {
+				break;
+			}
+		}
+		if (name != null && scope != null) local = scope.integerSlot(name) != -1 || scope.stringSlot(name) != -1;
+		SymbolTable variables = local ? scope : symbols;
+		switch (opcode) {
+			case INT: case FOR: case MUTABLE: {
+				if (name != null) slot = variables.integerSlot(name);
+				storage = integerStorage(slot, variables);
+				break;
+			} case STRING: {
+				slot = variables.stringSlot(name);
+				storage = Storage.STRING;
+				break;
+			} case IF: {
+				if (tokens[3].equals("int")) {
+					slot = variables.integerSlot(name);
+					storage = integerStorage(slot, variables);
+				} else if ((slot = variables.stringSlot(name)) != -1) {
+					storage = Storage.STRING;
+				}
+				break;
+			} case PRINTVAR: case ASSIGN: {
+				slot = variables.integerSlot(name);
+				storage = integerStorage(slot, variables);
+				if (slot == -1 && (slot = variables.stringSlot(name)) != -1) storage = Storage.STRING;
+				if (opcode == Opcode.ASSIGN && storage != Storage.STRING && tokens.length > 2) {
+					operandLocal = scope != null && scope.integerSlot(tokens[2]) != -1;
+					operandSlot = (operandLocal ? scope : symbols).integerSlot(tokens[2]);
+				}
+				break;
+			} case LABEL: case GOTO: {
+				slot = symbols.labelSlot(tokens[1]);
+				if (jumpTable.containsKey(tokens[1])) target = jumpTable.get(tokens[1]);
+				break;
+			} default: {
+				break;
+			}
+		}
+		return new Instruction(opcode, tokens, line, lineNumber, storage, slot, local, operandSlot, operandLocal, target);
+	}
+
+	/**
+	 * @param slot an integer slot, or -1
+	 * @param symbols the table the slot comes from
+	 * @return MUTABLE or INT, NONE if the slot is -1
+	 */
+	private static Storage integerStorage(int slot, SymbolTable symbols) {
+		if (slot == -1) return Storage.NONE;
+		return symbols.isMutable(slot) ? Storage.MUTABLE : Storage.INT;
+	}
+
+	/**
+	 * Parent tokenizing method.
+	 * @param line Line of code to tokenize
+	 * @return String[] tokens
+	 * @see #tokenizeSimple(String)
+	 * @see #tokenizeQuotes(String)
+	 * @see #tokenizeBraces(String)
+	 */
+	private static String[] tokenize(String line) {
+		for (String startingToken : tokenizedBySpace) {
+			if (line.indexOf(startingToken) == 0) return tokenizeSimple(line);
+		} for (String startingToken : tokenizedByQuotes) {
+			if (line.indexOf(startingToken) == 0) return tokenizeQuotes(line);
+		} for (String startingToken : tokenizedByBraces) {
+			if (line.indexOf(startingToken) == 0) return tokenizeBraces(line);
+		} for (String startingToken : endingStrings) {
+			if (line.indexOf(startingToken) == 0) return tokenizeSimple(line);
+		} if (line.indexOf('"') != -1) {
+			return tokenizeQuotes(line);
+		} return tokenizeSimple(line);
+	}
+
+	/**
+	 * Returns the line of code split by spaces
+	 * @param line A line of code
+	 * @return An array of strings representing the tokens
+	 */
+	private static String[] tokenizeSimple(String line) {
+		return line.split(" ");
+	}
+
+	/**
+	 * Tokenize PRINTSTR, STRING and string assignments
+	 * @param line the code line. format: [PRINTSTR "[text]" (endl)] OR [STRING [name] = "[value]"] OR [[name] = "[value]"]
+	 * @return tokens : String[], or null if the line is malformed
+	 */
+	private static String[] tokenizeQuotes(String line) {
+		ArrayList<String> tokens = new ArrayList<>();
+		String[] quoted = line.split("\"");
+		String[] spaced = line.split(" ");
+		if (quoted.length < 2) return null;
+		if (line.indexOf("PRINTSTR") == 0) {
+			return new String[] {"PRINTSTR", quoted[1], spaced[spaced.length - 1]};
+		} else if (line.indexOf("STRING") == 0) {
+			tokens.add("STRING");
+			if (spaced.length < 3 || !spaced[2].equals("=")) return null;
+			else tokens.add(spaced[1]);
+			tokens.add("=");
+			tokens.add(quoted[1]);
+			return Strings.toStringArray(tokens.toArray());
+		} return new String[] {spaced[0], spaced[1], quoted[1]};
+	}
+
+	/**
+	 * Tokenize IF / FOR / MACRO statements
+	 * @param line the code line. format: [IF [variable name] [operator] [value] [regular statement]] OR [FOR [starting value] [end value] [regular statement]] OR [MACRO [name]]
+	 * @return tokens : String[]
+	 */
+	private static String[] tokenizeBraces(String line) {
+		ArrayList<String> tokens = new ArrayList<>();
+		String[] spaced = line.split(" ");
+		if (line.indexOf("IF") == 0) {
+			tokens.add("IF");
+			tokens.add(spaced[1]);
+			tokens.add(spaced[2]);
+			if (Strings.isNumeric(spaced[3])) {
+				tokens.add("int");
+				tokens.add(spaced[3]);
+			} else {
+				tokens.add("string");
+				tokens.add(line.split("\"")[1]);
+			}
+			return Strings.toStringArray(tokens.toArray());
+		} else if (line.indexOf("FOR") == 0) {
+			tokens.add("FOR");
+			tokens.add(spaced[1]);
+			if (spaced[2].equals("FROM")) {
+				tokens.add("FROM");
+				tokens.add(spaced[3]);
+				tokens.add("TO");
+				if (spaced.length > 5 && spaced[4].equals("TO")) tokens.add(spaced[5]);
+				else tokens.add("NaN");
+				if (spaced.length > 7) {
+					tokens.add("INCREMENT");
+					tokens.add(spaced[7]);
+				}
+			}
+			return Strings.toStringArray(tokens.toArray());
+		} else if (line.indexOf("MACRO") == 0) {
+			tokens.add("MACRO");
+			tokens.add(spaced[1]);
+		}
+		return Strings.toStringArray(tokens.toArray());
+	}
+
+	/**
+	 * Decides what a tokenized line does.
+	 * @param tokens the tokens of the line
+	 * @return the matching Opcode, ASSIGN if the line starts with a variable name
+	 */
+	static Opcode opcodeOf(String[] tokens) {
+		switch (tokens[0]) {
+			case "INT": return Opcode.INT;
+			case "STRING": return Opcode.STRING;
+			case "MUTABLE": return Opcode.MUTABLE;
+			case "PRINTVAR": return Opcode.PRINTVAR;
+			case "PRINTSTR": return Opcode.PRINTSTR;
+			case "IF": return Opcode.IF;
+			case "FOR": return Opcode.FOR;
+			case "MACRO": return Opcode.MACRO;
+			case "CALL": return Opcode.CALL;
+			case "LABEL": return Opcode.LABEL;
+			case "GOTO": return Opcode.GOTO;
+			case "END": return Opcode.END;
+			case "FLUSH": return Opcode.FLUSH;
+			default: {
+				if (tokens[0].indexOf("//") == 0) return Opcode.COMMENT;
+				return Opcode.ASSIGN;
+			}
+		}
+	}
+}
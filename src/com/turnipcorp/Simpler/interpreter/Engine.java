@@ -0,0 +1,38 @@
+package com.turnipcorp.Simpler.interpreter;
+
+/**
+ * The ways the Interpreter can run a compiled program.
+ * @see Interpreter#setEngine(Engine)
+ */
+public enum Engine {
+	
+	/**
+	 * Walks the compiled lines, dispatching on their opcodes.
+	 */
+	INTERPRETER,
+	
+	/**
+	 * Builds a tree of typed nodes out of the compiled lines, then executes the tree.
+	 * @see com.turnipcorp.Simpler.interpreter.ast.AstEngine
+	 */
+	AST,
+	
+	/**
+	 * Lowers the compiled lines to bytecode, then runs it in a register machine.
+	 * @see com.turnipcorp.Simpler.interpreter.vm.VirtualMachine
+	 */
+	VM,
+	
+	/**
+	 * Generates a JVM class out of the bytecode, falls back to the INTERPRETER for programs it cannot compile.
+	 * @see com.turnipcorp.Simpler.interpreter.jit.JitEngine
+	 */
+	JIT,
+	
+	/**
+	 * Starts like the INTERPRETER, then compiles the FOR loops, macros and GOTO loops that run often
+	 * and switches to the compiled code in the middle of the run.
+	 * @see HotRegions
+	 */
+	TIERED
+}
@@ -0,0 +1,80 @@
+package com.turnipcorp.Simpler.interpreter;
+
+/**
+ * The limits that stop a Simpler++ program from looping or recursing forever.
+ * <br /> Only backward jumps are counted: a GOTO to a LABEL above it, and every repetition of a FOR loop.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - maxLabelJumps : int
+ * <li> - maxJumps : long
+ * <li> - maxCallDepth : int
+ * </ul>
+ * @see Interpreter#getBudget()
+ */
+public class ExecutionBudget {
+
+	/**
+	 * Pass this to a setter to remove the limit.
+	 */
+	public static final int UNLIMITED = 0;
+
+	/**
+	 * How many times a single label can be jumped back to before its LABEL line runs again. 10 000 by default.
+	 */
+	private int maxLabelJumps = 10000;
+
+	/**
+	 * How many backward jumps a whole program can do. Unlimited by default.
+	 */
+	private long maxJumps = Long.MAX_VALUE;
+
+	/**
+	 * How many macro calls can be nested, including recursive ones. 1 000 by default.
+	 */
+	private int maxCallDepth = 1000;
+
+	/**
+	 * Empty constructor, same limits as before the budget existed.
+	 */
+	public ExecutionBudget() {}
+
+	public int getMaxLabelJumps() {
+		return maxLabelJumps;
+	}
+
+	/**
+	 * @param maxLabelJumps the new limit per label, UNLIMITED or less to remove it
+	 */
+	public void setMaxLabelJumps(int maxLabelJumps) {
+		this.maxLabelJumps = maxLabelJumps <= UNLIMITED ? Integer.MAX_VALUE : maxLabelJumps;
+	}
+
+	public long getMaxJumps() {
+		return maxJumps;
+	}
+
+	/**
+	 * @param maxJumps the new limit per program, UNLIMITED or less to remove it
+	 */
+	public void setMaxJumps(long maxJumps) {
+		this.maxJumps = maxJumps <= UNLIMITED ? Long.MAX_VALUE : maxJumps;
+	}
+
+	public int getMaxCallDepth() {
+		return maxCallDepth;
+	}
+
+	/**
+	 * @param maxCallDepth the new limit of nested macro calls, UNLIMITED or less to remove it
+	 */
+	public void setMaxCallDepth(int maxCallDepth) {
+		this.maxCallDepth = maxCallDepth <= UNLIMITED ? Integer.MAX_VALUE : maxCallDepth;
+	}
+
+	@Override
+	public String toString() {
+		return "label: " + (maxLabelJumps == Integer.MAX_VALUE ? "unlimited" : maxLabelJumps)
+				+ ", program: " + (maxJumps == Long.MAX_VALUE ? "unlimited" : maxJumps)
+				+ ", depth: " + (maxCallDepth == Integer.MAX_VALUE ? "unlimited" : maxCallDepth);
+	}
+}
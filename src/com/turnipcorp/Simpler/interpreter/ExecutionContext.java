@@ -0,0 +1,679 @@
+package com.turnipcorp.Simpler.interpreter;
+
+import java.lang.invoke.MethodHandle;
+import java.util.HashMap;
+
+import com.turnipcorp.Simpler.interpreter.ast.AstEngine;
+import com.turnipcorp.Simpler.interpreter.jit.JitEngine;
+import com.turnipcorp.Simpler.interpreter.jit.JitRegion;
+import com.turnipcorp.Simpler.interpreter.jit.MacroCaller;
+import com.turnipcorp.Simpler.interpreter.vm.VirtualMachine;
+import com.turnipcorp.Simpler.lang.InterpreterError;
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * One run of a program: its memory, its macro call frames, its loop guard and where it prints.
+ * <br /> A context is cheap to create and is used by a single thread, the Program it runs is shared. Many contexts can run
+ * the same Program at the same time, they have nothing in common but the budget, which they only read.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - program : Program
+ * <li> - symbols : SymbolTable
+ * <li> - engine : Engine
+ * <li> - tierThreshold : int
+ * <li> - debug : boolean
+ * <li> - globals : Frame
+ * <li> - frame : Frame
+ * <li> - pool : FramePool
+ * <li> - macroMemory : HashMap[String, Macro]
+ * <li> - guard : LoopGuard
+ * <li> - output : Output
+ * <li> - hot : HotRegions
+ * <li> - closedLoops : ClosedLoop[]
+ * </ul>
+ * <br /> List of methods:
+ * <ul>
+ * <li> ~ ExecutionContext (Program, SymbolTable, Engine, int, boolean, ExecutionBudget, Output)
+ * <li> + run () : void
+ * <li> + getOutput () : Output
+ * <li> ~ stream (StreamingCompiler) : void
+ * <li> - interpret () : void
+ * <li> - overflow (StackOverflowError) : StackOverflowError
+ * <li> - run (Instruction[], int, int) : int
+ * <li> - executeLine (Instruction) : void
+ * <li> - allocateMemory () : void
+ * <li> - assignVariable (Instruction) : void
+ * <li> - addIntegerVariable (Instruction) : void
+ * <li> - addMutableVariable (Instruction) : void
+ * <li> - changeMutableVariable (Instruction) : void
+ * <li> - changeIntegerVariable (Instruction) : void
+ * <li> - addStringVariable (Instruction) : void
+ * <li> - changeStringVariable (Instruction) : void
+ * <li> - printVariable (Instruction) : void
+ * <li> - doChoice (Instruction) : boolean
+ * <li> - addLabel (Instruction) : void
+ * <li> - jumptoLabel (Instruction) : int
+ * <li> - evaluate (Instruction) : boolean
+ * <li> - loop (Instruction[], int) : int
+ * <li> - callMacro (Instruction) : void
+ * <li> + call (String) : void
+ * <li> - memoryOf (boolean) : Frame
+ * <li> - defineMacro (Instruction[], int) : int
+ * <li> - printString (String[]) : void
+ * </ul>
+ * @see Interpreter#newContext(Program, Output)
+ * @see Program
+ */
+public final class ExecutionContext implements MacroCaller {
+	
+	/**
+	 * The program run by run(), null for a program run while it is read.
+	 */
+	private final Program program;
+	
+	/**
+	 * The slot of every variable name in the program being run.
+	 */
+	private final SymbolTable symbols;
+	
+	/**
+	 * Which engine runs the program.
+	 */
+	private final Engine engine;
+	
+	/**
+	 * How many times a FOR repeats, a macro is called or a label is jumped back to before the TIERED engine compiles it.
+	 */
+	private final int tierThreshold;
+	
+	/**
+	 * When debug mode is on, it shows you which line the interpreter is on.
+	 */
+	private final boolean debug;
+	
+	/**
+	 * The memory reserved for user-created global variables, indexed by slot.
+	 */
+	private final Frame globals = new Frame();
+	
+	/**
+	 * The memory of the macro call being executed, null outside of macros.
+	 */
+	private Frame frame = null;
+	
+	/**
+	 * Pool of macro call frames, indexed by call depth, recycled from call to call.
+	 */
+	private final FramePool pool;
+	
+	/**
+	 * Memory reserved for macros (functions), compiled once when their MACRO line runs.
+	 */
+	private final HashMap<String, Macro> macroMemory = new HashMap<>();
+	
+	/**
+	 * Counts the backward jumps of the program being run, per label and in total.
+	 * The lines the labels are on are resolved by the Compiler.
+	 */
+	private final LoopGuard guard;
+	
+	/**
+	 * Where the program prints.
+	 */
+	private final Output output;
+	
+	/**
+	 * The counters and compiled regions of the TIERED run in progress, null otherwise.
+	 */
+	private HotRegions hot = null;
+	
+	/**
+	 * The closed form of every FOR of the program being interpreted, null when another engine runs it.
+	 */
+	private ClosedLoop[] closedLoops = null;
+	
+	/**
+	 * Constructor
+	 * @param program the program to run, null to run parts of a program with stream
+	 * @param symbols the table of the program, or the one the parts are compiled with
+	 * @param engine the engine that runs the program
+	 * @param tierThreshold how many times a region runs before the TIERED engine compiles it
+	 * @param debug whether every line is shown before it runs
+	 * @param budget the limits of the loop guard and the call depth
+	 * @param output where the program prints
+	 */
+	ExecutionContext(Program program, SymbolTable symbols, Engine engine, int tierThreshold, boolean debug, ExecutionBudget budget, Output output) {
+		this.program = program;
+		this.symbols = symbols;
+		this.engine = engine;
+		this.tierThreshold = tierThreshold;
+		this.debug = debug;
+		this.pool = new FramePool(budget);
+		this.guard = new LoopGuard(budget);
+		this.output = output;
+	}
+	
+	/**
+	 * Runs the program from its first line to its last, with the engine of the context, then flushes what it printed.
+	 * <br /> A context runs its program once, its memory is not cleared for another run.
+	 * <br /> Macro calls nest Java frames, fewer with some engines than with others, so a budget deeper than the stack
+	 * of the thread can let the JVM run out first: its StackOverflowError is reported like the budget's.
+	 * @throws SimplerException Whenever a syntax error appears.
+	 * @throws StackOverflowError When the budget, or the stack of the thread, runs out
+	 */
+	public void run() throws SimplerException, StackOverflowError {
+		allocateMemory();
+		try {
+			switch (engine) {
+				case AST: {
+					AstEngine.run(program.code(), symbols, globals, pool, guard, output);
+					break;
+				} case VM: {
+					VirtualMachine.run(program.chunk(), globals, pool, guard, output);
+					break;
+				} case JIT: {
+					MethodHandle compiled = program.compiled();
+					if (compiled != null) JitEngine.run(compiled, program.chunk(), globals, pool, guard, output);
+					else interpret();
+					break;
+				} case TIERED: {
+					if (!debug) hot = new HotRegions(program, tierThreshold, pool, guard, output, this);
+					interpret();
+					break;
+				} default: {
+					interpret();
+				}
+			}
+		} catch (StackOverflowError e) {
+			throw overflow(e);
+		} finally {
+			output.flush();
+		}
+	}
+	
+	public Output getOutput() {
+		return output;
+	}
+	
+	/**
+	 * Runs the program with this context, the FOR loops that only accumulate run in closed form.
+	 * @throws SimplerException Whenever a syntax error appears.
+	 */
+	private void interpret() throws SimplerException, StackOverflowError {
+		if (!debug) closedLoops = program.closedLoops();
+		try {
+			run(program.code(), 0, program.length());
+		} finally {
+			hot = null;
+			closedLoops = null;
+		}
+	}
+	
+	/**
+	 * Runs a program while it is compiled, part after part, a GOTO can jump back to any part already run.
+	 * <br /> The whole program is never optimized and its loops never run in closed form, only its parts are known.
+	 * What it printed is flushed once it ends.
+	 * @param stream the program being read, compiled with the table of this context
+	 * @throws SimplerException Whenever a syntax error appears.
+	 */
+	void stream(StreamingCompiler stream) throws SimplerException, StackOverflowError {
+		int pc = 0, to, jump;
+		try {
+			while (true) {
+				while (pc >= stream.length()) if (!stream.next()) return;
+				allocateMemory();
+				to = stream.length();
+				jump = run(stream.program(), pc, to);
+				pc = jump == -1 ? to : jump;
+			}
+		} catch (StackOverflowError e) {
+			throw overflow(e);
+		} finally {
+			stream.close();
+			output.flush();
+		}
+	}
+	
+	/**
+	 * @param e a StackOverflowError out of a program
+	 * @return e when it is the budget's, the JVM's has no message
+	 */
+	private static StackOverflowError overflow(StackOverflowError e) {
+		if (e.getMessage() != null) return e;
+		return new StackOverflowError("Macro calls nested deeper than the stack allows, lower the call depth budget");
+	}
+	
+	/**
+	 * Walks the lines from..to of compiled code, blocks are entered and skipped by the offsets in the block index.
+	 * <br /> The body of an IF runs inline, a FOR runs its body through this method once per repetition.
+	 * <br /> With the TIERED engine, a label that GOTOs keep jumping back to gets the rest of from..to compiled, and continues there.
+	 * @param code the compiled program
+	 * @param from index of the first line to run
+	 * @param to index after the last line to run
+	 * @return -1, or the LABEL line of a GOTO that jumped out of from..to, which the caller has to continue from
+	 * @throws SimplerException Whenever a syntax error appears.
+	 */
+	private int run(Instruction[] code, int from, int to) throws SimplerException, StackOverflowError {
+		int jump;
+		for (int pc = from; pc < to; pc++) {
+			if (debug) output.println("\nLine " + pc + "\n");
+			Instruction instruction = code[pc];
+			switch (instruction.getOpcode()) {
+				case MACRO: {
+					pc = defineMacro(code, pc);
+					break;
+				} case IF: {
+					if (!doChoice(instruction)) pc = instruction.getTarget();
+					break;
+				} case FOR: {
+					jump = loop(code, pc);
+					pc = jump == -1 ? instruction.getTarget() : jump;
+					if (pc < from || pc >= to) return pc;
+					break;
+				} case GOTO: {
+					pc = jumptoLabel(instruction);
+					if (pc < from || pc >= to) return pc;
+					JitRegion region;
+					if (hot == null || pc > instruction.getLineNumber() || (region = hot.promote(pc, pc + 1, to, false)) == null) break;
+					if ((jump = region.run(globals, frame, 0)) == -1) return -1;
+					pc = jump;
+					if (pc < from || pc >= to) return pc;
+					break;
+				} default: {
+					executeLine(instruction);
+				}
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Executes a compiled line.
+	 * @param instruction A decoded line of code.
+	 * @throws SimplerException When a syntax error is raised.
+	 */
+	private void executeLine(Instruction instruction) throws SimplerException {
+		String[] tokens = instruction.tokens();
+		switch (instruction.getOpcode()) {
+			case INT: {
+				addIntegerVariable(instruction);
+				break;
+			} case STRING: {
+				addStringVariable(instruction);
+				break;
+			} case MUTABLE: {
+				addMutableVariable(instruction);
+				break;
+			} case PRINTVAR: {
+				printVariable(instruction);
+				break;
+			} case COMMENT: {
+				break;
+			} case PRINTSTR: {
+				printString(tokens);
+				break;
+			} case CALL: {
+				callMacro(instruction);
+				break;
+			} case END: {
+				break;
+			} case LABEL: {
+				addLabel(instruction);
+				break;
+			} case FLUSH: {
+				output.flush();
+				break;
+			} default: {
+				assignVariable(instruction);
+			}
+		}
+	}
+	
+	/**
+	 * Dispatches a line that starts with a variable name to the right change method.
+	 * @param instruction Instruction given by the Compiler
+	 * @throws SimplerException When a syntax error occurs
+	 */
+	private void assignVariable(Instruction instruction) throws SimplerException {
+		Frame memory = memoryOf(instruction.isLocal());
+		int slot = instruction.getSlot();
+		switch (instruction.getStorage()) {
+			case INT: {
+				if (memory.states[slot] == Frame.UNDECLARED) break;
+				changeIntegerVariable(instruction);
+				return;
+			} case STRING: {
+				if (memory.strings[slot] == null) break;
+				changeStringVariable(instruction);
+				return;
+			} case MUTABLE: {
+				if (memory.states[slot] == Frame.UNDECLARED) break;
+				if (instruction.getToken(1).equals("=")) changeMutableVariable(instruction);
+				else changeIntegerVariable(instruction);
+				return;
+			} default: {
+				break;
+			}
+		}
+		throw new InterpreterError("Syntax Error: Unknown token: " + instruction.getToken(0));
+	}
+	
+	/**
+	 * Adds a variable to the integer memory, the frame of the macro call if it is declared in a macro.
+	 * @param instruction Instruction given by the Compiler
+	 * @throws SimplerException when either an equals sign is not present or an existing variable name is used.
+	 * @throws NumberFormatException when the string given cannot be parsed into an integer.
+	 * @see Compiler#compile(String[], SymbolTable)
+	 */
+	private void addIntegerVariable(Instruction instruction) throws SimplerException, NumberFormatException {
+		String[] tokens = instruction.tokens();
+		Frame memory = memoryOf(instruction.isLocal());
+		int slot = instruction.getSlot();
+		if (!tokens[2].equals("=")) throw new SimplerException("Expected '=' sign!");
+		else if (memory.states[slot] != Frame.UNDECLARED) throw new SimplerException("Expected new variable name!");
+		else if (instruction.isNumeric(1)) throw new SimplerException("Expected valid variable name!");
+		else {
+			memory.integers[slot] = instruction.getLiteral(3);
+			memory.states[slot] = Frame.DECLARED;
+		}
+	}
+	
+	private void addMutableVariable(Instruction instruction) throws SimplerException {
+		Frame memory = memoryOf(instruction.isLocal());
+		int slot = instruction.getSlot();
+		if (instruction.tokenCount() > 3) {
+			memory.integers[slot] = instruction.getLiteral(4);
+			memory.states[slot] = Frame.DECLARED;
+		} else {
+			memory.states[slot] = Frame.NULL;
+		}
+	}
+	
+	private void changeMutableVariable(Instruction instruction) throws SimplerException {
+		Frame memory = memoryOf(instruction.isLocal());
+		int slot = instruction.getSlot();
+		if (memory.states[slot] == Frame.UNDECLARED) throw new SimplerException("Expected existing mutable variable name!");
+		memory.integers[slot] = instruction.getLiteral(2);
+		memory.states[slot] = Frame.DECLARED;
+	}
+	
+	/**
+	 * Modifies an existing variable in the integer memory
+	 * @param instruction Instruction given by the Compiler
+	 * @throws SimplerException When a syntax error occurs
+	 */
+	private void changeIntegerVariable(Instruction instruction) throws SimplerException {
+		String[] tokens = instruction.tokens();
+		Frame memory = memoryOf(instruction.isLocal());
+		Frame operandMemory = memoryOf(instruction.isOperandLocal());
+		int slot = instruction.getSlot();
+		int operandSlot = instruction.getOperandSlot();
+		int val, operand = 0;
+		if (memory.states[slot] == Frame.UNDECLARED) throw new InterpreterError("Sorry I messed up your code!");
+		else if (memory.states[slot] == Frame.NULL) throw new SimplerException("Expected existing variable name!");
+		else {
+			val = memory.integers[slot];
+			if (tokens.length > 2) {
+				if (operandSlot != -1 && operandMemory.states[operandSlot] == Frame.DECLARED) operand = operandMemory.integers[operandSlot];
+				else operand = instruction.getLiteral(2);
+			}
+			switch (tokens[1]) {
+				case "++": {
+					memory.integers[slot] = val + 1;
+					break;
+				} case "--": {
+					memory.integers[slot] = val - 1;
+					break;
+				} case "+=": {
+					memory.integers[slot] = val + operand;
+					break;
+				} case "-=": {
+					memory.integers[slot] = val - operand;
+					break;
+				} case "*=": {
+					memory.integers[slot] = val * operand;
+					break;
+				} case "/=": {
+					memory.integers[slot] = val / operand;
+					break;
+				} case "**=": {
+					memory.integers[slot] = (int) Math.round(Math.pow(val, operand));
+					break;
+				} default: {
+					throw new SimplerException("Unknown operator!");
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Adds a variable to the string memory, the frame of the macro call if it is declared in a macro.
+	 * @param instruction Instruction given by the Compiler
+	 * @throws SimplerException when either an equals sign is not present or an existing variable name is used.
+	 * @see Compiler#compile(String[], SymbolTable)
+	 */
+	private void addStringVariable(Instruction instruction) throws SimplerException {
+		String[] tokens = instruction.tokens();
+		Frame memory = memoryOf(instruction.isLocal());
+		if (!tokens[2].equals("=")) throw new SimplerException("Expected '=' sign!");
+		else if (memory.strings[instruction.getSlot()] != null) throw new SimplerException("Expected new variable name!");
+		else memory.strings[instruction.getSlot()] = tokens[3];
+	}
+	
+	private void changeStringVariable(Instruction instruction) throws SimplerException {
+		String[] tokens = instruction.tokens();
+		Frame memory = memoryOf(instruction.isLocal());
+		if (!tokens[1].equals("=")) throw new SimplerException("Expected '=' sign!");
+		else if (memory.strings[instruction.getSlot()] == null) throw new SimplerException("Expected existing variable name!");
+		memory.strings[instruction.getSlot()] = tokens[2];
+	}
+	
+	private void printVariable(Instruction instruction) throws SimplerException {
+		String[] tokens = instruction.tokens();
+		Frame memory = memoryOf(instruction.isLocal());
+		int slot = instruction.getSlot();
+		boolean endl = tokens[tokens.length - 1].equals("endl");
+		switch (instruction.getStorage()) {
+			case INT: case MUTABLE: {
+				if (memory.states[slot] == Frame.DECLARED) output.print(Integer.toString(memory.integers[slot]), endl);
+				else if (memory.states[slot] == Frame.NULL) output.print("null", endl);
+				else break;
+				return;
+			} case STRING: {
+				if (memory.strings[slot] == null) break;
+				output.print(memory.strings[slot], endl);
+				return;
+			} default: {
+				break;
+			}
+		}
+		throw new SimplerException("Variable (Function) name not found!");
+	}
+	
+	/**
+	 * Function for evaluating IF statements in Simpler++.
+	 * @return whether the body of the IF runs
+	 */
+	private boolean doChoice(Instruction instruction) throws SimplerException {
+		String[] tokens = instruction.tokens();
+		Frame memory = memoryOf(instruction.isLocal());
+		int slot = instruction.getSlot();
+		if (tokens[3].equals("int") && (slot == -1 || memory.states[slot] != Frame.DECLARED)) throw new SimplerException("Expected existing variable name!");
+		else if (tokens[3].equals("string") && (slot == -1 || memory.strings[slot] == null)) throw new SimplerException("Expected existing variable name!");
+		return evaluate(instruction);
+	}
+	
+	/**
+	 * Resets the call stack of a label, its line is already in the jump table.
+	 * @param instruction Format: LABEL [label name]
+	 */
+	private void addLabel(Instruction instruction) {
+		guard.resetLabel(instruction.getSlot());
+	}
+	
+	/**
+	 * Increments the call stack of the given label and returns where to jump to.
+	 * @param instruction Format: GOTO [label name]
+	 * @return the line of the label, resolved by the Compiler
+	 * @throws SimplerException When the label does not exist
+	 */
+	private int jumptoLabel(Instruction instruction) throws SimplerException {
+		if (instruction.getTarget() == -1) throw new SimplerException("Label " + instruction.getToken(1) + " not found");
+		if (instruction.getTarget() <= instruction.getLineNumber()) guard.backwardJump(instruction.getSlot());
+		return instruction.getTarget();
+	}
+	
+	/**
+	 * Evaluates a Simpler++ boolean expression based on a compiled IF.
+	 * @param instruction The IF instruction.
+	 * @return a boolean value representing the evaluation of the tokens
+	 * @throws InterpreterError If the lexer f*cks up
+	 * @throws SimplerException If the lexer f*cks up
+	 */
+	private boolean evaluate(Instruction instruction) throws InterpreterError, SimplerException {
+		String[] tokens = instruction.tokens();
+		if (tokens[3].equals("int")) {
+			int value = memoryOf(instruction.isLocal()).integers[instruction.getSlot()];
+			int literal = instruction.getLiteral(4);
+			if (tokens[2].equals("==")) return value == literal;
+			else if (tokens[2].equals("<")) return value < literal;
+			else if (tokens[2].equals(">")) return value > literal;
+			else if (tokens[2].equals(">=")) return value >= literal;
+			else if (tokens[2].equals("<=")) return value <= literal;
+			else if (tokens[2].equals("!=")) return value != literal;
+			else throw new SimplerException("Unknown operator!");
+		} else if (tokens[3].equals("string")) {
+			String value = memoryOf(instruction.isLocal()).strings[instruction.getSlot()];
+			if (tokens[2].equals("==")) return value.equals(tokens[4]);
+			else if (tokens[2].equals("!=")) return !value.equals(tokens[4]);
+			else if (tokens[2].equals("<")) return value.compareTo(tokens[4]) < 0;
+			else if (tokens[2].equals(">")) return value.compareTo(tokens[4]) > 0;
+			else if (tokens[2].equals("<=")) return value.compareTo(tokens[4]) <= 0;
+			else if (tokens[2].equals(">=")) return value.compareTo(tokens[4]) >= 0;
+			else throw new SimplerException("Unknown operator!");
+		} else {
+			throw new InterpreterError("Unknown token error");
+		}
+	}
+	
+	/**
+	 * Runs the body of a FOR loop once per value of its variable, straight out of the compiled code.
+	 * <br /> A loop with a closed form runs all its repetitions at once.
+	 * <br /> With the TIERED engine, a loop that repeated enough is compiled, and the remaining repetitions run compiled.
+	 * @param code the compiled program
+	 * @param line index of the FOR line, its body ends at the END FOR in the block index
+	 * @return -1, or the LABEL line of a GOTO that jumped out of the body
+	 * @throws SimplerException When a syntax error is raised.
+	 */
+	private int loop(Instruction[] code, int line) throws SimplerException, NumberFormatException {
+		Instruction instruction = code[line];
+		String[] tokens = instruction.tokens();
+		Frame memory = memoryOf(instruction.isLocal());
+		int slot = instruction.getSlot();
+		int end = instruction.getTarget();
+		int i = 0;
+		int inc = 1;
+		int jump;
+		boolean repeated = false;
+		JitRegion region;
+		if (tokens.length > 6) inc = instruction.getLiteral(7);
+		if (closedLoops != null && closedLoops[line] != null && closedLoops[line].run(globals, frame, guard)) return -1;
+		if (tokens[5].equals("NaN")) {
+			i = instruction.getLiteral(3);
+			while (true) {
+				if (repeated) guard.backwardJump(-1);
+				repeated = true;
+				if (hot != null && (region = hot.promote(line, line, end + 1, true)) != null) return region.run(globals, frame, i);
+				memory.integers[slot] = i;
+				memory.states[slot] = Frame.DECLARED;
+				i += inc;
+				if ((jump = run(code, line + 1, end)) != -1) return jump;
+			}
+		}
+		int last = instruction.getLiteral(5);
+		for (i = instruction.getLiteral(3); i <= last; i += inc) {
+			if (repeated) guard.backwardJump(-1);
+			repeated = true;
+			if (hot != null && (region = hot.promote(line, line, end + 1, true)) != null) return region.run(globals, frame, i);
+			memory.integers[slot] = i;
+			memory.states[slot] = Frame.DECLARED;
+			if ((jump = run(code, line + 1, end)) != -1) return jump;
+		}
+		return -1;
+ 	}
+	
+	/**
+	 * Runs a macro in a fresh frame from the pool, so every call has its own local variables.
+	 * @param instruction Format: CALL [macro name]
+	 * @throws SimplerException When the macro does not exist or its code has a syntax error
+	 * @throws StackOverflowError When the calls are nested deeper than the budget allows
+	 */
+	private void callMacro(Instruction instruction) throws SimplerException, StackOverflowError {
+		call(instruction.getToken(1));
+	}
+	
+	/**
+	 * Runs a macro by name, the compiled regions of the TIERED engine call their macros through this, without a frame in between.
+	 * <br /> With the TIERED engine, a macro that was called enough runs its body compiled, once the call fits in the budget.
+	 * @param name the macro name
+	 * @throws SimplerException When the macro does not exist or its code has a syntax error
+	 * @throws StackOverflowError When the calls are nested deeper than the budget allows
+	 */
+	@Override
+	public void call(String name) throws SimplerException, StackOverflowError {
+		Macro macro = macroMemory.get(name);
+		if (macro == null) throw new SimplerException("Macro " + name + " not found");
+		pool.checkDepth();
+		JitRegion region = hot == null ? null : hot.promote(macro.start - 1, macro.start, macro.end, false);
+		Frame caller = frame;
+		frame = pool.acquire(macro.scope.integerCount(), macro.scope.stringCount());
+		try {
+			int jump = region == null ? run(macro.code, macro.start, macro.end) : region.run(globals, frame, 0);
+			if (jump != -1) throw new SimplerException("Cannot GOTO out of macro " + macro.name);
+		} finally {
+			pool.release();
+			frame = caller;
+		}
+	}
+	
+	/**
+	 * @param local whether the slot is local to the macro call
+	 * @return the frame of the macro call being executed, or the globals
+	 */
+	private Frame memoryOf(boolean local) {
+		return local ? frame : globals;
+	}
+	
+	/**
+	 * Saves a macro into macroMemory, its body is already compiled as part of the program.
+	 * @param code the compiled program
+	 * @param line index of the MACRO line
+	 * @return index of the END MACRO line
+	 */
+	private int defineMacro(Instruction[] code, int line) {
+		String name = code[line].getToken(1);
+		macroMemory.put(name, new Macro(name, code, line + 1, code[line].getTarget(), symbols.macroScope(name)));
+		return code[line].getTarget();
+	}
+	
+	private void printString(String[] tokens) {
+		if (tokens.length > 1) {
+			if (tokens[2].equals("endl")) {
+				output.println(tokens[1]);
+				return;
+			} else {
+				output.print(tokens[1]);
+			}
+		} else {
+			output.print(tokens[1]);
+		}
+	}
+	
+	/**
+	 * Grows the global memory so every slot in the SymbolTable fits, keeping the values already in it.
+	 */
+	private void allocateMemory() {
+		globals.ensureCapacity(symbols.integerCount(), symbols.stringCount());
+		guard.ensureCapacity(symbols.labelCount());
+	}
+}
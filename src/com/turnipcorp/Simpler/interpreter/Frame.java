@@ -0,0 +1,91 @@
+package com.turnipcorp.Simpler.interpreter;
+
+/**
+ * The variable memory of one scope: the globals of a program, or the locals of one CALL of a macro.
+ * <br /> Frames of macro calls are recycled by a FramePool, so a CALL does not allocate once the pool is warm.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> + integers : int[]
+ * <li> + states : byte[]
+ * <li> + strings : String[]
+ * </ul>
+ * @see SymbolTable
+ */
+public final class Frame {
+
+	/**
+	 * State of an integer slot whose variable has not been declared yet.
+	 */
+	public static final byte UNDECLARED = 0;
+
+	/**
+	 * State of an integer slot whose variable holds a value.
+	 */
+	public static final byte DECLARED = 1;
+
+	/**
+	 * State of a MUTABLE INT that was declared without a value.
+	 */
+	public static final byte NULL = 2;
+
+	/**
+	 * Integer and mutable variables, indexed by slot.
+	 */
+	public int[] integers = new int[0];
+
+	/**
+	 * Whether each integer slot is UNDECLARED, DECLARED or NULL.
+	 */
+	public byte[] states = new byte[0];
+
+	/**
+	 * String variables, indexed by slot. null when not declared yet.
+	 */
+	public String[] strings = new String[0];
+
+	/**
+	 * Empty constructor
+	 */
+	public Frame() {}
+
+	/**
+	 * Grows the frame so every slot fits, keeping the values already in it.
+	 * @param integerCount number of integer slots needed
+	 * @param stringCount number of string slots needed
+	 */
+	public void ensureCapacity(int integerCount, int stringCount) {
+		if (integers.length < integerCount) {
+			int[] newIntegers = new int[integerCount];
+			byte[] newStates = new byte[integerCount];
+			System.arraycopy(integers, 0, newIntegers, 0, integers.length);
+			System.arraycopy(states, 0, newStates, 0, states.length);
+			integers = newIntegers;
+			states = newStates;
+		}
+		if (strings.length < stringCount) {
+			String[] newStrings = new String[stringCount];
+			System.arraycopy(strings, 0, newStrings, 0, strings.length);
+			strings = newStrings;
+		}
+	}
+
+	/**
+	 * Makes the first slots undeclared again, so a recycled frame looks new.
+	 * @param integerCount number of integer slots needed
+	 * @param stringCount number of string slots needed
+	 */
+	public void reset(int integerCount, int stringCount) {
+		ensureCapacity(integerCount, stringCount);
+		for (int i = 0; i < integerCount; i++) states[i] = UNDECLARED;
+		for (int i = 0; i < stringCount; i++) strings[i] = null;
+	}
+
+	/**
+	 * Makes the frame empty again.
+	 */
+	public void clear() {
+		integers = new int[0];
+		states = new byte[0];
+		strings = new String[0];
+	}
+}
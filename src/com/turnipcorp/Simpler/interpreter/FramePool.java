@@ -0,0 +1,91 @@
+package com.turnipcorp.Simpler.interpreter;
+
+/**
+ * Recycles the frames of macro calls, one per call depth, so a CALL does not allocate once the pool is warm.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - frames : Frame[]
+ * <li> - depth : int
+ * <li> - budget : ExecutionBudget
+ * </ul>
+ * @see Frame
+ * @see ExecutionBudget#getMaxCallDepth()
+ */
+public final class FramePool {
+
+	/**
+	 * The frames, indexed by call depth.
+	 */
+	private Frame[] frames = new Frame[0];
+
+	/**
+	 * Number of frames currently in use.
+	 */
+	private int depth = 0;
+
+	/**
+	 * Where the call depth limit comes from.
+	 */
+	private final ExecutionBudget budget;
+
+	/**
+	 * Constructor
+	 * @param budget Where the call depth limit comes from
+	 */
+	public FramePool(ExecutionBudget budget) {
+		this.budget = budget;
+	}
+
+	/**
+	 * Takes the frame for the next call depth out of the pool and makes it look new.
+	 * @param integerCount number of local integer slots
+	 * @param stringCount number of local string slots
+	 * @return the frame, only allocated the first time this depth is reached
+	 * @throws StackOverflowError When the calls are nested deeper than the budget allows
+	 */
+	public Frame acquire(int integerCount, int stringCount) throws StackOverflowError {
+		checkDepth();
+		if (depth == frames.length) {
+			Frame[] newFrames = new Frame[Math.max(8, frames.length * 2)];
+			System.arraycopy(frames, 0, newFrames, 0, frames.length);
+			frames = newFrames;
+		}
+		if (frames[depth] == null) frames[depth] = new Frame();
+		frames[depth].reset(integerCount, stringCount);
+		return frames[depth++];
+	}
+
+	/**
+	 * Checks that one more call fits in the budget, before anything is done for the call.
+	 * @throws StackOverflowError When the calls are nested deeper than the budget allows
+	 */
+	public void checkDepth() throws StackOverflowError {
+		if (depth >= budget.getMaxCallDepth()) throw new StackOverflowError("Macro call depth of " + budget.getMaxCallDepth() + " exceeded");
+	}
+
+	/**
+	 * Gives the frame of the innermost call back to the pool.
+	 */
+	public void release() {
+		depth--;
+	}
+
+	public int depth() {
+		return depth;
+	}
+
+	/**
+	 * Releases every frame, keeping them for the next program.
+	 */
+	public void reset() {
+		depth = 0;
+	}
+
+	/**
+	 * Drops every frame.
+	 */
+	public void clear() {
+		frames = new Frame[0];
+		depth = 0;
+	}
+}
@@ -0,0 +1,89 @@
+package com.turnipcorp.Simpler.interpreter;
+
+import java.lang.invoke.MethodHandle;
+
+import com.turnipcorp.Simpler.interpreter.jit.JitEngine;
+import com.turnipcorp.Simpler.interpreter.jit.JitRegion;
+import com.turnipcorp.Simpler.interpreter.jit.MacroCaller;
+
+/**
+ * The counters of a run of the TIERED engine, and the regions of the program it runs compiled once they got hot.
+ * <br /> Every region belongs to one line: a FOR and its body up to the END FOR, counted per repetition,
+ * a MACRO and its body, counted per call, or the lines after a LABEL up to the end of its block, counted per backward GOTO.
+ * <br /> The classes of the regions belong to the Program, compiled once for every run: a region another run compiled
+ * is used from the first time the line runs, only the frames, the budget and the output are the run's own.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - program : Program
+ * <li> - threshold : int
+ * <li> - pool : FramePool
+ * <li> - guard : LoopGuard
+ * <li> - output : Output
+ * <li> - caller : MacroCaller
+ * <li> - counters : int[]
+ * <li> - regions : JitRegion[]
+ * </ul>
+ * @see Engine#TIERED
+ * @see Program#region(int, int, int, boolean)
+ */
+final class HotRegions {
+
+	private final Program program;
+
+	/**
+	 * How many times a line runs before its region is compiled.
+	 */
+	private final int threshold;
+
+	private final FramePool pool;
+	private final LoopGuard guard;
+	private final Output output;
+	private final MacroCaller caller;
+
+	/**
+	 * How many times every line ran, -1 once its region turned out not to compile.
+	 */
+	private final int[] counters;
+
+	/**
+	 * The compiled region of every line, for this run, null until it is hot.
+	 */
+	private final JitRegion[] regions;
+
+	/**
+	 * Constructor
+	 * @param program the program being run
+	 * @param threshold how many times a line runs before its region is compiled
+	 * @param pool frames for the macro calls
+	 * @param guard charges the backward jumps of the regions to the budget
+	 * @param output where the regions print
+	 * @param caller runs the CALLs of the regions
+	 */
+	HotRegions(Program program, int threshold, FramePool pool, LoopGuard guard, Output output, MacroCaller caller) {
+		this.program = program;
+		this.threshold = threshold;
+		this.pool = pool;
+		this.guard = guard;
+		this.output = output;
+		this.caller = caller;
+		this.counters = new int[program.length()];
+		this.regions = new JitRegion[program.length()];
+	}
+
+	/**
+	 * Counts one more run of a line, and compiles its region when the line crosses the threshold, unless a run already did.
+	 * @param line the FOR, MACRO or LABEL line
+	 * @param from index of the first line of the region
+	 * @param to index after the last line of the region
+	 * @param loop whether the region starts with the FOR line
+	 * @return the compiled region, null while the line is cold or if it cannot be compiled
+	 */
+	JitRegion promote(int line, int from, int to, boolean loop) {
+		if (regions[line] != null) return regions[line];
+		if (counters[line] < 0 || ++counters[line] < threshold && !program.hasRegion(line)) return null;
+		MethodHandle region = program.region(line, from, to, loop);
+		if (region == null) counters[line] = -1;
+		else regions[line] = JitEngine.newRegion(region, program.chunk(), pool, guard, output, caller);
+		return regions[line];
+	}
+}
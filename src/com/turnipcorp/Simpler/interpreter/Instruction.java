@@ -0,0 +1,240 @@
+package com.turnipcorp.Simpler.interpreter;
+
+/**
+ * One decoded line of Simpler++, produced once by the Compiler and never modified afterwards.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - opcode : Opcode
+ * <li> - tokens : String[]
+ * <li> - literals : int[]
+ * <li> - numeric : boolean[]
+ * <li> - source : String
+ * <li> - lineNumber : int
+ * <li> - storage : Storage
+ * <li> - slot : int
+ * <li> - local : boolean
+ * <li> - operandSlot : int
+ * <li> - operandLocal : boolean
+ * <li> - target : int
+ * </ul>
+ * @see Compiler#compile(String[], SymbolTable)
+ */
+public final class Instruction {
+
+	/**
+	 * Which memory the variable of an instruction lives in.
+	 */
+	public enum Storage {
+		/**
+		 * The instruction has no variable, or the variable is never declared.
+		 */
+		NONE,
+		/**
+		 * An integer slot.
+		 */
+		INT,
+		/**
+		 * An integer slot of a MUTABLE INT, which can also be null.
+		 */
+		MUTABLE,
+		/**
+		 * A string slot.
+		 */
+		STRING
+	}
+
+	/**
+	 * What the line does.
+	 */
+	private final Opcode opcode;
+
+	/**
+	 * The tokens of the line, in the same layout the old tokenizer produced.
+	 */
+	private final String[] tokens;
+
+	/**
+	 * Pre-parsed integer value of every token that is an integer literal.
+	 */
+	private final int[] literals;
+
+	/**
+	 * Whether the token at the same index is an integer literal.
+	 */
+	private final boolean[] numeric;
+
+	/**
+	 * The original line of code, null when the Compiler did not keep it.
+	 */
+	private final String source;
+
+	/**
+	 * Index of the line in the program.
+	 */
+	private final int lineNumber;
+
+	/**
+	 * Which memory {@link #slot} points into.
+	 */
+	private final Storage storage;
+
+	/**
+	 * Slot of the variable the instruction declares, changes, prints or compares, or the label index of a LABEL / GOTO.
+	 * -1 if none.
+	 */
+	private final int slot;
+
+	/**
+	 * Whether {@link #slot} is in the frame of the macro call instead of the globals.
+	 */
+	private final boolean local;
+
+	/**
+	 * Integer slot of the right hand side of a compound assignment, -1 if it is a literal.
+	 */
+	private final int operandSlot;
+
+	/**
+	 * Whether {@link #operandSlot} is in the frame of the macro call instead of the globals.
+	 */
+	private final boolean operandLocal;
+
+	/**
+	 * Index of the line the instruction jumps to: the LABEL line of a GOTO, the END line of an IF / FOR / MACRO, or
+	 * the opening line of an END. -1 if none.
+	 */
+	private final int target;
+
+	/**
+	 * Constructor, parses every integer literal in the tokens once.
+	 * @param opcode What the line does
+	 * @param tokens The tokens of the line
+	 * @param source The original line of code, null if it is not kept
+	 * @param lineNumber Index of the line in the program
+	 * @param storage Which memory the slot points into
+	 * @param slot Slot of the variable, -1 if none
+	 * @param local Whether the slot is local to a macro call
+	 * @param operandSlot Integer slot of the right hand side, -1 if none
+	 * @param operandLocal Whether the operand slot is local to a macro call
+	 * @param target Index of the line to jump to, -1 if none
+	 */
+	public Instruction(Opcode opcode, String[] tokens, String source, int lineNumber, Storage storage, int slot, boolean local, int operandSlot, boolean operandLocal, int target) {
+		this.opcode = opcode;
+		this.tokens = tokens;
+		this.source = source;
+		this.lineNumber = lineNumber;
+		this.storage = storage;
+		this.slot = slot;
+		this.local = local;
+		this.operandSlot = operandSlot;
+		this.operandLocal = operandLocal;
+		this.target = target;
+		literals = new int[tokens.length];
+		numeric = new boolean[tokens.length];
+		for (int i = 0; i < tokens.length; i++) {
+			if (!isDigits(tokens[i])) continue;
+			try {
+				literals[i] = Integer.parseInt(tokens[i]);
+				numeric[i] = true;
+			} catch (NumberFormatException e) {
+				numeric[i] = false;
+			}
+		}
+	}
+
+	/**
+	 * Checks a token before Integer.parseInt, so the names and keywords of large programs do not throw an exception each.
+	 * @return whether the token is digits with an optional sign, the only tokens Integer.parseInt can accept
+	 */
+	private static boolean isDigits(String token) {
+		int start = token.startsWith("-") || token.startsWith("+") ? 1 : 0;
+		if (token.length() == start) return false;
+		for (int i = start; i < token.length(); i++) if (Character.digit(token.charAt(i), 10) == -1) return false;
+		return true;
+	}
+
+	public Opcode getOpcode() {
+		return opcode;
+	}
+
+	/**
+	 * @return a copy of the tokens, the instruction itself stays immutable.
+	 */
+	public String[] getTokens() {
+		return tokens.clone();
+	}
+
+	/**
+	 * @return the tokens without copying, only for the interpreter itself.
+	 */
+	String[] tokens() {
+		return tokens;
+	}
+
+	public String getToken(int index) {
+		return tokens[index];
+	}
+
+	public int tokenCount() {
+		return tokens.length;
+	}
+
+	/**
+	 * @param index index of the token
+	 * @return true if the token is an integer literal
+	 */
+	public boolean isNumeric(int index) {
+		return index < numeric.length && numeric[index];
+	}
+
+	/**
+	 * @param index index of the token
+	 * @return the pre-parsed value of the token
+	 * @throws NumberFormatException when the token is not an integer literal, same as Integer.parseInt would
+	 */
+	public int getLiteral(int index) throws NumberFormatException {
+		if (!isNumeric(index)) throw new NumberFormatException("For input string: \"" + (index < tokens.length ? tokens[index] : "") + "\"");
+		return literals[index];
+	}
+
+	/**
+	 * @return the original line of code, null when the Compiler only kept its tokens
+	 * @see Compiler#compile(Source, SymbolTable, boolean)
+	 */
+	public String getSource() {
+		return source;
+	}
+
+	public int getLineNumber() {
+		return lineNumber;
+	}
+
+	public Storage getStorage() {
+		return storage;
+	}
+
+	public int getSlot() {
+		return slot;
+	}
+
+	public boolean isLocal() {
+		return local;
+	}
+
+	public int getOperandSlot() {
+		return operandSlot;
+	}
+
+	public boolean isOperandLocal() {
+		return operandLocal;
+	}
+
+	public int getTarget() {
+		return target;
+	}
+
+	@Override
+	public String toString() {
+		return lineNumber + ": " + opcode + " " + String.join(" ", tokens);
+	}
+}
@@ -0,0 +1,88 @@
+package com.turnipcorp.Simpler.interpreter;
+
+/**
+ * Charges the backward jumps of a running program to its ExecutionBudget.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - labelCallStack : int[]
+ * <li> - jumps : long
+ * <li> - budget : ExecutionBudget
+ * </ul>
+ * @see ExecutionBudget
+ */
+public final class LoopGuard {
+
+	/**
+	 * Counts the times each label has been jumped back to, indexed by label.
+	 */
+	private int[] labelCallStack = new int[0];
+
+	/**
+	 * Counts every backward jump of the program being run.
+	 */
+	private long jumps = 0;
+
+	/**
+	 * The limits for labelCallStack and jumps.
+	 */
+	private final ExecutionBudget budget;
+
+	/**
+	 * Constructor
+	 * @param budget The limits for the counters
+	 */
+	public LoopGuard(ExecutionBudget budget) {
+		this.budget = budget;
+	}
+
+	/**
+	 * Grows the label counters so every label fits, keeping the counts already in them.
+	 * @param labelCount number of labels in the program
+	 */
+	public void ensureCapacity(int labelCount) {
+		if (labelCallStack.length < labelCount) {
+			int[] newLabelCallStack = new int[labelCount];
+			System.arraycopy(labelCallStack, 0, newLabelCallStack, 0, labelCallStack.length);
+			labelCallStack = newLabelCallStack;
+		}
+	}
+
+	/**
+	 * Resets the counter of a label, when its LABEL line runs.
+	 * @param label the label index
+	 */
+	public void resetLabel(int label) {
+		labelCallStack[label] = 0;
+	}
+
+	/**
+	 * Charges a backward jump to the budget, the only place a program can start looping.
+	 * @param label the label jumped to, -1 for the repetition of a FOR loop
+	 * @throws StackOverflowError When the label or the program runs out of budget
+	 */
+	public void backwardJump(int label) throws StackOverflowError {
+		if (label != -1 && ++labelCallStack[label] > budget.getMaxLabelJumps()) throw new StackOverflowError("Stack overflow");
+		if (++jumps > budget.getMaxJumps()) throw new StackOverflowError("Execution budget of " + budget.getMaxJumps() + " jumps exceeded");
+	}
+
+	/**
+	 * Charges many repetitions of a FOR loop at once, for the loops that run in closed form.
+	 * @param count the number of backward jumps
+	 * @throws StackOverflowError When the program runs out of budget
+	 */
+	public void backwardJumps(long count) throws StackOverflowError {
+		if (count > budget.getMaxJumps() - jumps) {
+			jumps = budget.getMaxJumps();
+			throw new StackOverflowError("Execution budget of " + budget.getMaxJumps() + " jumps exceeded");
+		}
+		jumps += count;
+	}
+
+	/**
+	 * Forgets every count, for the next program.
+	 */
+	public void clear() {
+		labelCallStack = new int[0];
+		jumps = 0;
+	}
+}
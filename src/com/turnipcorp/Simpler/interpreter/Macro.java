@@ -0,0 +1,57 @@
+package com.turnipcorp.Simpler.interpreter;
+
+/**
+ * A macro body, compiled once with its program and reused by every CALL.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> ~ name : String
+ * <li> ~ code : Instruction[]
+ * <li> ~ start : int
+ * <li> ~ end : int
+ * <li> ~ scope : SymbolTable
+ * </ul>
+ * @see Compiler#compile(String[], SymbolTable)
+ */
+final class Macro {
+
+	/**
+	 * The name used by CALL.
+	 */
+	final String name;
+
+	/**
+	 * The compiled program the macro is defined in.
+	 */
+	final Instruction[] code;
+
+	/**
+	 * Index of the first line of the body, after the MACRO line.
+	 */
+	final int start;
+
+	/**
+	 * Index of the END MACRO line.
+	 */
+	final int end;
+
+	/**
+	 * The local variables of the macro, the size of the frame of every call.
+	 */
+	final SymbolTable scope;
+
+	/**
+	 * Constructor
+	 * @param name The name used by CALL
+	 * @param code The compiled program the macro is defined in
+	 * @param start Index of the first line of the body
+	 * @param end Index of the END MACRO line
+	 * @param scope The local variables of the macro
+	 */
+	Macro(String name, Instruction[] code, int start, int end, SymbolTable scope) {
+		this.name = name;
+		this.code = code;
+		this.start = start;
+		this.end = end;
+		this.scope = scope;
+	}
+}
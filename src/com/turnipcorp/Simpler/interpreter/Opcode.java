@@ -0,0 +1,69 @@
+package com.turnipcorp.Simpler.interpreter;
+
+/**
+ * Every kind of statement a line of Simpler++ can be compiled into.
+ * @see Instruction
+ * @see Compiler
+ */
+public enum Opcode {
+	/**
+	 * INT [name] = [value]
+	 */
+	INT,
+	/**
+	 * STRING [name] = "[value]"
+	 */
+	STRING,
+	/**
+	 * MUTABLE INT [name] (= [value])
+	 */
+	MUTABLE,
+	/**
+	 * PRINTVAR [name] (endl)
+	 */
+	PRINTVAR,
+	/**
+	 * PRINTSTR "[text]" (endl)
+	 */
+	PRINTSTR,
+	/**
+	 * IF [name] [operator] [value]
+	 */
+	IF,
+	/**
+	 * FOR [name] FROM [start] TO [end] (INCREMENT [step])
+	 */
+	FOR,
+	/**
+	 * MACRO [name]
+	 */
+	MACRO,
+	/**
+	 * CALL [name]
+	 */
+	CALL,
+	/**
+	 * LABEL [name]
+	 */
+	LABEL,
+	/**
+	 * GOTO [name]
+	 */
+	GOTO,
+	/**
+	 * END IF / END FOR / END MACRO
+	 */
+	END,
+	/**
+	 * // comments and empty lines
+	 */
+	COMMENT,
+	/**
+	 * [name] [operator] [value], changes an existing variable
+	 */
+	ASSIGN,
+	/**
+	 * FLUSH, writes what the program printed so far
+	 */
+	FLUSH
+}
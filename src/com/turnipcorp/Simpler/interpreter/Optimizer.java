@@ -0,0 +1,278 @@
+package com.turnipcorp.Simpler.interpreter;
+
+/**
+ * Rewrites a compiled program into a shorter one that runs the same way, between the Compiler and the engines.
+ * <br /> Comment lines are dropped, constant INT variables are propagated into the IFs and compound assignments that
+ * read them, IF and FOR blocks that can never run are dropped, IFs that always pass lose their IF and END IF lines,
+ * and consecutive compound assignments of the same variable by constants are fused into one line.
+ * <br /> A constant is a global INT declared once at the top level with a literal and never changed afterwards, it is only
+ * propagated into the lines after its declaration outside of macros, when no GOTO can jump over the declaration.
+ * <br /> Blocks with a LABEL in them are always kept, a GOTO could still jump into them.
+ * <br /> List of methods:
+ * <ul>
+ * <li> + optimize (Instruction[]) : Instruction[]
+ * <li> - constants (Instruction[], boolean[]) : int[]
+ * <li> - constantBefore (Instruction[], int[], int, int) : Integer
+ * <li> - fold (Instruction, int) : int
+ * <li> - isEmptyLoop (Instruction) : boolean
+ * <li> - hasLabel (Instruction[], int, int) : boolean
+ * <li> - propagate (Instruction, int) : Instruction
+ * <li> - fuse (Instruction, Instruction) : Instruction
+ * <li> - delta (Instruction) : Integer
+ * <li> - constant (Instruction) : boolean
+ * <li> - compact (Instruction[], boolean[]) : Instruction[]
+ * </ul>
+ * @see Compiler#compile(String[], SymbolTable)
+ */
+public final class Optimizer {
+
+	/**
+	 * Results of fold.
+	 */
+	private static final int UNKNOWN = 0, ALWAYS = 1, NEVER = 2;
+
+	/**
+	 * Static class, no constructor.
+	 */
+	private Optimizer() {}
+
+	/**
+	 * Optimizes a whole program, the line numbers and jump targets of the result follow its own indices.
+	 * @param program the compiled program
+	 * @return the optimized program, which can be shorter
+	 */
+	public static Instruction[] optimize(Instruction[] program) {
+		Instruction[] code = program.clone();
+		boolean[] removed = new boolean[code.length];
+		boolean[] inMacro = new boolean[code.length];
+		int[] declarations = constants(code, inMacro);
+		int last = -1;
+		Integer value;
+		for (int line = 0; line < code.length; line++) {
+			if (removed[line]) continue;
+			Instruction instruction = code[line];
+			switch (instruction.getOpcode()) {
+				case COMMENT: {
+					removed[line] = true;
+					continue;
+				} case IF: {
+					if (inMacro[line] || instruction.isLocal() || instruction.tokenCount() < 5 || !instruction.getToken(3).equals("int")) break;
+					if ((value = constantBefore(code, declarations, instruction.getSlot(), line)) == null) break;
+					int result = fold(instruction, value);
+					if (result == UNKNOWN) break;
+					if (result == ALWAYS) {
+						removed[line] = true;
+						removed[instruction.getTarget()] = true;
+						continue;
+					}
+					if (hasLabel(code, line, instruction.getTarget())) break;
+					for (int i = line; i <= instruction.getTarget(); i++) removed[i] = true;
+					continue;
+				} case FOR: {
+					if (!isEmptyLoop(instruction) || hasLabel(code, line, instruction.getTarget())) break;
+					for (int i = line; i <= instruction.getTarget(); i++) removed[i] = true;
+					continue;
+				} case ASSIGN: {
+					boolean compound = instruction.tokenCount() == 3 && !instruction.getToken(1).equals("=");
+					if (compound && !inMacro[line] && !instruction.isOperandLocal()
+							&& (value = constantBefore(code, declarations, instruction.getOperandSlot(), line)) != null) {
+						code[line] = instruction = propagate(instruction, value);
+					}
+					if (last != -1 && fuse(code[last], instruction) != null) {
+						code[last] = fuse(code[last], instruction);
+						removed[line] = true;
+						continue;
+					}
+					break;
+				} default: {
+					break;
+				}
+			}
+			last = instruction.getOpcode() == Opcode.ASSIGN ? line : -1;
+		}
+		return compact(code, removed);
+	}
+
+	/**
+	 * Finds the constant INT variables of a program.
+	 * @param code the compiled program
+	 * @param inMacro filled with whether every line is between MACRO and END MACRO
+	 * @return the line declaring every global integer slot, -1 if the slot is not a constant
+	 */
+	private static int[] constants(Instruction[] code, boolean[] inMacro) {
+		int slots = 0;
+		for (Instruction instruction : code) slots = Math.max(slots, instruction.getSlot() + 1);
+		int[] declarations = new int[slots];
+		for (int slot = 0; slot < slots; slot++) declarations[slot] = -1;
+		boolean[] changed = new boolean[slots];
+		int nesting = 0, macros = 0;
+		for (int line = 0; line < code.length; line++) {
+			Instruction instruction = code[line];
+			if (instruction.getOpcode() == Opcode.END) {
+				nesting--;
+				if (instruction.getToken(1).equals("MACRO")) macros--;
+			}
+			inMacro[line] = macros > 0;
+			switch (instruction.getOpcode()) {
+				case IF: case FOR: case MACRO: {
+					nesting++;
+					if (instruction.getOpcode() == Opcode.MACRO) macros++;
+					break;
+				} default: {
+					break;
+				}
+			}
+			int slot = instruction.getSlot();
+			if (slot == -1 || instruction.isLocal() || instruction.getStorage() == Instruction.Storage.STRING) continue;
+			switch (instruction.getOpcode()) {
+				case INT: {
+					boolean literal = instruction.tokenCount() > 3 && instruction.getToken(2).equals("=") && instruction.isNumeric(3) && !instruction.isNumeric(1);
+					if (declarations[slot] != -1 || !literal || nesting > 0 || instruction.getStorage() != Instruction.Storage.INT) changed[slot] = true;
+					declarations[slot] = line;
+					break;
+				} case MUTABLE: case FOR: case ASSIGN: {
+					changed[slot] = true;
+					break;
+				} default: {
+					break;
+				}
+			}
+		}
+		for (int slot = 0; slot < slots; slot++) if (changed[slot]) declarations[slot] = -1;
+		for (Instruction instruction : code) {
+			if (instruction.getOpcode() != Opcode.GOTO) continue;
+			for (int slot = 0; slot < slots; slot++) {
+				int line = declarations[slot];
+				if (line != -1 && instruction.getLineNumber() < line && instruction.getTarget() > line) declarations[slot] = -1;
+			}
+		}
+		return declarations;
+	}
+
+	/**
+	 * @param declarations the result of constants
+	 * @param slot a global integer slot, or -1
+	 * @param line a line reading the variable
+	 * @return the value of the variable if it is a constant whose declaration always ran before the line, null otherwise
+	 */
+	private static Integer constantBefore(Instruction[] code, int[] declarations, int slot, int line) {
+		if (slot == -1 || slot >= declarations.length || declarations[slot] == -1 || declarations[slot] >= line) return null;
+		return code[declarations[slot]].getLiteral(3);
+	}
+
+	/**
+	 * Evaluates an IF on an integer once, like Interpreter.evaluate would.
+	 * @param instruction the IF
+	 * @param value the value of its variable
+	 * @return ALWAYS, NEVER, or UNKNOWN if it has to run
+	 */
+	private static int fold(Instruction instruction, int value) {
+		if (!instruction.isNumeric(4)) return UNKNOWN;
+		int literal = instruction.getLiteral(4);
+		boolean result;
+		switch (instruction.getToken(2)) {
+			case "==": result = value == literal; break;
+			case "<": result = value < literal; break;
+			case ">": result = value > literal; break;
+			case ">=": result = value >= literal; break;
+			case "<=": result = value <= literal; break;
+			case "!=": result = value != literal; break;
+			default: return UNKNOWN;
+		}
+		return result ? ALWAYS : NEVER;
+	}
+
+	/**
+	 * @return whether the FOR is finite and never repeats, with every value a literal the Interpreter would accept
+	 */
+	private static boolean isEmptyLoop(Instruction instruction) {
+		if (instruction.tokenCount() != 6 && instruction.tokenCount() != 8) return false;
+		if (instruction.tokenCount() == 8 && !instruction.isNumeric(7)) return false;
+		if (!instruction.isNumeric(3) || !instruction.isNumeric(5)) return false;
+		return instruction.getLiteral(3) > instruction.getLiteral(5);
+	}
+
+	/**
+	 * @return whether one of the lines from..to is a LABEL
+	 */
+	private static boolean hasLabel(Instruction[] code, int from, int to) {
+		for (int line = from; line <= to; line++) if (code[line].getOpcode() == Opcode.LABEL) return true;
+		return false;
+	}
+
+	/**
+	 * @param instruction a compound assignment reading a constant
+	 * @param value the value of the constant
+	 * @return the same assignment with the value as a literal
+	 */
+	private static Instruction propagate(Instruction instruction, int value) {
+		String[] tokens = instruction.getTokens();
+		tokens[2] = String.valueOf(value);
+		return new Instruction(Opcode.ASSIGN, tokens, String.join(" ", tokens), instruction.getLineNumber(), instruction.getStorage(),
+				instruction.getSlot(), instruction.isLocal(), -1, false, instruction.getTarget());
+	}
+
+	/**
+	 * Fuses x += a then x -= b into x += a - b, and x *= a then x *= b into x *= a * b, ints wrap around the same way.
+	 * @param first the line that runs first
+	 * @param second the line right after it
+	 * @return the fused line, null if the lines cannot be fused
+	 */
+	private static Instruction fuse(Instruction first, Instruction second) {
+		if (first.getSlot() != second.getSlot() || first.isLocal() != second.isLocal() || first.getSlot() == -1) return null;
+		if (first.tokenCount() < 2 || second.tokenCount() < 2) return null;
+		if (first.getStorage() == Instruction.Storage.STRING || first.getStorage() == Instruction.Storage.NONE) return null;
+		String operator = first.getToken(1);
+		String[] tokens;
+		if (delta(first) != null && delta(second) != null) {
+			tokens = new String[] {first.getToken(0), "+=", String.valueOf(delta(first) + delta(second))};
+		} else if (operator.equals("*=") && second.getToken(1).equals("*=") && constant(first) && constant(second)) {
+			tokens = new String[] {first.getToken(0), "*=", String.valueOf(first.getLiteral(2) * second.getLiteral(2))};
+		} else {
+			return null;
+		}
+		return new Instruction(Opcode.ASSIGN, tokens, String.join(" ", tokens), first.getLineNumber(), first.getStorage(),
+				first.getSlot(), first.isLocal(), -1, false, -1);
+	}
+
+	/**
+	 * @return how much a ++, --, += or -= by a constant adds, null for other lines
+	 */
+	private static Integer delta(Instruction instruction) {
+		switch (instruction.getToken(1)) {
+			case "++": return instruction.tokenCount() == 2 ? 1 : null;
+			case "--": return instruction.tokenCount() == 2 ? -1 : null;
+			case "+=": return constant(instruction) ? instruction.getLiteral(2) : null;
+			case "-=": return constant(instruction) ? -instruction.getLiteral(2) : null;
+			default: return null;
+		}
+	}
+
+	/**
+	 * @return whether the right hand side of the assignment is always its literal
+	 */
+	private static boolean constant(Instruction instruction) {
+		return instruction.tokenCount() == 3 && instruction.getOperandSlot() == -1 && instruction.isNumeric(2);
+	}
+
+	/**
+	 * Drops the removed lines, and renumbers the lines and the jump targets of the others.
+	 * @param code the program, with its lines at their old indices
+	 * @param removed whether every line is dropped
+	 * @return the remaining lines
+	 */
+	private static Instruction[] compact(Instruction[] code, boolean[] removed) {
+		int[] lines = new int[code.length];
+		int size = 0;
+		for (int line = 0; line < code.length; line++) lines[line] = removed[line] ? -1 : size++;
+		Instruction[] result = new Instruction[size];
+		for (int line = 0; line < code.length; line++) {
+			if (removed[line]) continue;
+			Instruction instruction = code[line];
+			int target = instruction.getTarget() == -1 ? -1 : lines[instruction.getTarget()];
+			result[lines[line]] = new Instruction(instruction.getOpcode(), instruction.tokens(), instruction.getSource(), lines[line],
+					instruction.getStorage(), instruction.getSlot(), instruction.isLocal(), instruction.getOperandSlot(), instruction.isOperandLocal(), target);
+		}
+		return result;
+	}
+}
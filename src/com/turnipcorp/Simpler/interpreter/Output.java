@@ -0,0 +1,162 @@
+package com.turnipcorp.Simpler.interpreter;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import com.turnipcorp.Simpler.lang.InterpreterError;
+
+/**
+ * Where PRINTSTR and PRINTVAR write, a buffer in front of a Writer that is only written to at the flush points.
+ * <br /> Every engine flushes it at the end of a program and at a FLUSH statement. A full buffer is flushed too,
+ * and with the LINE policy every line ended by endl is.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - target : Writer
+ * <li> - buffer : char[]
+ * <li> - count : int
+ * <li> - policy : Flush
+ * </ul>
+ * <br /> List of methods:
+ * <ul>
+ * <li> + Output (Writer, int, Flush)
+ * <li> + console (int, Flush) : Output
+ * <li> + print (String) : void
+ * <li> + println (String) : void
+ * <li> + print (String, boolean) : void
+ * <li> + flush () : void
+ * <li> + getCapacity () : int
+ * <li> + getPolicy () : Flush
+ * <li> - write (String) : void
+ * <li> - drain () : void
+ * </ul>
+ * @see Interpreter#setOutput(Output)
+ */
+public final class Output {
+
+	/**
+	 * When the buffer is written, on top of the end of the program, a FLUSH statement and a full buffer.
+	 */
+	public enum Flush {
+		/**
+		 * After every endl, like System.out.
+		 */
+		LINE,
+		/**
+		 * Only at the flush points, for programs that print a lot.
+		 */
+		BUFFER
+	}
+
+	/**
+	 * Characters buffered when no capacity is given.
+	 */
+	public static final int DEFAULT_CAPACITY = 1 << 16;
+
+	private final Writer target;
+	private final char[] buffer;
+	private int count = 0;
+	private final Flush policy;
+
+	/**
+	 * Constructor
+	 * @param target where the buffer is written
+	 * @param capacity the number of characters buffered, at least 1
+	 * @param policy when the buffer is written besides the flush points
+	 */
+	public Output(Writer target, int capacity, Flush policy) {
+		this.target = target;
+		this.buffer = new char[Math.max(1, capacity)];
+		this.policy = policy;
+	}
+
+	/**
+	 * @param capacity the number of characters buffered
+	 * @param policy when the buffer is written besides the flush points
+	 * @return an output to System.out
+	 */
+	public static Output console(int capacity, Flush policy) {
+		return new Output(new OutputStreamWriter(System.out), capacity, policy);
+	}
+
+	public void print(String text) {
+		write(text);
+	}
+
+	/**
+	 * Prints the text and a line break, then flushes with the LINE policy.
+	 * @param text the text
+	 */
+	public void println(String text) {
+		write(text);
+		write("\n");
+		if (policy == Flush.LINE) flush();
+	}
+
+	/**
+	 * @param text the text
+	 * @param endl whether a line break follows it
+	 */
+	public void print(String text, boolean endl) {
+		if (endl) println(text);
+		else write(text);
+	}
+
+	/**
+	 * Writes the buffer and flushes the target.
+	 * @throws InterpreterError If the target cannot be written
+	 */
+	public void flush() {
+		drain();
+		try {
+			target.flush();
+		} catch (IOException e) {
+			throw new InterpreterError("Cannot write the output: " + e.getMessage());
+		}
+	}
+
+	public int getCapacity() {
+		return buffer.length;
+	}
+
+	public Flush getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * Appends to the buffer, a text longer than the whole buffer goes straight to the target.
+	 */
+	private void write(String text) {
+		int length = text.length();
+		if (count + length > buffer.length) drain();
+		if (length > buffer.length) {
+			try {
+				target.write(text);
+			} catch (IOException e) {
+				throw new InterpreterError("Cannot write the output: " + e.getMessage());
+			}
+			return;
+		}
+		text.getChars(0, length, buffer, count);
+		count += length;
+	}
+
+	/**
+	 * Writes the buffer to the target, without flushing the target.
+	 */
+	private void drain() {
+		if (count == 0) return;
+		try {
+			target.write(buffer, 0, count);
+		} catch (IOException e) {
+			throw new InterpreterError("Cannot write the output: " + e.getMessage());
+		} finally {
+			count = 0;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return policy.toString().toLowerCase() + ", " + buffer.length + " characters";
+	}
+}
@@ -0,0 +1,177 @@
+package com.turnipcorp.Simpler.interpreter;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.turnipcorp.Simpler.interpreter.jit.JitEngine;
+import com.turnipcorp.Simpler.interpreter.vm.BytecodeCompiler;
+import com.turnipcorp.Simpler.interpreter.vm.Chunk;
+
+/**
+ * A compiled program, which never changes once compiled, so any number of ExecutionContexts can run it at the same time.
+ * <br /> What the engines need besides the lines, the closed loops, the bytecode, the JVM class and the regions compiled
+ * by the TIERED engine, is built the first time an engine asks for it, then shared by every run.
+ * <br /> The runs that ask at the same time wait on a ReentrantLock, not on a monitor: a virtual thread waiting for a
+ * monitor, or compiling while it holds one, pins its carrier thread. Once built, nothing is read under the lock.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - code : Instruction[]
+ * <li> - symbols : SymbolTable
+ * <li> - closedLoops : ClosedLoop[]
+ * <li> - chunk : Chunk
+ * <li> - compiled : MethodHandle
+ * <li> - jitTried : boolean
+ * <li> - regions : AtomicReferenceArray[Optional[MethodHandle]]
+ * <li> - lock : ReentrantLock
+ * </ul>
+ * <br /> List of methods:
+ * <ul>
+ * <li> ~ Program (Instruction[], SymbolTable)
+ * <li> + length () : int
+ * <li> ~ code () : Instruction[]
+ * <li> ~ symbols () : SymbolTable
+ * <li> ~ closedLoops () : ClosedLoop[]
+ * <li> ~ chunk () : Chunk
+ * <li> ~ compiled () : MethodHandle
+ * <li> ~ region (int, int, int, boolean) : MethodHandle
+ * <li> ~ hasRegion (int) : boolean
+ * </ul>
+ * @see Interpreter#compile(Source)
+ * @see ExecutionContext
+ */
+public final class Program {
+
+	private final Instruction[] code;
+
+	/**
+	 * The table the program was compiled with, no slot is added to it after that.
+	 */
+	private final SymbolTable symbols;
+
+	private volatile ClosedLoop[] closedLoops = null;
+	private volatile Chunk chunk = null;
+
+	/**
+	 * Written before jitTried, and read after it.
+	 */
+	private MethodHandle compiled = null;
+
+	/**
+	 * Whether the program was given to the JIT, compiled stays null if it could not compile it.
+	 */
+	private volatile boolean jitTried = false;
+
+	/**
+	 * The constructor of the region of every line the TIERED engine compiled, empty if it could not, null until it tried.
+	 */
+	private final AtomicReferenceArray<Optional<MethodHandle>> regions;
+
+	/**
+	 * Held while something is built, so it is built once.
+	 */
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/**
+	 * Constructor
+	 * @param code the compiled, and usually optimized, lines
+	 * @param symbols the table they were compiled with
+	 */
+	Program(Instruction[] code, SymbolTable symbols) {
+		this.code = code;
+		this.symbols = symbols;
+		this.regions = new AtomicReferenceArray<>(code.length);
+	}
+
+	/**
+	 * @return the number of compiled lines
+	 */
+	public int length() {
+		return code.length;
+	}
+
+	Instruction[] code() {
+		return code;
+	}
+
+	SymbolTable symbols() {
+		return symbols;
+	}
+
+	/**
+	 * @return the closed form of every FOR line, analyzed on the first call
+	 * @see ClosedLoop#analyze(Instruction[])
+	 */
+	ClosedLoop[] closedLoops() {
+		if (closedLoops != null) return closedLoops;
+		lock.lock();
+		try {
+			if (closedLoops == null) closedLoops = ClosedLoop.analyze(code);
+			return closedLoops;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the bytecode of the program, lowered on the first call
+	 */
+	Chunk chunk() {
+		if (chunk != null) return chunk;
+		lock.lock();
+		try {
+			if (chunk == null) chunk = BytecodeCompiler.compile(code, symbols);
+			return chunk;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the method of the JVM class of the program, generated on the first call, null if it cannot be compiled
+	 */
+	MethodHandle compiled() {
+		if (jitTried) return compiled;
+		lock.lock();
+		try {
+			if (!jitTried) {
+				compiled = JitEngine.compile(chunk());
+				jitTried = true;
+			}
+			return compiled;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * The region of a line is compiled the first time a run of the TIERED engine finds the line hot, every later run gets it ready.
+	 * @param line the FOR, MACRO or LABEL line the region belongs to
+	 * @param from index of the first line of the region
+	 * @param to index after the last line of the region
+	 * @param loop whether the region starts with the FOR line
+	 * @return the constructor of the region, null if it cannot be compiled
+	 * @see JitEngine#compileRegion(Chunk, int, int, boolean)
+	 */
+	MethodHandle region(int line, int from, int to, boolean loop) {
+		Optional<MethodHandle> region = regions.get(line);
+		if (region != null) return region.orElse(null);
+		lock.lock();
+		try {
+			if (regions.get(line) == null) regions.set(line, Optional.ofNullable(JitEngine.compileRegion(chunk(), from, to, loop)));
+			return regions.get(line).orElse(null);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @param line the FOR, MACRO or LABEL line
+	 * @return whether a run already compiled the region of the line
+	 */
+	boolean hasRegion(int line) {
+		Optional<MethodHandle> region = regions.get(line);
+		return region != null && region.isPresent();
+	}
+}
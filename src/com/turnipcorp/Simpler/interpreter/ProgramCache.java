@@ -0,0 +1,187 @@
+package com.turnipcorp.Simpler.interpreter;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import com.turnipcorp.Simpler.interpreter.Instruction.Storage;
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * Keeps compiled programs on disk, so running an unchanged program again skips the Compiler.
+ * <br /> Every program is a file named after the SHA-256 of the interpreter version and of its source,
+ * holding its SymbolTable and its Instructions in a compact binary format.
+ * A file that cannot be read is compiled again and replaced, the cache never makes a program fail.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - directory : File
+ * </ul>
+ * <br /> List of methods:
+ * <ul>
+ * <li> + ProgramCache (File)
+ * <li> + compile (String[], SymbolTable) : Instruction[]
+ * <li> + compile (Source, SymbolTable) : Instruction[]
+ * <li> + getDirectory () : File
+ * <li> - fileOf (Source) : File
+ * <li> - read (byte[], SymbolTable) : Instruction[]
+ * <li> - write (File, Instruction[], SymbolTable) : void
+ * </ul>
+ * @see Interpreter#setCache(ProgramCache)
+ */
+public final class ProgramCache {
+
+	/**
+	 * First int of every file, "SPPC".
+	 */
+	private static final int MAGIC = 0x53505043;
+
+	/**
+	 * Version of the layout of the files, the interpreter version is part of the file name already.
+	 */
+	private static final int FORMAT = 1;
+
+	private final File directory;
+
+	/**
+	 * Constructor, the directory is created when the first program is stored.
+	 * @param directory where the compiled programs are kept
+	 */
+	public ProgramCache(File directory) {
+		this.directory = directory;
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Loads a compiled program from the cache, or compiles and stores it.
+	 * @param code the lines of code
+	 * @param symbols an empty table, filled exactly like the Compiler would
+	 * @return one Instruction per line
+	 * @throws SimplerException Whenever the Compiler finds a syntax error, programs that do not compile are never stored
+	 * @see Compiler#compile(String[], SymbolTable)
+	 */
+	public Instruction[] compile(String[] code, SymbolTable symbols) throws SimplerException {
+		return compile(Source.of(code), symbols);
+	}
+
+	/**
+	 * Loads a compiled program from the cache, or compiles and stores it, a hit never decodes the lines of the source.
+	 * @param code the lines of code
+	 * @param symbols an empty table, filled exactly like the Compiler would
+	 * @return one Instruction per line
+	 * @throws SimplerException Whenever the Compiler finds a syntax error, programs that do not compile are never stored
+	 * @see Compiler#compile(Source, SymbolTable)
+	 */
+	public Instruction[] compile(Source code, SymbolTable symbols) throws SimplerException {
+		if (symbols.integerCount() + symbols.stringCount() + symbols.labelCount() > 0) return Compiler.compile(code, symbols);
+		File file = fileOf(code);
+		if (file == null) return Compiler.compile(code, symbols);
+		if (file.isFile()) {
+			try {
+				Instruction[] program = read(Files.readAllBytes(file.toPath()), symbols);
+				if (program != null && program.length == code.lineCount()) return program;
+			} catch (IOException e) {
+				// Compiled again and replaced below
+			}
+			symbols.clear();
+		}
+		Instruction[] program = Compiler.compile(code, symbols);
+		write(file, program, symbols);
+		return program;
+	}
+
+	/**
+	 * @param code the lines of code
+	 * @return the file of the program, null if SHA-256 is not available
+	 */
+	private File fileOf(Source code) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(Interpreter.VERSION.getBytes(StandardCharsets.UTF_8));
+			code.hash(digest);
+			StringBuilder name = new StringBuilder();
+			for (byte b : digest.digest()) name.append(Character.forDigit((b >> 4) & 15, 16)).append(Character.forDigit(b & 15, 16));
+			return new File(directory, name.append(".sppc").toString());
+		} catch (NoSuchAlgorithmException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @param bytes a file written by write, its names start after the MAGIC and the FORMAT
+	 * @param symbols an empty table to read the names into, which may be half filled when the file is damaged
+	 * @return the program, null if the file is damaged or from another format
+	 */
+	private static Instruction[] read(byte[] bytes, SymbolTable symbols) {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+			if (in.readInt() != MAGIC || in.readInt() != FORMAT) return null;
+			symbols.readFrom(in);
+			Opcode[] opcodes = Opcode.values();
+			Storage[] storages = Storage.values();
+			Instruction[] program = new Instruction[in.readInt()];
+			for (int line = 0; line < program.length; line++) {
+				Opcode opcode = opcodes[in.readUnsignedByte()];
+				Storage storage = storages[in.readUnsignedByte()];
+				String[] tokens = new String[in.readUnsignedShort()];
+				for (int i = 0; i < tokens.length; i++) tokens[i] = in.readUTF();
+				String source = in.readBoolean() ? in.readUTF() : null;
+				int slot = in.readInt();
+				boolean local = in.readBoolean();
+				int operandSlot = in.readInt();
+				boolean operandLocal = in.readBoolean();
+				int target = in.readInt();
+				program[line] = new Instruction(opcode, tokens, source, line, storage, slot, local, operandSlot, operandLocal, target);
+			}
+			return program;
+		} catch (IOException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Stores a program through a temporary file, so a program running at the same time never reads half a file.
+	 * Programs that cannot be stored, like lines too long for the format, are simply not cached.
+	 */
+	private void write(File file, Instruction[] program, SymbolTable symbols) {
+		File temporary = null;
+		try {
+			Files.createDirectories(directory.toPath());
+			temporary = File.createTempFile("program", ".tmp", directory);
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT);
+				symbols.writeTo(out);
+				out.writeInt(program.length);
+				for (Instruction instruction : program) {
+					out.writeByte(instruction.getOpcode().ordinal());
+					out.writeByte(instruction.getStorage().ordinal());
+					if (instruction.tokenCount() > 0xFFFF) throw new IOException("Too many tokens on line " + instruction.getLineNumber());
+					out.writeShort(instruction.tokenCount());
+					for (String token : instruction.tokens()) out.writeUTF(token);
+					boolean source = instruction.getSource() != null && !instruction.getSource().equals(String.join(" ", instruction.tokens()));
+					out.writeBoolean(source);
+					if (source) out.writeUTF(instruction.getSource());
+					out.writeInt(instruction.getSlot());
+					out.writeBoolean(instruction.isLocal());
+					out.writeInt(instruction.getOperandSlot());
+					out.writeBoolean(instruction.isOperandLocal());
+					out.writeInt(instruction.getTarget());
+				}
+			}
+			Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			if (temporary != null) temporary.delete();
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package com.turnipcorp.Simpler.interpreter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs every program and every console session on a virtual thread of its own.
+ * <br /> A session reads its code and prints through its own channels, never System.in and System.out, so a session
+ * waiting for its next line only parks its virtual thread, and one JVM can keep thousands of them open.
+ * <br /> The channels are read and written straight, not through Channels.newInputStream and newOutputStream,
+ * which hold a monitor around every read and write of a pipe and would pin the carrier of a waiting session.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - threads : ExecutorService
+ * </ul>
+ * <br /> List of methods:
+ * <ul>
+ * <li> + SessionExecutor ()
+ * <li> + run (ExecutionContext) : Future[?]
+ * <li> + session (Interpreter) : Future[?]
+ * <li> + session (ReadableByteChannel, WritableByteChannel) : Future[?]
+ * <li> + close () : void
+ * <li> - serve (Interpreter) : void
+ * </ul>
+ * @see ExecutionContext
+ * @see Interpreter#Interpreter(Scanner, Output)
+ */
+public final class SessionExecutor implements AutoCloseable {
+
+	private final ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+
+	/**
+	 * Empty constructor
+	 */
+	public SessionExecutor() {}
+
+	/**
+	 * Runs a program on a virtual thread.
+	 * @param context the run, with its own output
+	 * @return the end of the run, its get throws what the program threw
+	 */
+	public Future<?> run(ExecutionContext context) {
+		return threads.submit(() -> {
+			context.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Runs the console code of an interpreter on a virtual thread, program after program, until its input ends.
+	 * @param interpreter an interpreter with its own input and output
+	 * @return the end of the session
+	 */
+	public Future<?> session(Interpreter interpreter) {
+		return threads.submit(() -> serve(interpreter));
+	}
+
+	/**
+	 * Runs a console session over channels, with a new interpreter that prints after every endl.
+	 * @param input where the code is read, in blocking mode
+	 * @param output where the programs print, in blocking mode
+	 * @return the end of the session
+	 */
+	public Future<?> session(ReadableByteChannel input, WritableByteChannel output) {
+		Output printed = new Output(new OutputStreamWriter(new ChannelOutput(output), StandardCharsets.UTF_8), Output.DEFAULT_CAPACITY, Output.Flush.LINE);
+		return session(new Interpreter(new Scanner(new ChannelInput(input), StandardCharsets.UTF_8), printed));
+	}
+
+	/**
+	 * Stops taking new runs, and waits for the ones started to end.
+	 */
+	@Override
+	public void close() {
+		threads.close();
+	}
+
+	/**
+	 * Body of a session, the errors of a program are printed to the session instead of ending it.
+	 */
+	private void serve(Interpreter interpreter) {
+		while (!Thread.currentThread().isInterrupted()) {
+			try {
+				interpreter.interpretConsoleCode();
+			} catch (NoSuchElementException | IllegalStateException e) {
+				return;
+			} catch (Exception | Error e) {
+				interpreter.getOutput().println(e.getMessage());
+				interpreter.getOutput().flush();
+			}
+		}
+	}
+
+	/**
+	 * Reads a blocking channel without holding a monitor.
+	 */
+	private static final class ChannelInput extends InputStream {
+		private final ReadableByteChannel channel;
+
+		ChannelInput(ReadableByteChannel channel) {
+			this.channel = channel;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] one = new byte[1];
+			return read(one, 0, 1) == -1 ? -1 : one[0] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) throws IOException {
+			if (length == 0) return 0;
+			return channel.read(ByteBuffer.wrap(bytes, offset, length));
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Writes a blocking channel without holding a monitor.
+	 */
+	private static final class ChannelOutput extends OutputStream {
+		private final WritableByteChannel channel;
+
+		ChannelOutput(WritableByteChannel channel) {
+			this.channel = channel;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] {(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length) throws IOException {
+			ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+			while (buffer.hasRemaining()) channel.write(buffer);
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package com.turnipcorp.Simpler.interpreter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * The lines of a program, handed to the Compiler one at a time.
+ * <br /> A Source does not have to keep a String per line, a line can be decoded only when the Compiler reaches it.
+ * A Source holding a file is closed once the program is compiled, the program never needs it again.
+ * <br /> List of methods:
+ * <ul>
+ * <li> + lineCount () : int
+ * <li> + line (int) : String
+ * <li> + hash (MessageDigest) : void
+ * <li> + close () : void
+ * <li> + of (String[]) : Source
+ * </ul>
+ * @see Compiler#compile(Source, SymbolTable)
+ */
+public interface Source extends AutoCloseable {
+
+	/**
+	 * @return the number of lines of the program
+	 */
+	int lineCount();
+
+	/**
+	 * @param index index of the line, from 0
+	 * @return the line, without its line terminator
+	 */
+	String line(int index);
+
+	/**
+	 * Adds every line to a digest, each one preceded by '\n' and encoded in UTF-8.
+	 * @param digest the digest to update
+	 */
+	default void hash(MessageDigest digest) {
+		for (int i = 0; i < lineCount(); i++) {
+			digest.update((byte) '\n');
+			digest.update(line(i).getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	/**
+	 * Releases what the lines are read from, nothing by default.
+	 */
+	@Override
+	default void close() {}
+
+	/**
+	 * @param lines the lines of code
+	 * @return a Source reading the array, the lines are not copied
+	 */
+	static Source of(String[] lines) {
+		return new Source() {
+			@Override
+			public int lineCount() {
+				return lines.length;
+			}
+
+			@Override
+			public String line(int index) {
+				return lines[index];
+			}
+		};
+	}
+}
@@ -0,0 +1,261 @@
+package com.turnipcorp.Simpler.interpreter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * Compiles a program while it is still being read, so the Interpreter can run its first lines before the last ones are read.
+ * <br /> A background thread reads and tokenizes the lines, and cuts them into parts that end outside of every block.
+ * The parts go through a bounded queue, so the thread never reads far ahead of the program. A part is declared when it is
+ * taken from the queue, and resolved into Instructions only when the Interpreter reaches it.
+ * <br /> A GOTO to a LABEL further down has the parts up to the LABEL declared first, so it jumps like in a whole program.
+ * A part naming a variable not declared yet, like a macro reading a global declared after it, is resolved again as
+ * every next part is declared, until the variable is found or the program ends. The syntax errors of a part are
+ * only found once the lines before it ran.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - queue : ArrayBlockingQueue[Part]
+ * <li> - reader : Thread
+ * <li> - symbols : SymbolTable
+ * <li> - jumpTable : HashMap[String, Integer]
+ * <li> - declared : ArrayDeque[Part]
+ * <li> - program : Instruction[]
+ * <li> - length : int
+ * <li> - finished : boolean
+ * </ul>
+ * <br /> List of methods:
+ * <ul>
+ * <li> ~ StreamingCompiler (BufferedReader, SymbolTable)
+ * <li> ~ next () : boolean
+ * <li> ~ program () : Instruction[]
+ * <li> ~ length () : int
+ * <li> ~ close () : void
+ * <li> - declareNext () : boolean
+ * <li> - resolve (Part) : Instruction[]
+ * <li> - unresolved (Instruction[]) : boolean
+ * <li> - read (BufferedReader) : void
+ * </ul>
+ * @see Interpreter#interpretAndRun(java.io.Reader)
+ */
+final class StreamingCompiler {
+
+	/**
+	 * Lines of a part once the Interpreter is busy, a waiting Interpreter gets every part as soon as it ends.
+	 */
+	private static final int PART_LINES = 1024;
+
+	/**
+	 * Parts the reader can be ahead of the Interpreter.
+	 */
+	private static final int QUEUED_PARTS = 16;
+
+	/**
+	 * Consecutive lines of a program, or the end of the program when lines is null.
+	 */
+	private static final class Part {
+		final String[] lines;
+		final String[][] tokens;
+		final int first;
+		final SimplerException error;
+		int[] blocks;
+		SymbolTable[] scopes;
+
+		Part(String[] lines, String[][] tokens, int first, SimplerException error) {
+			this.lines = lines;
+			this.tokens = tokens;
+			this.first = first;
+			this.error = error;
+		}
+	}
+
+	private final ArrayBlockingQueue<Part> queue = new ArrayBlockingQueue<>(QUEUED_PARTS);
+	private final Thread reader;
+	private final SymbolTable symbols;
+
+	/**
+	 * The line of every LABEL declared so far.
+	 */
+	private final HashMap<String, Integer> jumpTable = new HashMap<>();
+
+	/**
+	 * The parts declared but not resolved yet, in order.
+	 */
+	private final ArrayDeque<Part> declared = new ArrayDeque<>();
+
+	/**
+	 * The resolved lines, from the first one, the array grows as parts are resolved.
+	 */
+	private Instruction[] program = new Instruction[PART_LINES];
+	private int length = 0;
+
+	/**
+	 * Whether the end of the program was taken from the queue.
+	 */
+	private boolean finished = false;
+
+	/**
+	 * Starts reading the program on a background thread.
+	 * @param source the lines of code
+	 * @param symbols the table every variable name is resolved into
+	 */
+	StreamingCompiler(BufferedReader source, SymbolTable symbols) {
+		this.symbols = symbols;
+		reader = new Thread(() -> read(source), "Simpler++ reader");
+		reader.setDaemon(true);
+		reader.start();
+	}
+
+	/**
+	 * Resolves the next part of the program, waiting for the reader if it is not there yet.
+	 * @return false if the whole program is already resolved
+	 * @throws SimplerException Whenever a line cannot be read or compiled
+	 */
+	boolean next() throws SimplerException {
+		if (declared.isEmpty() && !declareNext()) return false;
+		Part part = declared.poll();
+		for (String[] tokens : part.tokens) {
+			if (tokens.length < 2 || Compiler.opcodeOf(tokens) != Opcode.GOTO) continue;
+			while (!jumpTable.containsKey(tokens[1]) && declareNext());
+		}
+		Instruction[] resolved = resolve(part);
+		while (unresolved(resolved) && declareNext()) resolved = resolve(part);
+		if (length + resolved.length > program.length) {
+			Instruction[] grown = new Instruction[Math.max(program.length * 2, length + resolved.length)];
+			System.arraycopy(program, 0, grown, 0, length);
+			program = grown;
+		}
+		System.arraycopy(resolved, 0, program, length, resolved.length);
+		length += resolved.length;
+		return true;
+	}
+
+	/**
+	 * @return the resolved lines, only the first length() of them are set
+	 */
+	Instruction[] program() {
+		return program;
+	}
+
+	/**
+	 * @return the number of lines resolved so far
+	 */
+	int length() {
+		return length;
+	}
+
+	/**
+	 * Stops the reader, when the program ends before its last line was read.
+	 */
+	void close() {
+		reader.interrupt();
+	}
+
+	/**
+	 * Takes the next part from the queue and declares it.
+	 * @return false at the end of the program
+	 * @throws SimplerException Whenever a line cannot be read, a block is not closed or a LABEL is declared twice
+	 */
+	private boolean declareNext() throws SimplerException {
+		if (finished) return false;
+		Part part;
+		try {
+			part = queue.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SimplerException("Interrupted while reading the program");
+		}
+		if (part.lines == null) {
+			finished = true;
+			if (part.error != null) throw part.error;
+			return false;
+		}
+		part.blocks = Compiler.matchBlocks(part.tokens, part.first);
+		part.scopes = Compiler.declarePart(part.tokens, part.first, symbols, jumpTable);
+		declared.add(part);
+		return true;
+	}
+
+	/**
+	 * @param part a declared part
+	 * @return its lines, resolved with the names declared so far
+	 */
+	private Instruction[] resolve(Part part) {
+		return Compiler.resolvePart(part.lines, part.tokens, part.first, part.blocks, symbols, part.scopes, jumpTable);
+	}
+
+	/**
+	 * @param lines resolved lines
+	 * @return whether a line reads or changes a variable no part declared so far
+	 */
+	private static boolean unresolved(Instruction[] lines) {
+		for (Instruction line : lines) {
+			switch (line.getOpcode()) {
+				case IF: case PRINTVAR: {
+					if (line.tokenCount() > 1 && line.getSlot() == -1) return true;
+					break;
+				} case ASSIGN: {
+					if (line.getSlot() == -1) return true;
+					if (line.getStorage() != Instruction.Storage.STRING && line.tokenCount() > 2 && line.getOperandSlot() == -1 && !line.isNumeric(2)) return true;
+					break;
+				} default: {
+					break;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Body of the reader thread, reads and tokenizes every line, then queues them in parts.
+	 * A line that cannot be read or tokenized ends the program with its error, after the parts before it.
+	 * @param source the lines of code
+	 */
+	private void read(BufferedReader source) {
+		ArrayList<String> lines = new ArrayList<>();
+		ArrayList<String[]> tokens = new ArrayList<>();
+		int first = 0, depth = 0;
+		SimplerException error = null;
+		try {
+			try {
+				String line;
+				while ((line = source.readLine()) != null) {
+					String[] lexed = Compiler.lex(line, first + lines.size());
+					lines.add(line);
+					tokens.add(lexed);
+					switch (Compiler.opcodeOf(lexed)) {
+						case IF: case FOR: case MACRO: {
+							depth++;
+							break;
+						} case END: {
+							depth = Math.max(0, depth - 1);
+							break;
+						} default: {
+							break;
+						}
+					}
+					if (depth > 0 || (lines.size() < PART_LINES && !queue.isEmpty())) continue;
+					queue.put(new Part(lines.toArray(new String[lines.size()]), tokens.toArray(new String[tokens.size()][]), first, null));
+					first += lines.size();
+					lines.clear();
+					tokens.clear();
+				}
+			} catch (IOException e) {
+				error = new SimplerException("Cannot read line " + (first + lines.size()) + ": " + e.getMessage());
+			} catch (SimplerException e) {
+				error = e;
+			}
+			if (!lines.isEmpty() && (error == null || depth == 0)) {
+				queue.put(new Part(lines.toArray(new String[lines.size()]), tokens.toArray(new String[tokens.size()][]), first, null));
+			}
+			queue.put(new Part(null, null, 0, error));
+		} catch (InterruptedException e) {
+			// The program ended, nobody takes the rest of the parts
+		}
+	}
+}
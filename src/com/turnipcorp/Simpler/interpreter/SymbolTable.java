@@ -0,0 +1,236 @@
+package com.turnipcorp.Simpler.interpreter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Gives every variable name of a program a fixed slot index, once, at compile time.
+ * <br /> Integer and mutable variables share the integer slots, string variables have their own.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - integerSlots : HashMap[String, Integer]
+ * <li> - stringSlots : HashMap[String, Integer]
+ * <li> - integerNames : ArrayList[String]
+ * <li> - stringNames : ArrayList[String]
+ * <li> - mutables : ArrayList[Boolean]
+ * <li> - labelSlots : HashMap[String, Integer]
+ * <li> - macroScopes : HashMap[String, SymbolTable]
+ * </ul>
+ * @see Compiler#compile(String[], SymbolTable)
+ */
+public class SymbolTable {
+
+	/**
+	 * Slot of every integer and mutable variable name.
+	 */
+	private HashMap<String, Integer> integerSlots = new HashMap<>();
+
+	/**
+	 * Slot of every string variable name.
+	 */
+	private HashMap<String, Integer> stringSlots = new HashMap<>();
+
+	/**
+	 * Name of every integer slot, in slot order.
+	 */
+	private ArrayList<String> integerNames = new ArrayList<>();
+
+	/**
+	 * Name of every string slot, in slot order.
+	 */
+	private ArrayList<String> stringNames = new ArrayList<>();
+
+	/**
+	 * Whether the integer slot with the same index was declared with MUTABLE INT.
+	 */
+	private ArrayList<Boolean> mutables = new ArrayList<>();
+
+	/**
+	 * Index of every GOTO label name.
+	 */
+	private HashMap<String, Integer> labelSlots = new HashMap<>();
+
+	/**
+	 * The local variables of every macro, each macro call gets a frame of this size.
+	 */
+	private HashMap<String, SymbolTable> macroScopes = new HashMap<>();
+
+	/**
+	 * Empty constructor
+	 */
+	public SymbolTable() {}
+
+	/**
+	 * Gives an integer variable a slot, or returns the one it already has.
+	 * @param name the variable name
+	 * @return the slot index
+	 */
+	public int declareInteger(String name) {
+		Integer slot = integerSlots.get(name);
+		if (slot != null) return slot;
+		integerSlots.put(name, integerNames.size());
+		integerNames.add(name);
+		mutables.add(false);
+		return integerNames.size() - 1;
+	}
+
+	/**
+	 * Gives a mutable variable an integer slot, or returns the one it already has.
+	 * @param name the variable name
+	 * @return the slot index
+	 */
+	public int declareMutable(String name) {
+		int slot = declareInteger(name);
+		mutables.set(slot, true);
+		return slot;
+	}
+
+	/**
+	 * Gives a string variable a slot, or returns the one it already has.
+	 * @param name the variable name
+	 * @return the slot index
+	 */
+	public int declareString(String name) {
+		Integer slot = stringSlots.get(name);
+		if (slot != null) return slot;
+		stringSlots.put(name, stringNames.size());
+		stringNames.add(name);
+		return stringNames.size() - 1;
+	}
+
+	/**
+	 * Gives a GOTO label an index, or returns the one it already has.
+	 * @param name the label name
+	 * @return the label index
+	 */
+	public int declareLabel(String name) {
+		Integer slot = labelSlots.get(name);
+		if (slot != null) return slot;
+		labelSlots.put(name, labelSlots.size());
+		return labelSlots.size() - 1;
+	}
+
+	/**
+	 * Returns the table of the local variables of a macro, creating it if needed.
+	 * @param name the macro name
+	 * @return the local SymbolTable of the macro
+	 */
+	public SymbolTable macroScope(String name) {
+		SymbolTable scope = macroScopes.get(name);
+		if (scope == null) macroScopes.put(name, scope = new SymbolTable());
+		return scope;
+	}
+
+	/**
+	 * @param name the label name
+	 * @return the index of the label, -1 if it is never declared
+	 */
+	public int labelSlot(String name) {
+		Integer slot = labelSlots.get(name);
+		return slot == null ? -1 : slot;
+	}
+
+	/**
+	 * @param name the variable name
+	 * @return the integer slot of the variable, -1 if it is never declared
+	 */
+	public int integerSlot(String name) {
+		Integer slot = integerSlots.get(name);
+		return slot == null ? -1 : slot;
+	}
+
+	/**
+	 * @param name the variable name
+	 * @return the string slot of the variable, -1 if it is never declared
+	 */
+	public int stringSlot(String name) {
+		Integer slot = stringSlots.get(name);
+		return slot == null ? -1 : slot;
+	}
+
+	/**
+	 * @param slot an integer slot
+	 * @return true if the slot belongs to a MUTABLE INT
+	 */
+	public boolean isMutable(int slot) {
+		return mutables.get(slot);
+	}
+
+	public String integerName(int slot) {
+		return integerNames.get(slot);
+	}
+
+	public String stringName(int slot) {
+		return stringNames.get(slot);
+	}
+
+	public int integerCount() {
+		return integerNames.size();
+	}
+
+	public int stringCount() {
+		return stringNames.size();
+	}
+
+	public int labelCount() {
+		return labelSlots.size();
+	}
+	
+	/**
+	 * Forgets every name, so the table can be filled again.
+	 * @see ProgramCache
+	 */
+	void clear() {
+		integerSlots.clear();
+		stringSlots.clear();
+		integerNames.clear();
+		stringNames.clear();
+		mutables.clear();
+		labelSlots.clear();
+		macroScopes.clear();
+	}
+	
+	/**
+	 * Writes every name in slot order, so reading them back gives every name the same slot.
+	 * @param out where to write
+	 * @throws IOException When the output fails
+	 * @see ProgramCache
+	 */
+	void writeTo(DataOutput out) throws IOException {
+		out.writeInt(integerNames.size());
+		for (int slot = 0; slot < integerNames.size(); slot++) {
+			out.writeUTF(integerNames.get(slot));
+			out.writeBoolean(mutables.get(slot));
+		}
+		out.writeInt(stringNames.size());
+		for (String name : stringNames) out.writeUTF(name);
+		String[] labels = new String[labelSlots.size()];
+		for (String name : labelSlots.keySet()) labels[labelSlots.get(name)] = name;
+		out.writeInt(labels.length);
+		for (String name : labels) out.writeUTF(name);
+		out.writeInt(macroScopes.size());
+		for (String name : macroScopes.keySet()) {
+			out.writeUTF(name);
+			macroScopes.get(name).writeTo(out);
+		}
+	}
+	
+	/**
+	 * Declares every name written by writeTo, in the same order.
+	 * @param in where to read
+	 * @throws IOException When the input fails or ends too early
+	 */
+	void readFrom(DataInput in) throws IOException {
+		for (int count = in.readInt(); count > 0; count--) {
+			String name = in.readUTF();
+			if (in.readBoolean()) declareMutable(name);
+			else declareInteger(name);
+		}
+		for (int count = in.readInt(); count > 0; count--) declareString(in.readUTF());
+		for (int count = in.readInt(); count > 0; count--) declareLabel(in.readUTF());
+		for (int count = in.readInt(); count > 0; count--) macroScope(in.readUTF()).readFrom(in);
+	}
+}
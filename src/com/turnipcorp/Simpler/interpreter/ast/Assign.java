@@ -0,0 +1,31 @@
+package com.turnipcorp.Simpler.interpreter.ast;
+
+import com.turnipcorp.Simpler.interpreter.Frame;
+import com.turnipcorp.Simpler.lang.InterpreterError;
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * [mutable name] = [value]
+ */
+final class Assign extends Node {
+
+	private final String name;
+	private final int slot;
+	private final boolean local;
+	private final int value;
+
+	Assign(String name, int slot, boolean local, int value) {
+		this.name = name;
+		this.slot = slot;
+		this.local = local;
+		this.value = value;
+	}
+
+	@Override
+	void execute(AstContext context) throws SimplerException {
+		Frame memory = context.memoryOf(local);
+		if (memory.states[slot] == Frame.UNDECLARED) throw new InterpreterError("Syntax Error: Unknown token: " + name);
+		memory.integers[slot] = value;
+		memory.states[slot] = Frame.DECLARED;
+	}
+}
@@ -0,0 +1,37 @@
+package com.turnipcorp.Simpler.interpreter.ast;
+
+import com.turnipcorp.Simpler.interpreter.Frame;
+import com.turnipcorp.Simpler.lang.InterpreterError;
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * [string name] = "[value]"
+ */
+final class AssignString extends Node {
+
+	private final String name;
+	private final int slot;
+	private final boolean local;
+	private final String value;
+
+	/**
+	 * false when the second token is not '=', the line fails once the variable is found.
+	 */
+	private final boolean equalsSign;
+
+	AssignString(String name, int slot, boolean local, String value, boolean equalsSign) {
+		this.name = name;
+		this.slot = slot;
+		this.local = local;
+		this.value = value;
+		this.equalsSign = equalsSign;
+	}
+
+	@Override
+	void execute(AstContext context) throws SimplerException {
+		Frame memory = context.memoryOf(local);
+		if (memory.strings[slot] == null) throw new InterpreterError("Syntax Error: Unknown token: " + name);
+		if (!equalsSign) throw new SimplerException("Expected '=' sign!");
+		memory.strings[slot] = value;
+	}
+}
@@ -0,0 +1,81 @@
+package com.turnipcorp.Simpler.interpreter.ast;
+
+import com.turnipcorp.Simpler.interpreter.Frame;
+import com.turnipcorp.Simpler.interpreter.FramePool;
+import com.turnipcorp.Simpler.interpreter.LoopGuard;
+import com.turnipcorp.Simpler.interpreter.Output;
+
+/**
+ * The state of one run of an AST, shared by all its nodes.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> ~ globals : Frame
+ * <li> ~ frame : Frame
+ * <li> ~ pool : FramePool
+ * <li> ~ guard : LoopGuard
+ * <li> ~ output : Output
+ * <li> ~ macros : MacroDefinition[]
+ * <li> ~ jump : int
+ * </ul>
+ */
+final class AstContext {
+
+	/**
+	 * The global variables.
+	 */
+	final Frame globals;
+
+	/**
+	 * The memory of the macro call being executed, null outside of macros.
+	 */
+	Frame frame = null;
+
+	/**
+	 * Frames for the macro calls.
+	 */
+	final FramePool pool;
+
+	/**
+	 * Charges the backward jumps to the budget.
+	 */
+	final LoopGuard guard;
+
+	/**
+	 * Where the program prints.
+	 */
+	final Output output;
+
+	/**
+	 * The macros defined so far, indexed by the ids given by the AstParser.
+	 */
+	final MacroDefinition[] macros;
+
+	/**
+	 * The label of a GOTO that no block has resolved yet, -1 if none.
+	 */
+	int jump = -1;
+
+	/**
+	 * Constructor
+	 * @param globals The global variables
+	 * @param pool Frames for the macro calls
+	 * @param guard Charges the backward jumps to the budget
+	 * @param output Where the program prints
+	 * @param macroCount number of macro names in the program
+	 */
+	AstContext(Frame globals, FramePool pool, LoopGuard guard, Output output, int macroCount) {
+		this.globals = globals;
+		this.pool = pool;
+		this.guard = guard;
+		this.output = output;
+		this.macros = new MacroDefinition[macroCount];
+	}
+
+	/**
+	 * @param local whether the slot is local to the macro call
+	 * @return the frame of the macro call being executed, or the globals
+	 */
+	Frame memoryOf(boolean local) {
+		return local ? frame : globals;
+	}
+}
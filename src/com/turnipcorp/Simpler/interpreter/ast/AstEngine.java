@@ -0,0 +1,46 @@
+package com.turnipcorp.Simpler.interpreter.ast;
+
+import com.turnipcorp.Simpler.interpreter.Frame;
+import com.turnipcorp.Simpler.interpreter.FramePool;
+import com.turnipcorp.Simpler.interpreter.Instruction;
+import com.turnipcorp.Simpler.interpreter.LoopGuard;
+import com.turnipcorp.Simpler.interpreter.Output;
+import com.turnipcorp.Simpler.interpreter.SymbolTable;
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * Runs a compiled program as a tree of typed nodes instead of a list of lines.
+ * <br /> The memory, the frame pool, the loop guard and the output are the ones of the Interpreter, so both engines behave the same.
+ * A GOTO can enter an IF at any depth, but not the body of a FOR or a MACRO, which the VM and the JIT refuse too.
+ * <br /> List of methods:
+ * <ul>
+ * <li> + run (Instruction[], SymbolTable, Frame, FramePool, LoopGuard, Output) : void
+ * </ul>
+ * @see com.turnipcorp.Simpler.interpreter.Engine#AST
+ */
+public final class AstEngine {
+
+	/**
+	 * Static methods only
+	 */
+	private AstEngine() {}
+
+	/**
+	 * Parses the program into its AST, then executes it.
+	 * @param program the compiled program
+	 * @param symbols the table the program was compiled with
+	 * @param globals the global variables, already big enough for the table
+	 * @param pool frames for the macro calls
+	 * @param guard charges the backward jumps to the budget
+	 * @param output where the program prints
+	 * @throws SimplerException Whenever a syntax error appears
+	 * @throws StackOverflowError When the budget runs out
+	 */
+	public static void run(Instruction[] program, SymbolTable symbols, Frame globals, FramePool pool, LoopGuard guard, Output output) throws SimplerException, StackOverflowError {
+		AstParser parser = new AstParser(symbols);
+		Block root = parser.parse(program);
+		AstContext context = new AstContext(globals, pool, guard, output, parser.macroCount());
+		root.execute(context);
+		if (context.jump != -1) throw new SimplerException("Cannot GOTO into a block");
+	}
+}
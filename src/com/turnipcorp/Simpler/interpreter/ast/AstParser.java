@@ -0,0 +1,234 @@
+package com.turnipcorp.Simpler.interpreter.ast;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import com.turnipcorp.Simpler.interpreter.Frame;
+import com.turnipcorp.Simpler.interpreter.Instruction;
+import com.turnipcorp.Simpler.interpreter.SymbolTable;
+import com.turnipcorp.Simpler.lang.InterpreterError;
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * Builds the AST of a compiled program, every line is decoded into the node that does what its opcode says.
+ * <br /> Lines that can only fail become Fail nodes, so they throw when they are reached and not before.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - symbols : SymbolTable
+ * <li> - macroIds : HashMap[String, Integer]
+ * </ul>
+ * <br /> List of methods:
+ * <ul>
+ * <li> ~ AstParser (SymbolTable)
+ * <li> ~ parse (Instruction[]) : Block
+ * <li> ~ macroCount () : int
+ * <li> - parseBlock (Instruction[], int, int) : Block
+ * <li> - parseOpener (Instruction, Block) : Node
+ * <li> - parseLine (Instruction) : Node
+ * <li> - parseAssign (Instruction) : Node
+ * <li> - parseCompound (Instruction) : Node
+ * <li> - macroId (String) : int
+ * </ul>
+ * @see AstEngine
+ */
+final class AstParser {
+
+	/**
+	 * The table the program was compiled with.
+	 */
+	private final SymbolTable symbols;
+
+	/**
+	 * Index of every macro name in AstContext.macros, given in the order the names appear.
+	 */
+	private final HashMap<String, Integer> macroIds = new HashMap<>();
+
+	/**
+	 * Constructor
+	 * @param symbols The table the program was compiled with
+	 */
+	AstParser(SymbolTable symbols) {
+		this.symbols = symbols;
+	}
+
+	/**
+	 * @param code the compiled program
+	 * @return the block of the whole program
+	 */
+	Block parse(Instruction[] code) {
+		return parseBlock(code, 0, code.length);
+	}
+
+	/**
+	 * @return number of macro names seen by parse, defined or only called
+	 */
+	int macroCount() {
+		return macroIds.size();
+	}
+
+	/**
+	 * Builds the block of the lines from..to, the blocks inside it are parsed recursively from the block index.
+	 * @param code the compiled program
+	 * @param from index of the first line
+	 * @param to index after the last line
+	 * @return the block
+	 */
+	private Block parseBlock(Instruction[] code, int from, int to) {
+		ArrayList<Node> nodes = new ArrayList<>();
+		int[] labels = null, entries = null;
+		for (int pc = from; pc < to; pc++) {
+			Instruction instruction = code[pc];
+			switch (instruction.getOpcode()) {
+				case IF: case FOR: case MACRO: {
+					Block body = parseBlock(code, pc + 1, instruction.getTarget());
+					try {
+						nodes.add(parseOpener(instruction, body));
+					} catch (RuntimeException e) {
+						nodes.add(new Fail(e));
+					}
+					Node opener = nodes.get(nodes.size() - 1);
+					if (opener instanceof If || opener instanceof IfString) {
+						for (int label = 0; label < symbols.labelCount(); label++) {
+							if (!body.holds(label)) continue;
+							if (entries == null) {
+								entries = new int[symbols.labelCount()];
+								Arrays.fill(entries, -1);
+							}
+							entries[label] = nodes.size() - 1;
+						}
+					}
+					pc = instruction.getTarget();
+					break;
+				} case LABEL: {
+					if (labels == null) {
+						labels = new int[symbols.labelCount()];
+						Arrays.fill(labels, -1);
+					}
+					labels[instruction.getSlot()] = nodes.size();
+					nodes.add(new Label(instruction.getSlot()));
+					break;
+				} case END: case COMMENT: {
+					break;
+				} default: {
+					try {
+						nodes.add(parseLine(instruction));
+					} catch (RuntimeException e) {
+						nodes.add(new Fail(e));
+					}
+				}
+			}
+		}
+		return new Block(nodes.toArray(new Node[0]), labels, entries);
+	}
+
+	/**
+	 * @param instruction an IF, FOR or MACRO line
+	 * @param body the parsed lines up to its END
+	 * @return the node of the block
+	 * @throws NumberFormatException When a bound of the FOR or the value of the IF is not a number
+	 */
+	private Node parseOpener(Instruction instruction, Block body) throws NumberFormatException {
+		String[] tokens = instruction.getTokens();
+		int slot = instruction.getSlot();
+		switch (instruction.getOpcode()) {
+			case IF: {
+				if (slot == -1) return new Fail(new SimplerException("Expected existing variable name!"));
+				if (tokens[3].equals("int")) return new If(slot, instruction.isLocal(), If.comparisonOf(tokens[2]), instruction.getLiteral(4), body);
+				return new IfString(slot, instruction.isLocal(), If.comparisonOf(tokens[2]), tokens[4], body);
+			} case FOR: {
+				int increment = tokens.length > 6 ? instruction.getLiteral(7) : 1;
+				boolean infinite = tokens[5].equals("NaN");
+				int last = infinite ? 0 : instruction.getLiteral(5);
+				return new For(slot, instruction.isLocal(), instruction.getLiteral(3), last, increment, infinite, body);
+			} default: {
+				SymbolTable scope = symbols.macroScope(tokens[1]);
+				return new MacroDefinition(macroId(tokens[1]), tokens[1], body, scope.integerCount(), scope.stringCount());
+			}
+		}
+	}
+
+	/**
+	 * @param instruction a line that does not open a block
+	 * @return the node of the line
+	 * @throws NumberFormatException When a value is not a number
+	 */
+	private Node parseLine(Instruction instruction) throws NumberFormatException {
+		String[] tokens = instruction.getTokens();
+		int slot = instruction.getSlot();
+		boolean local = instruction.isLocal();
+		switch (instruction.getOpcode()) {
+			case INT: {
+				if (!tokens[2].equals("=")) return new Fail(new SimplerException("Expected '=' sign!"));
+				if (instruction.isNumeric(1)) return new Fail(new SimplerException("Expected valid variable name!"));
+				return new DeclareInt(slot, local, instruction.getLiteral(3));
+			} case MUTABLE: {
+				if (tokens.length > 3) return new DeclareMutable(slot, local, instruction.getLiteral(4), Frame.DECLARED);
+				return new DeclareMutable(slot, local, 0, Frame.NULL);
+			} case STRING: {
+				return new DeclareString(slot, local, tokens[3]);
+			} case PRINTVAR: {
+				boolean newline = tokens[tokens.length - 1].equals("endl");
+				switch (instruction.getStorage()) {
+					case INT: case MUTABLE: return new PrintVariable(slot, local, false, newline);
+					case STRING: return new PrintVariable(slot, local, true, newline);
+					default: return new Fail(new SimplerException("Variable (Function) name not found!"));
+				}
+			} case PRINTSTR: {
+				return new Print(tokens[1], tokens[2].equals("endl"));
+			} case CALL: {
+				return new Call(macroId(tokens[1]), tokens[1]);
+			} case GOTO: {
+				if (instruction.getTarget() == -1) return new Fail(new SimplerException("Label " + tokens[1] + " not found"));
+				return new Goto(slot, instruction.getTarget() <= instruction.getLineNumber());
+			} case FLUSH: {
+				return new Flush();
+			} default: {
+				return parseAssign(instruction);
+			}
+		}
+	}
+
+	/**
+	 * @param instruction a line that starts with a variable name
+	 * @return the node of the assignment
+	 */
+	private Node parseAssign(Instruction instruction) {
+		String[] tokens = instruction.getTokens();
+		int slot = instruction.getSlot();
+		boolean local = instruction.isLocal();
+		switch (instruction.getStorage()) {
+			case STRING: {
+				return new AssignString(tokens[0], slot, local, tokens[2], tokens[1].equals("="));
+			} case MUTABLE: {
+				if (tokens[1].equals("=")) return new Assign(tokens[0], slot, local, instruction.getLiteral(2));
+				return parseCompound(instruction);
+			} case INT: {
+				return parseCompound(instruction);
+			} default: {
+				return new Fail(new InterpreterError("Syntax Error: Unknown token: " + tokens[0]));
+			}
+		}
+	}
+
+	/**
+	 * @param instruction an operator assignment, like x += 2 or x ++
+	 * @return the node of the assignment
+	 */
+	private Node parseCompound(Instruction instruction) {
+		String[] tokens = instruction.getTokens();
+		boolean numeric = instruction.isNumeric(2);
+		return new Compound(tokens[0], instruction.getSlot(), instruction.isLocal(), Compound.operatorOf(tokens[1]), tokens.length > 2,
+				instruction.getOperandSlot(), instruction.isOperandLocal(), numeric ? instruction.getLiteral(2) : 0, numeric, tokens.length > 2 ? tokens[2] : null);
+	}
+
+	/**
+	 * @param name a macro name
+	 * @return its index in AstContext.macros
+	 */
+	private int macroId(String name) {
+		Integer id = macroIds.get(name);
+		if (id == null) macroIds.put(name, id = macroIds.size());
+		return id;
+	}
+}
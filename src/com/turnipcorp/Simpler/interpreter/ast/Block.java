@@ -0,0 +1,96 @@
+package com.turnipcorp.Simpler.interpreter.ast;
+
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * A list of statements: the program, or the body of an IF, FOR or MACRO.
+ * <br /> A GOTO to a label of this block continues after the label. A GOTO to a label inside one of its IFs enters
+ * that IF at the label without checking its condition, like the line interpreter. Any other GOTO is left to the
+ * enclosing blocks.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - nodes : Node[]
+ * <li> - labels : int[]
+ * <li> - entries : int[]
+ * </ul>
+ */
+final class Block extends Node {
+
+	private final Node[] nodes;
+
+	/**
+	 * Index in nodes of every label of the block, -1 for the labels of other blocks. null if the block has no label.
+	 */
+	private final int[] labels;
+
+	/**
+	 * Index in nodes of the IF that holds every label of the IFs inside the block, -1 for the other labels.
+	 * null if no IF inside the block has a label.
+	 */
+	private final int[] entries;
+
+	/**
+	 * Constructor
+	 * @param nodes the statements
+	 * @param labels index in nodes of every label, null if the block has none
+	 * @param entries index in nodes of the IF holding every label of the IFs inside the block, null if they have none
+	 */
+	Block(Node[] nodes, int[] labels, int[] entries) {
+		this.nodes = nodes;
+		this.labels = labels;
+		this.entries = entries;
+	}
+
+	@Override
+	void execute(AstContext context) throws SimplerException {
+		run(context, 0);
+	}
+
+	/**
+	 * Runs the block from the label in AstContext.jump, which is in the block or in one of its IFs.
+	 * @param context the memory of the run
+	 * @throws SimplerException When a syntax error is raised
+	 */
+	@Override
+	void enter(AstContext context) throws SimplerException {
+		int next = resolve(context);
+		if (next != -1) run(context, next);
+	}
+
+	/**
+	 * @param label a label slot
+	 * @return whether the label is in the block or in one of its IFs
+	 */
+	boolean holds(int label) {
+		return (labels != null && labels[label] != -1) || (entries != null && entries[label] != -1);
+	}
+
+	private void run(AstContext context, int from) throws SimplerException {
+		for (int i = from; i < nodes.length; i++) {
+			nodes[i].execute(context);
+			if (context.jump != -1) {
+				int next = resolve(context);
+				if (next == -1) return;
+				i = next - 1;
+			}
+		}
+	}
+
+	/**
+	 * Follows the GOTO in AstContext.jump inside the block, entering the IF that holds its label.
+	 * @return index of the next node to run, -1 if the label is not in the block
+	 */
+	private int resolve(AstContext context) throws SimplerException {
+		while (true) {
+			int label = context.jump;
+			if (labels != null && labels[label] != -1) {
+				context.jump = -1;
+				return labels[label] + 1;
+			}
+			if (entries == null || entries[label] == -1) return -1;
+			int holder = entries[label];
+			nodes[holder].enter(context);
+			if (context.jump == -1) return holder + 1;
+		}
+	}
+}
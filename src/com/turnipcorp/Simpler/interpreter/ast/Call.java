@@ -0,0 +1,33 @@
+package com.turnipcorp.Simpler.interpreter.ast;
+
+import com.turnipcorp.Simpler.interpreter.Frame;
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * CALL [macro name], runs the macro in a fresh frame from the pool.
+ */
+final class Call extends Node {
+
+	private final int id;
+	private final String name;
+
+	Call(int id, String name) {
+		this.id = id;
+		this.name = name;
+	}
+
+	@Override
+	void execute(AstContext context) throws SimplerException {
+		MacroDefinition macro = context.macros[id];
+		if (macro == null) throw new SimplerException("Macro " + name + " not found");
+		Frame caller = context.frame;
+		context.frame = context.pool.acquire(macro.integerCount, macro.stringCount);
+		try {
+			macro.body.execute(context);
+			if (context.jump != -1) throw new SimplerException("Cannot GOTO out of macro " + name);
+		} finally {
+			context.pool.release();
+			context.frame = caller;
+		}
+	}
+}
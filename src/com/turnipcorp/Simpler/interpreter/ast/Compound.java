@@ -0,0 +1,131 @@
+package com.turnipcorp.Simpler.interpreter.ast;
+
+import com.turnipcorp.Simpler.interpreter.Frame;
+import com.turnipcorp.Simpler.lang.InterpreterError;
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * [integer name] [++ / -- / += / -= / *= / /= / **=] ([value or variable])
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - name : String
+ * <li> - slot : int
+ * <li> - local : boolean
+ * <li> - operator : int
+ * <li> - hasOperand : boolean
+ * <li> - operandSlot : int
+ * <li> - operandLocal : boolean
+ * <li> - literal : int
+ * <li> - numeric : boolean
+ * <li> - operandToken : String
+ * </ul>
+ */
+final class Compound extends Node {
+
+	static final int INCREMENT = 0;
+	static final int DECREMENT = 1;
+	static final int ADD = 2;
+	static final int SUBTRACT = 3;
+	static final int MULTIPLY = 4;
+	static final int DIVIDE = 5;
+	static final int POWER = 6;
+	static final int UNKNOWN = -1;
+
+	private final String name;
+	private final int slot;
+	private final boolean local;
+	private final int operator;
+
+	/**
+	 * Whether the line has a third token, read even by ++ and --.
+	 */
+	private final boolean hasOperand;
+
+	/**
+	 * Integer slot of the operand if it names a variable, -1 if not.
+	 */
+	private final int operandSlot;
+	private final boolean operandLocal;
+
+	/**
+	 * The operand as a number, used when it is not a declared variable.
+	 */
+	private final int literal;
+	private final boolean numeric;
+
+	/**
+	 * The operand as written, parsed again only to throw the same NumberFormatException as the Interpreter.
+	 */
+	private final String operandToken;
+
+	Compound(String name, int slot, boolean local, int operator, boolean hasOperand, int operandSlot, boolean operandLocal, int literal, boolean numeric, String operandToken) {
+		this.name = name;
+		this.slot = slot;
+		this.local = local;
+		this.operator = operator;
+		this.hasOperand = hasOperand;
+		this.operandSlot = operandSlot;
+		this.operandLocal = operandLocal;
+		this.literal = literal;
+		this.numeric = numeric;
+		this.operandToken = operandToken;
+	}
+
+	/**
+	 * @param token the second token of the line
+	 * @return the matching operator constant, UNKNOWN if there is none
+	 */
+	static int operatorOf(String token) {
+		switch (token) {
+			case "++": return INCREMENT;
+			case "--": return DECREMENT;
+			case "+=": return ADD;
+			case "-=": return SUBTRACT;
+			case "*=": return MULTIPLY;
+			case "/=": return DIVIDE;
+			case "**=": return POWER;
+			default: return UNKNOWN;
+		}
+	}
+
+	@Override
+	void execute(AstContext context) throws SimplerException {
+		Frame memory = context.memoryOf(local);
+		if (memory.states[slot] == Frame.UNDECLARED) throw new InterpreterError("Syntax Error: Unknown token: " + name);
+		if (memory.states[slot] == Frame.NULL) throw new SimplerException("Expected existing variable name!");
+		int val = memory.integers[slot];
+		int operand = 0;
+		if (hasOperand) {
+			Frame operandMemory = context.memoryOf(operandLocal);
+			if (operandSlot != -1 && operandMemory.states[operandSlot] == Frame.DECLARED) operand = operandMemory.integers[operandSlot];
+			else if (numeric) operand = literal;
+			else operand = Integer.parseInt(operandToken);
+		}
+		switch (operator) {
+			case INCREMENT: {
+				memory.integers[slot] = val + 1;
+				break;
+			} case DECREMENT: {
+				memory.integers[slot] = val - 1;
+				break;
+			} case ADD: {
+				memory.integers[slot] = val + operand;
+				break;
+			} case SUBTRACT: {
+				memory.integers[slot] = val - operand;
+				break;
+			} case MULTIPLY: {
+				memory.integers[slot] = val * operand;
+				break;
+			} case DIVIDE: {
+				memory.integers[slot] = val / operand;
+				break;
+			} case POWER: {
+				memory.integers[slot] = (int) Math.round(Math.pow(val, operand));
+				break;
+			} default: {
+				throw new SimplerException("Unknown operator!");
+			}
+		}
+	}
+}
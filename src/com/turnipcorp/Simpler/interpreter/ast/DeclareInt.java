@@ -0,0 +1,28 @@
+package com.turnipcorp.Simpler.interpreter.ast;
+
+import com.turnipcorp.Simpler.interpreter.Frame;
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * INT [name] = [value]
+ */
+final class DeclareInt extends Node {
+
+	private final int slot;
+	private final boolean local;
+	private final int value;
+
+	DeclareInt(int slot, boolean local, int value) {
+		this.slot = slot;
+		this.local = local;
+		this.value = value;
+	}
+
+	@Override
+	void execute(AstContext context) throws SimplerException {
+		Frame memory = context.memoryOf(local);
+		if (memory.states[slot] != Frame.UNDECLARED) throw new SimplerException("Expected new variable name!");
+		memory.integers[slot] = value;
+		memory.states[slot] = Frame.DECLARED;
+	}
+}
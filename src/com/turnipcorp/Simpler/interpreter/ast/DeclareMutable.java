@@ -0,0 +1,32 @@
+package com.turnipcorp.Simpler.interpreter.ast;
+
+import com.turnipcorp.Simpler.interpreter.Frame;
+
+/**
+ * MUTABLE INT [name] (= [value])
+ */
+final class DeclareMutable extends Node {
+
+	private final int slot;
+	private final boolean local;
+	private final int value;
+
+	/**
+	 * Frame.DECLARED, or Frame.NULL when there is no value.
+	 */
+	private final byte state;
+
+	DeclareMutable(int slot, boolean local, int value, byte state) {
+		this.slot = slot;
+		this.local = local;
+		this.value = value;
+		this.state = state;
+	}
+
+	@Override
+	void execute(AstContext context) {
+		Frame memory = context.memoryOf(local);
+		if (state == Frame.DECLARED) memory.integers[slot] = value;
+		memory.states[slot] = state;
+	}
+}
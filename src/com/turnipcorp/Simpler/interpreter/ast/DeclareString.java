@@ -0,0 +1,27 @@
+package com.turnipcorp.Simpler.interpreter.ast;
+
+import com.turnipcorp.Simpler.interpreter.Frame;
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * STRING [name] = "[value]"
+ */
+final class DeclareString extends Node {
+
+	private final int slot;
+	private final boolean local;
+	private final String value;
+
+	DeclareString(int slot, boolean local, String value) {
+		this.slot = slot;
+		this.local = local;
+		this.value = value;
+	}
+
+	@Override
+	void execute(AstContext context) throws SimplerException {
+		Frame memory = context.memoryOf(local);
+		if (memory.strings[slot] != null) throw new SimplerException("Expected new variable name!");
+		memory.strings[slot] = value;
+	}
+}
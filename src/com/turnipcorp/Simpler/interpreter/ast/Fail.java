@@ -0,0 +1,33 @@
+package com.turnipcorp.Simpler.interpreter.ast;
+
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * A line that can only fail, it throws its error when it is reached, like the Interpreter would.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - error : Throwable
+ * </ul>
+ */
+final class Fail extends Node {
+
+	/**
+	 * A SimplerException, an Error or a RuntimeException.
+	 */
+	private final Throwable error;
+
+	/**
+	 * Constructor
+	 * @param error A SimplerException, an Error or a RuntimeException
+	 */
+	Fail(Throwable error) {
+		this.error = error;
+	}
+
+	@Override
+	void execute(AstContext context) throws SimplerException {
+		if (error instanceof SimplerException) throw (SimplerException) error;
+		if (error instanceof Error) throw (Error) error;
+		throw (RuntimeException) error;
+	}
+}
@@ -0,0 +1,12 @@
+package com.turnipcorp.Simpler.interpreter.ast;
+
+/**
+ * FLUSH, writes what the program printed so far.
+ */
+final class Flush extends Node {
+
+	@Override
+	void execute(AstContext context) {
+		context.output.flush();
+	}
+}
@@ -0,0 +1,47 @@
+package com.turnipcorp.Simpler.interpreter.ast;
+
+import com.turnipcorp.Simpler.interpreter.Frame;
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * FOR [name] FROM [start] TO [last / NaN] (INCREMENT [increment]) ... END FOR
+ * <br /> The bounds are parsed once by the AstParser, every repetition is charged to the LoopGuard.
+ */
+final class For extends Node {
+
+	private final int slot;
+	private final boolean local;
+	private final int start;
+	private final int last;
+	private final int increment;
+
+	/**
+	 * TO NaN, the loop only ends with a GOTO or the budget.
+	 */
+	private final boolean infinite;
+	private final Block body;
+
+	For(int slot, boolean local, int start, int last, int increment, boolean infinite, Block body) {
+		this.slot = slot;
+		this.local = local;
+		this.start = start;
+		this.last = last;
+		this.increment = increment;
+		this.infinite = infinite;
+		this.body = body;
+	}
+
+	@Override
+	void execute(AstContext context) throws SimplerException {
+		Frame memory = context.memoryOf(local);
+		boolean repeated = false;
+		for (int i = start; infinite || i <= last; i += increment) {
+			if (repeated) context.guard.backwardJump(-1);
+			repeated = true;
+			memory.integers[slot] = i;
+			memory.states[slot] = Frame.DECLARED;
+			body.execute(context);
+			if (context.jump != -1) return;
+		}
+	}
+}
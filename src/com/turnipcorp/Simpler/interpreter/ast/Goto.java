@@ -0,0 +1,25 @@
+package com.turnipcorp.Simpler.interpreter.ast;
+
+/**
+ * GOTO [label name], hands the label to the enclosing blocks.
+ */
+final class Goto extends Node {
+
+	private final int label;
+
+	/**
+	 * Whether the label is above the GOTO, only those jumps can loop.
+	 */
+	private final boolean backward;
+
+	Goto(int label, boolean backward) {
+		this.label = label;
+		this.backward = backward;
+	}
+
+	@Override
+	void execute(AstContext context) {
+		if (backward) context.guard.backwardJump(label);
+		context.jump = label;
+	}
+}
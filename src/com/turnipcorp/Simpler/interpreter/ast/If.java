@@ -0,0 +1,74 @@
+package com.turnipcorp.Simpler.interpreter.ast;
+
+import com.turnipcorp.Simpler.interpreter.Frame;
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * IF [integer name] [operator] [value] ... END IF
+ */
+final class If extends Node {
+
+	static final int EQUAL = 0;
+	static final int NOT_EQUAL = 1;
+	static final int LESS = 2;
+	static final int GREATER = 3;
+	static final int LESS_EQUAL = 4;
+	static final int GREATER_EQUAL = 5;
+	static final int UNKNOWN = -1;
+
+	private final int slot;
+	private final boolean local;
+	private final int operator;
+	private final int value;
+	private final Block body;
+
+	If(int slot, boolean local, int operator, int value, Block body) {
+		this.slot = slot;
+		this.local = local;
+		this.operator = operator;
+		this.value = value;
+		this.body = body;
+	}
+
+	/**
+	 * @param token the operator of an IF
+	 * @return the matching comparison constant, UNKNOWN if there is none
+	 */
+	static int comparisonOf(String token) {
+		switch (token) {
+			case "==": return EQUAL;
+			case "!=": return NOT_EQUAL;
+			case "<": return LESS;
+			case ">": return GREATER;
+			case "<=": return LESS_EQUAL;
+			case ">=": return GREATER_EQUAL;
+			default: return UNKNOWN;
+		}
+	}
+
+	@Override
+	void execute(AstContext context) throws SimplerException {
+		Frame memory = context.memoryOf(local);
+		if (memory.states[slot] != Frame.DECLARED) throw new SimplerException("Expected existing variable name!");
+		int variable = memory.integers[slot];
+		boolean result;
+		switch (operator) {
+			case EQUAL: result = variable == value; break;
+			case NOT_EQUAL: result = variable != value; break;
+			case LESS: result = variable < value; break;
+			case GREATER: result = variable > value; break;
+			case LESS_EQUAL: result = variable <= value; break;
+			case GREATER_EQUAL: result = variable >= value; break;
+			default: throw new SimplerException("Unknown operator!");
+		}
+		if (result) body.execute(context);
+	}
+
+	/**
+	 * A GOTO to a label inside the IF runs the rest of its body, whatever the condition.
+	 */
+	@Override
+	void enter(AstContext context) throws SimplerException {
+		body.enter(context);
+	}
+}
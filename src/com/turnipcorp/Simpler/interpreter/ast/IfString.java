@@ -0,0 +1,48 @@
+package com.turnipcorp.Simpler.interpreter.ast;
+
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * IF [string name] [operator] "[value]" ... END IF
+ */
+final class IfString extends Node {
+
+	private final int slot;
+	private final boolean local;
+	private final int operator;
+	private final String value;
+	private final Block body;
+
+	IfString(int slot, boolean local, int operator, String value, Block body) {
+		this.slot = slot;
+		this.local = local;
+		this.operator = operator;
+		this.value = value;
+		this.body = body;
+	}
+
+	@Override
+	void execute(AstContext context) throws SimplerException {
+		String variable = context.memoryOf(local).strings[slot];
+		if (variable == null) throw new SimplerException("Expected existing variable name!");
+		boolean result;
+		switch (operator) {
+			case If.EQUAL: result = variable.equals(value); break;
+			case If.NOT_EQUAL: result = !variable.equals(value); break;
+			case If.LESS: result = variable.compareTo(value) < 0; break;
+			case If.GREATER: result = variable.compareTo(value) > 0; break;
+			case If.LESS_EQUAL: result = variable.compareTo(value) <= 0; break;
+			case If.GREATER_EQUAL: result = variable.compareTo(value) >= 0; break;
+			default: throw new SimplerException("Unknown operator!");
+		}
+		if (result) body.execute(context);
+	}
+
+	/**
+	 * A GOTO to a label inside the IF runs the rest of its body, whatever the condition.
+	 */
+	@Override
+	void enter(AstContext context) throws SimplerException {
+		body.enter(context);
+	}
+}
@@ -0,0 +1,18 @@
+package com.turnipcorp.Simpler.interpreter.ast;
+
+/**
+ * LABEL [label name], resets the jump count of the label when it runs.
+ */
+final class Label extends Node {
+
+	private final int label;
+
+	Label(int label) {
+		this.label = label;
+	}
+
+	@Override
+	void execute(AstContext context) {
+		context.guard.resetLabel(label);
+	}
+}
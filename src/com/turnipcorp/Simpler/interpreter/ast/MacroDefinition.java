@@ -0,0 +1,30 @@
+package com.turnipcorp.Simpler.interpreter.ast;
+
+/**
+ * MACRO [name] ... END MACRO, makes the macro callable once it runs.
+ */
+final class MacroDefinition extends Node {
+
+	final int id;
+	final String name;
+	final Block body;
+
+	/**
+	 * Size of the frame of every call.
+	 */
+	final int integerCount;
+	final int stringCount;
+
+	MacroDefinition(int id, String name, Block body, int integerCount, int stringCount) {
+		this.id = id;
+		this.name = name;
+		this.body = body;
+		this.integerCount = integerCount;
+		this.stringCount = stringCount;
+	}
+
+	@Override
+	void execute(AstContext context) {
+		context.macros[id] = this;
+	}
+}
@@ -0,0 +1,27 @@
+package com.turnipcorp.Simpler.interpreter.ast;
+
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * A typed statement of the AST, built once per program by the AstParser.
+ * <br /> Every subclass is final and does one thing, so the JIT sees a single receiver type at each call site.
+ * @see AstParser
+ */
+abstract class Node {
+
+	/**
+	 * Runs the statement. A GOTO leaves its label in AstContext.jump for the enclosing blocks to resolve.
+	 * @param context the memory of the run
+	 * @throws SimplerException When a syntax error is raised
+	 */
+	abstract void execute(AstContext context) throws SimplerException;
+
+	/**
+	 * Runs the statement from the label in AstContext.jump, only called on the blocks and IFs that hold the label.
+	 * @param context the memory of the run
+	 * @throws SimplerException When a syntax error is raised
+	 */
+	void enter(AstContext context) throws SimplerException {
+		throw new SimplerException("Cannot GOTO into a block");
+	}
+}
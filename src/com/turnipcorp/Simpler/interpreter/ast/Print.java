@@ -0,0 +1,20 @@
+package com.turnipcorp.Simpler.interpreter.ast;
+
+/**
+ * PRINTSTR "[text]" (endl)
+ */
+final class Print extends Node {
+
+	private final String text;
+	private final boolean newline;
+
+	Print(String text, boolean newline) {
+		this.text = text;
+		this.newline = newline;
+	}
+
+	@Override
+	void execute(AstContext context) {
+		context.output.print(text, newline);
+	}
+}
@@ -0,0 +1,41 @@
+package com.turnipcorp.Simpler.interpreter.ast;
+
+import com.turnipcorp.Simpler.interpreter.Frame;
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * PRINTVAR [name] (endl)
+ */
+final class PrintVariable extends Node {
+
+	private final int slot;
+	private final boolean local;
+
+	/**
+	 * Whether the slot is a string slot, or an integer one.
+	 */
+	private final boolean string;
+	private final boolean newline;
+
+	PrintVariable(int slot, boolean local, boolean string, boolean newline) {
+		this.slot = slot;
+		this.local = local;
+		this.string = string;
+		this.newline = newline;
+	}
+
+	@Override
+	void execute(AstContext context) throws SimplerException {
+		Frame memory = context.memoryOf(local);
+		if (string) {
+			if (memory.strings[slot] == null) throw new SimplerException("Variable (Function) name not found!");
+			context.output.print(memory.strings[slot], newline);
+		} else if (memory.states[slot] == Frame.DECLARED) {
+			context.output.print(Integer.toString(memory.integers[slot]), newline);
+		} else if (memory.states[slot] == Frame.NULL) {
+			context.output.print("null", newline);
+		} else {
+			throw new SimplerException("Variable (Function) name not found!");
+		}
+	}
+}
@@ -0,0 +1,229 @@
+package com.turnipcorp.Simpler.interpreter.jit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+
+/**
+ * Writes a class file with static methods, and no fields or attributes besides their code.
+ * <br /> The class of a region also extends JitRegion, with a constructor and an instance method for it.
+ * <br /> The version is 49 so the JVM infers the stack frames itself, and no StackMapTable has to be computed.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - name : String
+ * <li> - superName : String
+ * <li> - pool : DataOutputStream
+ * <li> - poolBytes : ByteArrayOutputStream
+ * <li> - poolCount : int
+ * <li> - entries : HashMap[String, Integer]
+ * <li> - methods : DataOutputStream
+ * <li> - methodBytes : ByteArrayOutputStream
+ * <li> - methodCount : int
+ * </ul>
+ * @see MethodWriter
+ */
+final class ClassWriter {
+
+	static final int ACC_PUBLIC = 0x0001;
+	static final int ACC_STATIC = 0x0008;
+	static final int ACC_FINAL = 0x0010;
+	static final int ACC_SUPER = 0x0020;
+
+	private static final int CONSTANT_UTF8 = 1;
+	private static final int CONSTANT_INTEGER = 3;
+	private static final int CONSTANT_CLASS = 7;
+	private static final int CONSTANT_STRING = 8;
+	private static final int CONSTANT_FIELDREF = 9;
+	private static final int CONSTANT_METHODREF = 10;
+	private static final int CONSTANT_INTERFACE_METHODREF = 11;
+	private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+	/**
+	 * Internal name of the class, with slashes.
+	 */
+	private final String name;
+
+	/**
+	 * Internal name of the class it extends.
+	 */
+	private String superName = "java/lang/Object";
+
+	private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+	private final DataOutputStream pool = new DataOutputStream(poolBytes);
+	private int poolCount = 1;
+
+	/**
+	 * Index of every constant already in the pool, by tag and value.
+	 */
+	private final HashMap<String, Integer> entries = new HashMap<>();
+
+	private final ByteArrayOutputStream methodBytes = new ByteArrayOutputStream();
+	private final DataOutputStream methods = new DataOutputStream(methodBytes);
+	private int methodCount = 0;
+
+	/**
+	 * Constructor
+	 * @param name Internal name of the class, with slashes
+	 */
+	ClassWriter(String name) {
+		this.name = name;
+	}
+
+	String getName() {
+		return name;
+	}
+
+	/**
+	 * @param internalName Internal name of the class it extends, with slashes
+	 */
+	void extend(String internalName) {
+		superName = internalName;
+	}
+
+	/**
+	 * @throws IOException When the string is too long for the class file format
+	 */
+	int utf8(String value) throws IOException {
+		Integer index = entries.get(CONSTANT_UTF8 + ":" + value);
+		if (index != null) return index;
+		pool.writeByte(CONSTANT_UTF8);
+		pool.writeUTF(value);
+		return add(CONSTANT_UTF8 + ":" + value);
+	}
+
+	int integer(int value) throws IOException {
+		Integer index = entries.get(CONSTANT_INTEGER + ":" + value);
+		if (index != null) return index;
+		pool.writeByte(CONSTANT_INTEGER);
+		pool.writeInt(value);
+		return add(CONSTANT_INTEGER + ":" + value);
+	}
+
+	int classRef(String internalName) throws IOException {
+		Integer index = entries.get(CONSTANT_CLASS + ":" + internalName);
+		if (index != null) return index;
+		int utf8 = utf8(internalName);
+		pool.writeByte(CONSTANT_CLASS);
+		pool.writeShort(utf8);
+		return add(CONSTANT_CLASS + ":" + internalName);
+	}
+
+	int string(String value) throws IOException {
+		Integer index = entries.get(CONSTANT_STRING + ":" + value);
+		if (index != null) return index;
+		int utf8 = utf8(value);
+		pool.writeByte(CONSTANT_STRING);
+		pool.writeShort(utf8);
+		return add(CONSTANT_STRING + ":" + value);
+	}
+
+	int fieldRef(String owner, String member, String descriptor) throws IOException {
+		return memberRef(CONSTANT_FIELDREF, owner, member, descriptor);
+	}
+
+	int methodRef(String owner, String member, String descriptor) throws IOException {
+		return memberRef(CONSTANT_METHODREF, owner, member, descriptor);
+	}
+
+	int interfaceMethodRef(String owner, String member, String descriptor) throws IOException {
+		return memberRef(CONSTANT_INTERFACE_METHODREF, owner, member, descriptor);
+	}
+
+	private int memberRef(int tag, String owner, String member, String descriptor) throws IOException {
+		String key = tag + ":" + owner + "." + member + ":" + descriptor;
+		Integer index = entries.get(key);
+		if (index != null) return index;
+		int ownerIndex = classRef(owner);
+		int nameAndType = nameAndType(member, descriptor);
+		pool.writeByte(tag);
+		pool.writeShort(ownerIndex);
+		pool.writeShort(nameAndType);
+		return add(key);
+	}
+
+	private int nameAndType(String member, String descriptor) throws IOException {
+		String key = CONSTANT_NAME_AND_TYPE + ":" + member + ":" + descriptor;
+		Integer index = entries.get(key);
+		if (index != null) return index;
+		int memberIndex = utf8(member);
+		int descriptorIndex = utf8(descriptor);
+		pool.writeByte(CONSTANT_NAME_AND_TYPE);
+		pool.writeShort(memberIndex);
+		pool.writeShort(descriptorIndex);
+		return add(key);
+	}
+
+	/**
+	 * @throws IOException When the pool is full
+	 */
+	private int add(String key) throws IOException {
+		if (poolCount >= 0xFFFF) throw new IOException("Constant pool is full");
+		entries.put(key, poolCount);
+		return poolCount++;
+	}
+
+	/**
+	 * Adds a static method.
+	 * @param member the method name
+	 * @param descriptor the method descriptor
+	 * @param method the finished code of the method
+	 * @throws IOException When the code is too big for the class file format
+	 */
+	void addMethod(String member, String descriptor, MethodWriter method) throws IOException {
+		addMethod(ACC_PUBLIC | ACC_STATIC, member, descriptor, method);
+	}
+
+	/**
+	 * Adds a method.
+	 * @param access the access flags, ACC_PUBLIC alone for a constructor or an instance method
+	 * @param member the method name
+	 * @param descriptor the method descriptor
+	 * @param method the finished code of the method
+	 * @throws IOException When the code is too big for the class file format
+	 */
+	void addMethod(int access, String member, String descriptor, MethodWriter method) throws IOException {
+		byte[] code = method.toByteArray();
+		int nameIndex = utf8(member);
+		int descriptorIndex = utf8(descriptor);
+		int codeIndex = utf8("Code");
+		methods.writeShort(access);
+		methods.writeShort(nameIndex);
+		methods.writeShort(descriptorIndex);
+		methods.writeShort(1);
+		methods.writeShort(codeIndex);
+		methods.writeInt(12 + code.length);
+		methods.writeShort(method.getMaxStack());
+		methods.writeShort(method.getMaxLocals());
+		methods.writeInt(code.length);
+		methods.write(code);
+		methods.writeShort(0);
+		methods.writeShort(0);
+		methodCount++;
+	}
+
+	/**
+	 * @return the class file
+	 * @throws IOException When the class is too big for the class file format
+	 */
+	byte[] toByteArray() throws IOException {
+		int thisClass = classRef(name);
+		int superClass = classRef(superName);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(0xCAFEBABE);
+		out.writeShort(0);
+		out.writeShort(49);
+		out.writeShort(poolCount);
+		poolBytes.writeTo(out);
+		out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+		out.writeShort(thisClass);
+		out.writeShort(superClass);
+		out.writeShort(0);
+		out.writeShort(0);
+		out.writeShort(methodCount);
+		methodBytes.writeTo(out);
+		out.writeShort(0);
+		return bytes.toByteArray();
+	}
+}
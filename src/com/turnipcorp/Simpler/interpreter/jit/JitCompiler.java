@@ -0,0 +1,606 @@
+package com.turnipcorp.Simpler.interpreter.jit;
+
+import java.io.IOException;
+import java.util.HashMap;
+
+import com.turnipcorp.Simpler.interpreter.Frame;
+import com.turnipcorp.Simpler.interpreter.vm.Bytecode;
+import com.turnipcorp.Simpler.interpreter.vm.Chunk;
+
+import static com.turnipcorp.Simpler.interpreter.jit.MethodWriter.*;
+
+/**
+ * Translates the bytecode of a program into a JVM class: one static method for the program and one per macro.
+ * <br /> Every opcode of the VirtualMachine becomes a short sequence of JVM instructions on the arrays of the frames,
+ * loop counters live in JVM locals, and a CALL is a direct static call to the method of the macro.
+ * <br /> Programs that define the same macro twice, or whose methods do not fit the class file limits, are not compiled.
+ * <br /> A region is a single method for some lines of the program, the hot ones of the tiered Interpreter.
+ * Like Interpreter.run, it returns -1 at its end or the LABEL line of a GOTO out of it, and calls macros through the runtime.
+ * Its class extends JitRegion and its CALLs go straight to the MacroCaller, so the macro calls nested in regions
+ * take no frames of the thread stack besides the caller's and the method's.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - chunk : Chunk
+ * <li> - code : int[]
+ * <li> - writer : ClassWriter
+ * <li> - bodies : int[]
+ * <li> - region : boolean
+ * <li> - method : MethodWriter
+ * <li> - labels : HashMap[Integer, Integer]
+ * <li> - exits : HashMap[Integer, Integer]
+ * <li> - counters : HashMap[Integer, Integer]
+ * </ul>
+ * @see JitEngine
+ */
+final class JitCompiler {
+
+	/**
+	 * Name of the method of the program, the macros are this followed by their id.
+	 */
+	static final String PROGRAM = "run";
+
+	private static final String FRAME = "com/turnipcorp/Simpler/interpreter/Frame";
+	private static final String RUNTIME = "com/turnipcorp/Simpler/interpreter/jit/JitRuntime";
+	private static final String REGION = "com/turnipcorp/Simpler/interpreter/jit/JitRegion";
+	private static final String CALLER = "com/turnipcorp/Simpler/interpreter/jit/MacroCaller";
+	private static final String GUARD = "com/turnipcorp/Simpler/interpreter/LoopGuard";
+	private static final String DESCRIPTOR = "(L" + FRAME + ";L" + FRAME + ";L" + RUNTIME + ";I)I";
+
+	/**
+	 * Local variables of every generated method, ENTRY is the first value of the loop a region starts with.
+	 */
+	private static final int GLOBALS = 0, FRAME_LOCAL = 1, RUNTIME_LOCAL = 2, ENTRY = 3;
+	private static final int GLOBAL_INTEGERS = 4, GLOBAL_STATES = 5, GLOBAL_STRINGS = 6;
+	private static final int LOCAL_INTEGERS = 7, LOCAL_STATES = 8, LOCAL_STRINGS = 9;
+	private static final int OPERAND = 10, FIRST_COUNTER = 11;
+
+	/**
+	 * The branch of every comparison of Bytecode, EQ to GE, between two ints and between an int and 0.
+	 */
+	private static final int[] COMPARE_BRANCHES = {IF_ICMPEQ, IF_ICMPNE, IF_ICMPLT, IF_ICMPGT, IF_ICMPLE, IF_ICMPGE};
+	private static final int[] ZERO_BRANCHES = {IFEQ, IFNE, IFLT, IFGT, IFLE, IFGE};
+
+	private final Chunk chunk;
+	private final int[] code;
+	private final ClassWriter writer;
+
+	/**
+	 * Address of the DEFINE of every macro, -1 for macros that are only called.
+	 */
+	private final int[] bodies;
+
+	/**
+	 * Whether a region is compiled instead of the whole program.
+	 */
+	private final boolean region;
+
+	private MethodWriter method;
+
+	/**
+	 * Label of every opcode address of the method being written.
+	 */
+	private HashMap<Integer, Integer> labels;
+
+	/**
+	 * Label of every address a jump leaves the method being written to.
+	 */
+	private HashMap<Integer, Integer> exits;
+
+	/**
+	 * Local variable of every loop counter of the method being written.
+	 */
+	private HashMap<Integer, Integer> counters;
+
+	private JitCompiler(Chunk chunk, boolean region) {
+		this.chunk = chunk;
+		this.code = chunk.getCode();
+		this.writer = new ClassWriter("com/turnipcorp/Simpler/interpreter/jit/" + (region ? "CompiledRegion" : "CompiledProgram"));
+		this.bodies = new int[chunk.macroCount()];
+		this.region = region;
+	}
+
+	/**
+	 * @param chunk the bytecode of a program
+	 * @return the class file, null if the program cannot be compiled
+	 */
+	static byte[] compile(Chunk chunk) {
+		try {
+			return new JitCompiler(chunk, false).write();
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Regions that define a macro, or have a line that can only fail, are not compiled.
+	 * @param chunk the bytecode of the program
+	 * @param fromLine index of the first line of the region
+	 * @param toLine index after the last line of the region
+	 * @param loop whether the region starts with a FOR, its first value is then the ENTRY argument
+	 * @return the class file with a single method and its JitRegion.run, null if the region cannot be compiled
+	 */
+	static byte[] compileRegion(Chunk chunk, int fromLine, int toLine, boolean loop) {
+		try {
+			JitCompiler compiler = new JitCompiler(chunk, true);
+			compiler.writeMethod(PROGRAM, chunk.getLineAddress(fromLine), chunk.getLineAddress(toLine), loop);
+			compiler.writeRegion();
+			return compiler.writer.toByteArray();
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Makes the class of a region a JitRegion: a constructor taking the runtime, and a run that calls the method of the region with it.
+	 */
+	private void writeRegion() throws IOException {
+		writer.extend(REGION);
+		MethodWriter constructor = new MethodWriter(writer, 2, 2);
+		constructor.local(ALOAD, 0);
+		constructor.local(ALOAD, 1);
+		constructor.invoke(INVOKESPECIAL, REGION, "<init>", "(L" + RUNTIME + ";)V");
+		constructor.op(RETURN);
+		writer.addMethod(ClassWriter.ACC_PUBLIC, "<init>", "(L" + RUNTIME + ";)V", constructor);
+		MethodWriter run = new MethodWriter(writer, 4, 4);
+		run.local(ALOAD, 1);
+		run.local(ALOAD, 2);
+		run.local(ALOAD, 0);
+		run.field(GETFIELD, REGION, "runtime", "L" + RUNTIME + ";");
+		run.local(ILOAD, 3);
+		run.invoke(INVOKESTATIC, writer.getName(), PROGRAM, DESCRIPTOR);
+		run.op(IRETURN);
+		writer.addMethod(ClassWriter.ACC_PUBLIC, PROGRAM, "(L" + FRAME + ";L" + FRAME + ";I)I", run);
+	}
+
+	private byte[] write() throws IOException {
+		for (int macro = 0; macro < bodies.length; macro++) bodies[macro] = -1;
+		for (int pc = 0; pc < code.length; pc += 1 + Bytecode.operands(code[pc])) {
+			if (code[pc] != Bytecode.DEFINE) continue;
+			if (bodies[code[pc + 1]] != -1) throw new IOException("Macro defined twice");
+			bodies[code[pc + 1]] = pc;
+		}
+		writeMethod(PROGRAM, 0, code.length, false);
+		for (int macro = 0; macro < bodies.length; macro++) {
+			if (bodies[macro] != -1) writeMethod(PROGRAM + macro, bodies[macro] + 3, code[bodies[macro] + 2], false);
+		}
+		return writer.toByteArray();
+	}
+
+	/**
+	 * Writes the method of the opcodes from..to, the bodies of the macros defined in between are left to their own methods.
+	 * <br /> Jumps out of from..to return the line they continue after, or -1 for the end of from..to.
+	 * @param loop whether the FOR_INIT at from takes its value from the ENTRY argument
+	 */
+	private void writeMethod(String name, int from, int to, boolean loop) throws IOException {
+		labels = new HashMap<>();
+		exits = new HashMap<>();
+		counters = new HashMap<>();
+		for (int pc = from; pc < to; pc = next(pc)) {
+			if (code[pc] == Bytecode.FOR_INIT && !counters.containsKey(code[pc + 1])) counters.put(code[pc + 1], FIRST_COUNTER + counters.size());
+		}
+		method = new MethodWriter(writer, 8, FIRST_COUNTER + counters.size());
+		for (int pc = from; pc < to; pc = next(pc)) labels.put(pc, method.newLabel());
+		prologue();
+		for (int pc = from; pc < to; pc = next(pc)) {
+			method.mark(labels.get(pc));
+			if (loop && pc == from && code[pc] == Bytecode.FOR_INIT) {
+				method.local(ILOAD, ENTRY);
+				method.local(ISTORE, counters.get(code[pc + 1]));
+			} else {
+				translate(pc);
+			}
+		}
+		method.push(-1);
+		method.op(IRETURN);
+		for (int address : exits.keySet()) {
+			method.mark(exits.get(address));
+			method.push(address == to ? -1 : chunk.lineBefore(address));
+			method.op(IRETURN);
+		}
+		writer.addMethod(name, DESCRIPTOR, method);
+	}
+
+	/**
+	 * @param address the target of a jump
+	 * @return the label of the opcode, or of a return for the addresses out of the method
+	 */
+	private int target(int address) {
+		Integer label = labels.get(address);
+		if (label != null) return label;
+		label = exits.get(address);
+		if (label == null) exits.put(address, label = method.newLabel());
+		return label;
+	}
+
+	/**
+	 * @return the address of the opcode after the one at pc, after the body for a DEFINE
+	 */
+	private int next(int pc) {
+		if (code[pc] == Bytecode.DEFINE) return code[pc + 2];
+		return pc + 1 + Bytecode.operands(code[pc]);
+	}
+
+	/**
+	 * Loads the arrays of the frames into locals, null outside of macros, and sets every loop counter to 0.
+	 */
+	private void prologue() throws IOException {
+		int global = method.newLabel(), loaded = method.newLabel();
+		loadArrays(GLOBALS, GLOBAL_INTEGERS);
+		method.local(ALOAD, FRAME_LOCAL);
+		method.jump(IFNULL, global);
+		loadArrays(FRAME_LOCAL, LOCAL_INTEGERS);
+		method.jump(GOTO, loaded);
+		method.mark(global);
+		for (int array = LOCAL_INTEGERS; array <= LOCAL_STRINGS; array++) {
+			method.op(ACONST_NULL);
+			method.local(ASTORE, array);
+		}
+		method.mark(loaded);
+		for (int counter : counters.values()) {
+			method.push(0);
+			method.local(ISTORE, counter);
+		}
+	}
+
+	private void loadArrays(int frame, int first) throws IOException {
+		method.local(ALOAD, frame);
+		method.field(GETFIELD, FRAME, "integers", "[I");
+		method.local(ASTORE, first);
+		method.local(ALOAD, frame);
+		method.field(GETFIELD, FRAME, "states", "[B");
+		method.local(ASTORE, first + 1);
+		method.local(ALOAD, frame);
+		method.field(GETFIELD, FRAME, "strings", "[Ljava/lang/String;");
+		method.local(ASTORE, first + 2);
+	}
+
+	/**
+	 * Writes the JVM instructions of one opcode.
+	 */
+	private void translate(int pc) throws IOException {
+		int op = code[pc];
+		int a = code[pc + 1];
+		switch (op) {
+			case Bytecode.HALT: case Bytecode.RET: {
+				method.push(-1);
+				method.op(IRETURN);
+				break;
+			} case Bytecode.DECLARE_INT: {
+				int ok = method.newLabel();
+				state(a);
+				method.jump(IFEQ, ok);
+				fail("expectedNew", "()Ljava/lang/Throwable;");
+				method.mark(ok);
+				storeInteger(a, code[pc + 2]);
+				break;
+			} case Bytecode.DECLARE_MUTABLE: {
+				if (code[pc + 3] == Frame.DECLARED) {
+					integers(a);
+					method.push(a >> 1);
+					method.push(code[pc + 2]);
+					method.op(IASTORE);
+				}
+				storeState(a, code[pc + 3]);
+				break;
+			} case Bytecode.DECLARE_STRING: {
+				int ok = method.newLabel();
+				string(a);
+				method.jump(IFNULL, ok);
+				fail("expectedNew", "()Ljava/lang/Throwable;");
+				method.mark(ok);
+				storeString(a, chunk.getString(code[pc + 2]));
+				break;
+			} case Bytecode.LOAD_CONST: {
+				int ok = method.newLabel();
+				state(a);
+				method.jump(IFNE, ok);
+				method.ldc(chunk.getString(code[pc + 3]));
+				fail("unknownToken", "(Ljava/lang/String;)Ljava/lang/Throwable;");
+				method.mark(ok);
+				storeInteger(a, code[pc + 2]);
+				break;
+			} case Bytecode.STORE_STRING: {
+				int ok = method.newLabel();
+				string(a);
+				method.jump(IFNONNULL, ok);
+				method.ldc(chunk.getString(code[pc + 3]));
+				fail("unknownToken", "(Ljava/lang/String;)Ljava/lang/Throwable;");
+				method.mark(ok);
+				storeString(a, chunk.getString(code[pc + 2]));
+				break;
+			} case Bytecode.CHECK_INT: {
+				checkInteger(a, code[pc + 2]);
+				break;
+			} case Bytecode.INC: case Bytecode.DEC: {
+				checkInteger(a, code[pc + 2]);
+				integers(a);
+				method.push(a >> 1);
+				method.op(DUP2);
+				method.op(IALOAD);
+				method.push(op == Bytecode.INC ? 1 : -1);
+				method.op(IADD);
+				method.op(IASTORE);
+				break;
+			} case Bytecode.ADD_CONST: case Bytecode.SUB_CONST: case Bytecode.MUL_CONST: case Bytecode.DIV_CONST: case Bytecode.POW_CONST: {
+				checkInteger(a, code[pc + 3]);
+				arithmetic(a, op - Bytecode.ADD_CONST, code[pc + 2], false);
+				break;
+			} case Bytecode.ADD_SLOT: case Bytecode.SUB_SLOT: case Bytecode.MUL_SLOT: case Bytecode.DIV_SLOT: case Bytecode.POW_SLOT: {
+				checkInteger(a, code[pc + 3]);
+				int b = code[pc + 2];
+				int fallback = method.newLabel(), operand = method.newLabel();
+				state(b);
+				method.push(Frame.DECLARED);
+				method.jump(IF_ICMPNE, fallback);
+				integers(b);
+				method.push(b >> 1);
+				method.op(IALOAD);
+				method.jump(GOTO, operand);
+				method.mark(fallback);
+				method.ldc(chunk.getString(code[pc + 3] + 1));
+				method.invoke(INVOKESTATIC, "java/lang/Integer", "parseInt", "(Ljava/lang/String;)I");
+				method.mark(operand);
+				method.local(ISTORE, OPERAND);
+				arithmetic(a, op - Bytecode.ADD_SLOT, 0, true);
+				break;
+			} case Bytecode.PRINT_INT: {
+				method.local(ALOAD, RUNTIME_LOCAL);
+				integers(a);
+				states(a);
+				method.push(a >> 1);
+				method.push(code[pc + 2]);
+				method.invoke(INVOKEVIRTUAL, RUNTIME, "printInteger", "([I[BII)V");
+				break;
+			} case Bytecode.PRINT_STRING: {
+				method.local(ALOAD, RUNTIME_LOCAL);
+				strings(a);
+				method.push(a >> 1);
+				method.push(code[pc + 2]);
+				method.invoke(INVOKEVIRTUAL, RUNTIME, "printString", "([Ljava/lang/String;II)V");
+				break;
+			} case Bytecode.PRINT_CONST: {
+				method.local(ALOAD, RUNTIME_LOCAL);
+				method.ldc(chunk.getString(a));
+				method.push(code[pc + 2]);
+				method.invoke(INVOKEVIRTUAL, RUNTIME, "print", "(Ljava/lang/String;I)V");
+				break;
+			} case Bytecode.JMP: {
+				method.jump(GOTO, target(a));
+				break;
+			} case Bytecode.JMP_BACK: {
+				guard("backwardJump", a);
+				method.jump(GOTO, target(code[pc + 2]));
+				break;
+			} case Bytecode.LABEL: {
+				guard("resetLabel", a);
+				break;
+			} case Bytecode.JMP_IF_EQ: case Bytecode.JMP_IF_NE: case Bytecode.JMP_IF_LT: case Bytecode.JMP_IF_GT: case Bytecode.JMP_IF_LE: case Bytecode.JMP_IF_GE: {
+				int ok = method.newLabel();
+				state(a);
+				method.push(Frame.DECLARED);
+				method.jump(IF_ICMPEQ, ok);
+				fail("expectedExisting", "()Ljava/lang/Throwable;");
+				method.mark(ok);
+				integers(a);
+				method.push(a >> 1);
+				method.op(IALOAD);
+				method.push(code[pc + 2]);
+				method.jump(COMPARE_BRANCHES[op - Bytecode.JMP_IF_EQ], target(code[pc + 3]));
+				break;
+			} case Bytecode.JMP_IF_STRING: {
+				int ok = method.newLabel();
+				string(a);
+				method.op(DUP);
+				method.jump(IFNONNULL, ok);
+				method.op(POP);
+				fail("expectedExisting", "()Ljava/lang/Throwable;");
+				method.mark(ok);
+				method.ldc(chunk.getString(code[pc + 2] >> 3));
+				method.invoke(INVOKEVIRTUAL, "java/lang/String", "compareTo", "(Ljava/lang/String;)I");
+				method.jump(ZERO_BRANCHES[code[pc + 2] & 7], target(code[pc + 3]));
+				break;
+			} case Bytecode.FOR_INIT: {
+				method.push(code[pc + 2]);
+				method.local(ISTORE, counters.get(a));
+				break;
+			} case Bytecode.FOR_TEST: {
+				method.local(ILOAD, counters.get(a));
+				method.push(code[pc + 2]);
+				method.jump(IF_ICMPGT, target(code[pc + 3]));
+				break;
+			} case Bytecode.FOR_SET: {
+				setVariable(a, counters.get(code[pc + 2]));
+				break;
+			} case Bytecode.FOR_NEXT: case Bytecode.LOOP: {
+				int counter = counters.get(a);
+				boolean infinite = op == Bytecode.LOOP;
+				int exit = method.newLabel();
+				method.local(ILOAD, counter);
+				method.push(code[pc + 2]);
+				method.op(IADD);
+				method.local(ISTORE, counter);
+				if (!infinite) {
+					method.local(ILOAD, counter);
+					method.push(code[pc + 3]);
+					method.jump(IF_ICMPGT, exit);
+				}
+				guard("backwardJump", -1);
+				setVariable(code[pc + (infinite ? 3 : 4)], counter);
+				method.jump(GOTO, target(code[pc + (infinite ? 4 : 5)]));
+				method.mark(exit);
+				break;
+			} case Bytecode.DEFINE: {
+				if (region) throw new IOException("Macro defined in a region");
+				method.local(ALOAD, RUNTIME_LOCAL);
+				method.field(GETFIELD, RUNTIME, "defined", "[Z");
+				method.push(a);
+				method.push(1);
+				method.op(BASTORE);
+				method.jump(GOTO, target(code[pc + 2]));
+				break;
+			} case Bytecode.CALL: {
+				if (region) {
+					method.local(ALOAD, RUNTIME_LOCAL);
+					method.field(GETFIELD, RUNTIME, "caller", "L" + CALLER + ";");
+					method.ldc(chunk.getString(code[pc + 2]));
+					method.invokeInterface(CALLER, "call", "(Ljava/lang/String;)V", 2);
+					break;
+				}
+				method.local(ALOAD, GLOBALS);
+				method.local(ALOAD, RUNTIME_LOCAL);
+				method.push(a);
+				method.ldc(chunk.getString(code[pc + 2]));
+				method.invoke(INVOKEVIRTUAL, RUNTIME, "enter", "(ILjava/lang/String;)L" + FRAME + ";");
+				if (bodies[a] == -1) {
+					method.op(POP);
+					method.op(POP);
+					break;
+				}
+				method.local(ALOAD, RUNTIME_LOCAL);
+				method.push(0);
+				method.invoke(INVOKESTATIC, writer.getName(), PROGRAM + a, DESCRIPTOR);
+				method.op(POP);
+				method.local(ALOAD, RUNTIME_LOCAL);
+				method.invoke(INVOKEVIRTUAL, RUNTIME, "leave", "()V");
+				break;
+			} case Bytecode.FAIL: {
+				if (region) throw new IOException("Region with a failing line");
+				method.local(ALOAD, RUNTIME_LOCAL);
+				method.field(GETFIELD, RUNTIME, "failures", "[Ljava/lang/Throwable;");
+				method.push(a);
+				method.op(AALOAD);
+				method.op(ATHROW);
+				break;
+			} case Bytecode.FLUSH: {
+				method.local(ALOAD, RUNTIME_LOCAL);
+				method.invoke(INVOKEVIRTUAL, RUNTIME, "flush", "()V");
+				break;
+			} default: {
+				throw new IOException("Unknown opcode " + op);
+			}
+		}
+	}
+
+	/**
+	 * [variable] [operator]= the constant, or the OPERAND local.
+	 * @param operator 0 to 4 for + - * / **
+	 */
+	private void arithmetic(int ref, int operator, int constant, boolean fromLocal) throws IOException {
+		integers(ref);
+		method.push(ref >> 1);
+		if (operator == 4) {
+			integers(ref);
+			method.push(ref >> 1);
+			method.op(IALOAD);
+			method.op(I2D);
+			operand(constant, fromLocal);
+			method.op(I2D);
+			method.invoke(INVOKESTATIC, "java/lang/Math", "pow", "(DD)D");
+			method.invoke(INVOKESTATIC, "java/lang/Math", "round", "(D)J");
+			method.op(L2I);
+		} else {
+			method.op(DUP2);
+			method.op(IALOAD);
+			operand(constant, fromLocal);
+			method.op(operator == 0 ? IADD : operator == 1 ? ISUB : operator == 2 ? IMUL : IDIV);
+		}
+		method.op(IASTORE);
+	}
+
+	private void operand(int constant, boolean fromLocal) throws IOException {
+		if (fromLocal) method.local(ILOAD, OPERAND);
+		else method.push(constant);
+	}
+
+	/**
+	 * Throws unless the integer is DECLARED, with the error the Interpreter would give.
+	 */
+	private void checkInteger(int ref, int name) throws IOException {
+		int ok = method.newLabel();
+		state(ref);
+		method.push(Frame.DECLARED);
+		method.jump(IF_ICMPEQ, ok);
+		state(ref);
+		method.ldc(chunk.getString(name));
+		fail("failInteger", "(BLjava/lang/String;)Ljava/lang/Throwable;");
+		method.mark(ok);
+	}
+
+	/**
+	 * Calls a static error factory of JitRuntime and throws what it returns.
+	 */
+	private void fail(String factory, String descriptor) throws IOException {
+		method.invoke(INVOKESTATIC, RUNTIME, factory, descriptor);
+		method.op(ATHROW);
+	}
+
+	private void guard(String member, int label) throws IOException {
+		method.local(ALOAD, RUNTIME_LOCAL);
+		method.field(GETFIELD, RUNTIME, "guard", "L" + GUARD + ";");
+		method.push(label);
+		method.invoke(INVOKEVIRTUAL, GUARD, member, "(I)V");
+	}
+
+	/**
+	 * The variable takes the value of a local, and becomes DECLARED.
+	 */
+	private void setVariable(int ref, int local) throws IOException {
+		integers(ref);
+		method.push(ref >> 1);
+		method.local(ILOAD, local);
+		method.op(IASTORE);
+		storeState(ref, Frame.DECLARED);
+	}
+
+	private void storeInteger(int ref, int value) throws IOException {
+		integers(ref);
+		method.push(ref >> 1);
+		method.push(value);
+		method.op(IASTORE);
+		storeState(ref, Frame.DECLARED);
+	}
+
+	private void storeState(int ref, int state) throws IOException {
+		states(ref);
+		method.push(ref >> 1);
+		method.push(state);
+		method.op(BASTORE);
+	}
+
+	private void storeString(int ref, String value) throws IOException {
+		strings(ref);
+		method.push(ref >> 1);
+		method.ldc(value);
+		method.op(AASTORE);
+	}
+
+	/**
+	 * Pushes the state of the integer.
+	 */
+	private void state(int ref) throws IOException {
+		states(ref);
+		method.push(ref >> 1);
+		method.op(BALOAD);
+	}
+
+	/**
+	 * Pushes the value of the string.
+	 */
+	private void string(int ref) throws IOException {
+		strings(ref);
+		method.push(ref >> 1);
+		method.op(AALOAD);
+	}
+
+	private void integers(int ref) {
+		method.local(ALOAD, (ref & 1) == 0 ? GLOBAL_INTEGERS : LOCAL_INTEGERS);
+	}
+
+	private void states(int ref) {
+		method.local(ALOAD, (ref & 1) == 0 ? GLOBAL_STATES : LOCAL_STATES);
+	}
+
+	private void strings(int ref) {
+		method.local(ALOAD, (ref & 1) == 0 ? GLOBAL_STRINGS : LOCAL_STRINGS);
+	}
+}
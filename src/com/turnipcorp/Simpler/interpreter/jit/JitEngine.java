@@ -0,0 +1,145 @@
+package com.turnipcorp.Simpler.interpreter.jit;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import com.turnipcorp.Simpler.interpreter.Frame;
+import com.turnipcorp.Simpler.interpreter.FramePool;
+import com.turnipcorp.Simpler.interpreter.LoopGuard;
+import com.turnipcorp.Simpler.interpreter.Output;
+import com.turnipcorp.Simpler.interpreter.vm.Chunk;
+import com.turnipcorp.Simpler.lang.InterpreterError;
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * Runs a program as a JVM class of its own, generated from its bytecode and loaded as a hidden class,
+ * so HotSpot compiles it like any other Java code.
+ * <br /> List of methods:
+ * <ul>
+ * <li> + run (MethodHandle, Chunk, Frame, FramePool, LoopGuard, Output) : void
+ * <li> + compile (Chunk) : MethodHandle
+ * <li> + compileRegion (Chunk, int, int, boolean) : MethodHandle
+ * <li> + newRegion (MethodHandle, Chunk, FramePool, LoopGuard, Output, MacroCaller) : JitRegion
+ * <li> - define (byte[]) : MethodHandle
+ * <li> - load (byte[]) : MethodHandles.Lookup
+ * </ul>
+ * @see JitCompiler
+ * @see com.turnipcorp.Simpler.interpreter.Engine#JIT
+ */
+public final class JitEngine {
+
+	/**
+	 * The type of the method of the program, of every macro and of every region: (globals, frame of the call, runtime, entry),
+	 * returning -1 or the LABEL line of a GOTO out of a region.
+	 */
+	static final MethodType TYPE = MethodType.methodType(int.class, Frame.class, Frame.class, JitRuntime.class, int.class);
+
+	/**
+	 * The type of the constructor of a region.
+	 */
+	private static final MethodType REGION = MethodType.methodType(JitRegion.class, JitRuntime.class);
+
+	/**
+	 * Static methods only
+	 */
+	private JitEngine() {}
+
+	/**
+	 * Runs a compiled program, the same method can run in many threads at once, each with its own memory.
+	 * @param program the method of the program, from compile
+	 * @param chunk the bytecode it was compiled from
+	 * @param globals the global variables
+	 * @param pool frames for the macro calls
+	 * @param guard charges the backward jumps to the budget
+	 * @param output where the program prints
+	 * @throws SimplerException Whenever a syntax error appears
+	 * @throws StackOverflowError When the budget runs out
+	 */
+	public static void run(MethodHandle program, Chunk chunk, Frame globals, FramePool pool, LoopGuard guard, Output output) throws SimplerException, StackOverflowError {
+		globals.ensureCapacity(chunk.getGlobalIntegers(), chunk.getGlobalStrings());
+		JitRuntime runtime = new JitRuntime(chunk, pool, guard, output, null);
+		try {
+			int end = (int) program.invokeExact(globals, (Frame) null, runtime, 0);
+		} catch (SimplerException | RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new InterpreterError("Compiled program failed: " + e);
+		} finally {
+			for (; runtime.calls > 0; runtime.calls--) pool.release();
+		}
+	}
+
+	/**
+	 * Generates and loads the class of a program.
+	 * @param chunk the bytecode of the program
+	 * @return the method of the program, null if it cannot be compiled
+	 */
+	public static MethodHandle compile(Chunk chunk) {
+		return define(JitCompiler.compile(chunk));
+	}
+
+	/**
+	 * Generates and loads the class of some lines of a program, for a caller that runs the other lines itself.
+	 * <br /> Like the class of a program, it can be run by many threads at once, each one with its own newRegion.
+	 * @param chunk the bytecode of the program
+	 * @param fromLine index of the first line
+	 * @param toLine index after the last line
+	 * @param loop whether the first line is a FOR that starts again from a given value
+	 * @return the constructor of the class, null if the lines cannot be compiled
+	 */
+	public static MethodHandle compileRegion(Chunk chunk, int fromLine, int toLine, boolean loop) {
+		MethodHandles.Lookup lookup = load(JitCompiler.compileRegion(chunk, fromLine, toLine, loop));
+		if (lookup == null) return null;
+		try {
+			return lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class, JitRuntime.class)).asType(REGION);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Makes compiled lines ready for one run.
+	 * @param region the constructor of the lines, from compileRegion
+	 * @param chunk the bytecode they were compiled from
+	 * @param pool frames for the macro calls
+	 * @param guard charges the backward jumps to the budget
+	 * @param output where the lines print
+	 * @param caller runs the CALLs of the lines
+	 * @return the lines of the run
+	 */
+	public static JitRegion newRegion(MethodHandle region, Chunk chunk, FramePool pool, LoopGuard guard, Output output, MacroCaller caller) {
+		try {
+			return (JitRegion) region.invokeExact(new JitRuntime(chunk, pool, guard, output, caller));
+		} catch (Throwable e) {
+			throw new InterpreterError("Compiled region failed: " + e);
+		}
+	}
+
+	/**
+	 * @param bytes a class file from the JitCompiler, or null
+	 * @return its method, null if there is none or it does not load
+	 */
+	private static MethodHandle define(byte[] bytes) {
+		MethodHandles.Lookup lookup = load(bytes);
+		if (lookup == null) return null;
+		try {
+			return lookup.findStatic(lookup.lookupClass(), JitCompiler.PROGRAM, TYPE);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @param bytes a class file from the JitCompiler, or null
+	 * @return the lookup of its hidden class, null if there is none or it does not load
+	 */
+	private static MethodHandles.Lookup load(byte[] bytes) {
+		if (bytes == null) return null;
+		try {
+			return MethodHandles.lookup().defineHiddenClass(bytes, true);
+		} catch (LinkageError | IllegalAccessException e) {
+			return null;
+		}
+	}
+}
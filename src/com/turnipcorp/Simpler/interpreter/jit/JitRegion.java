@@ -0,0 +1,36 @@
+package com.turnipcorp.Simpler.interpreter.jit;
+
+import com.turnipcorp.Simpler.interpreter.Frame;
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * Some lines of a program compiled to a JVM method, run in place of the same lines of the Interpreter.
+ * <br /> The class generated for the lines extends this one, so the Interpreter calls straight into the generated code:
+ * every macro call nested in regions takes only the frames of the call and of the lines from the stack of the thread.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> ~ runtime : JitRuntime
+ * </ul>
+ * @see JitEngine#newRegion(java.lang.invoke.MethodHandle, com.turnipcorp.Simpler.interpreter.vm.Chunk,
+ * com.turnipcorp.Simpler.interpreter.FramePool, com.turnipcorp.Simpler.interpreter.LoopGuard,
+ * com.turnipcorp.Simpler.interpreter.Output, MacroCaller)
+ */
+public abstract class JitRegion {
+
+	final JitRuntime runtime;
+
+	JitRegion(JitRuntime runtime) {
+		this.runtime = runtime;
+	}
+
+	/**
+	 * Runs the lines.
+	 * @param globals the global variables
+	 * @param frame the frame of the macro call the lines are in, null outside of macros
+	 * @param entry the value a region that starts with a FOR starts from, ignored otherwise
+	 * @return -1, or the LABEL line of a GOTO that jumped out of the lines
+	 * @throws SimplerException Whenever a syntax error appears
+	 * @throws StackOverflowError When the budget runs out
+	 */
+	public abstract int run(Frame globals, Frame frame, int entry) throws SimplerException, StackOverflowError;
+}
@@ -0,0 +1,127 @@
+package com.turnipcorp.Simpler.interpreter.jit;
+
+import com.turnipcorp.Simpler.interpreter.Frame;
+import com.turnipcorp.Simpler.interpreter.FramePool;
+import com.turnipcorp.Simpler.interpreter.LoopGuard;
+import com.turnipcorp.Simpler.interpreter.Output;
+import com.turnipcorp.Simpler.interpreter.vm.Chunk;
+import com.turnipcorp.Simpler.lang.InterpreterError;
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * What the generated code calls for everything that is not arithmetic: macro calls, printing and errors.
+ * <br /> The generated class is in this package, so it can use the package-private members.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> ~ guard : LoopGuard
+ * <li> ~ pool : FramePool
+ * <li> ~ chunk : Chunk
+ * <li> ~ output : Output
+ * <li> ~ defined : boolean[]
+ * <li> ~ failures : Throwable[]
+ * <li> ~ calls : int
+ * <li> ~ caller : MacroCaller
+ * </ul>
+ * @see JitCompiler
+ */
+final class JitRuntime {
+
+	final LoopGuard guard;
+	final FramePool pool;
+	final Chunk chunk;
+
+	/**
+	 * Where the generated code prints.
+	 */
+	final Output output;
+
+	/**
+	 * Whether the MACRO line of every macro has run.
+	 */
+	final boolean[] defined;
+
+	/**
+	 * The errors of the lines that can only fail.
+	 */
+	final Throwable[] failures;
+
+	/**
+	 * Number of frames taken out of the pool and not given back yet.
+	 */
+	int calls = 0;
+
+	/**
+	 * Runs the CALLs of the compiled regions, null for whole programs, the macros belong to whoever runs the rest of the program.
+	 */
+	final MacroCaller caller;
+
+	JitRuntime(Chunk chunk, FramePool pool, LoopGuard guard, Output output, MacroCaller caller) {
+		this.chunk = chunk;
+		this.pool = pool;
+		this.guard = guard;
+		this.output = output;
+		this.defined = new boolean[chunk.macroCount()];
+		this.failures = chunk.getFailures();
+		this.caller = caller;
+	}
+
+	/**
+	 * Starts a macro call.
+	 * @param macro the macro id
+	 * @param name the macro name, for the error
+	 * @return the frame of the call
+	 * @throws SimplerException When the MACRO line has not run yet
+	 */
+	Frame enter(int macro, String name) throws SimplerException {
+		if (!defined[macro]) throw new SimplerException("Macro " + name + " not found");
+		Frame frame = pool.acquire(chunk.getMacroIntegers(macro), chunk.getMacroStrings(macro));
+		calls++;
+		return frame;
+	}
+
+	void leave() {
+		pool.release();
+		calls--;
+	}
+
+	void printInteger(int[] integers, byte[] states, int slot, int endl) throws SimplerException {
+		if (states[slot] == Frame.DECLARED) output.print(Integer.toString(integers[slot]), endl == 1);
+		else if (states[slot] == Frame.NULL) output.print("null", endl == 1);
+		else throw new SimplerException("Variable (Function) name not found!");
+	}
+
+	void printString(String[] strings, int slot, int endl) throws SimplerException {
+		if (strings[slot] == null) throw new SimplerException("Variable (Function) name not found!");
+		output.print(strings[slot], endl == 1);
+	}
+
+	void print(String text, int endl) {
+		output.print(text, endl == 1);
+	}
+
+	void flush() {
+		output.flush();
+	}
+
+	static Throwable expectedNew() {
+		return new SimplerException("Expected new variable name!");
+	}
+
+	static Throwable expectedExisting() {
+		return new SimplerException("Expected existing variable name!");
+	}
+
+	static Throwable unknownToken(String name) {
+		return new InterpreterError("Syntax Error: Unknown token: " + name);
+	}
+
+	/**
+	 * @param state Frame.UNDECLARED or Frame.NULL
+	 * @param name the variable name
+	 * @return the error of an integer that cannot be changed
+	 */
+	static Throwable failInteger(byte state, String name) {
+		if (state == Frame.UNDECLARED) return unknownToken(name);
+		return expectedExisting();
+	}
+}
@@ -0,0 +1,19 @@
+package com.turnipcorp.Simpler.interpreter.jit;
+
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * Runs a macro for a compiled region, with the macros and the frames of the engine the region belongs to.
+ * @see JitEngine#newRegion(java.lang.invoke.MethodHandle, com.turnipcorp.Simpler.interpreter.vm.Chunk,
+ * com.turnipcorp.Simpler.interpreter.FramePool, com.turnipcorp.Simpler.interpreter.LoopGuard,
+ * com.turnipcorp.Simpler.interpreter.Output, MacroCaller)
+ */
+public interface MacroCaller {
+
+	/**
+	 * @param name the macro name, as written after CALL
+	 * @throws SimplerException When the macro does not exist or its code has a syntax error
+	 * @throws StackOverflowError When the calls are nested deeper than the budget allows
+	 */
+	void call(String name) throws SimplerException, StackOverflowError;
+}
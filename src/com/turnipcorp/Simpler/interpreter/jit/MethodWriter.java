@@ -0,0 +1,232 @@
+package com.turnipcorp.Simpler.interpreter.jit;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Assembles the code of one method, with forward and backward jumps to labels.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - owner : ClassWriter
+ * <li> - code : byte[]
+ * <li> - size : int
+ * <li> - labels : ArrayList[Integer]
+ * <li> - jumps : ArrayList[int[]]
+ * <li> - maxStack : int
+ * <li> - maxLocals : int
+ * </ul>
+ */
+final class MethodWriter {
+
+	static final int ACONST_NULL = 0x01;
+	static final int ICONST_0 = 0x03;
+	static final int BIPUSH = 0x10;
+	static final int SIPUSH = 0x11;
+	static final int LDC = 0x12;
+	static final int LDC_W = 0x13;
+	static final int ILOAD = 0x15;
+	static final int ALOAD = 0x19;
+	static final int IALOAD = 0x2e;
+	static final int AALOAD = 0x32;
+	static final int BALOAD = 0x33;
+	static final int ISTORE = 0x36;
+	static final int ASTORE = 0x3a;
+	static final int IASTORE = 0x4f;
+	static final int AASTORE = 0x53;
+	static final int BASTORE = 0x54;
+	static final int POP = 0x57;
+	static final int DUP = 0x59;
+	static final int DUP2 = 0x5c;
+	static final int IADD = 0x60;
+	static final int ISUB = 0x64;
+	static final int IMUL = 0x68;
+	static final int IDIV = 0x6c;
+	static final int I2D = 0x87;
+	static final int L2I = 0x88;
+	static final int IFEQ = 0x99;
+	static final int IFNE = 0x9a;
+	static final int IFLT = 0x9b;
+	static final int IFGE = 0x9c;
+	static final int IFGT = 0x9d;
+	static final int IFLE = 0x9e;
+	static final int IF_ICMPEQ = 0x9f;
+	static final int IF_ICMPNE = 0xa0;
+	static final int IF_ICMPLT = 0xa1;
+	static final int IF_ICMPGE = 0xa2;
+	static final int IF_ICMPGT = 0xa3;
+	static final int IF_ICMPLE = 0xa4;
+	static final int GOTO = 0xa7;
+	static final int IRETURN = 0xac;
+	static final int RETURN = 0xb1;
+	static final int GETFIELD = 0xb4;
+	static final int INVOKEVIRTUAL = 0xb6;
+	static final int INVOKESPECIAL = 0xb7;
+	static final int INVOKESTATIC = 0xb8;
+	static final int INVOKEINTERFACE = 0xb9;
+	static final int ATHROW = 0xbf;
+	static final int WIDE = 0xc4;
+	static final int IFNULL = 0xc6;
+	static final int IFNONNULL = 0xc7;
+
+	private final ClassWriter owner;
+	private byte[] code = new byte[256];
+	private int size = 0;
+
+	/**
+	 * Position of every label, -1 until it is marked.
+	 */
+	private final ArrayList<Integer> labels = new ArrayList<>();
+
+	/**
+	 * Branches to fill once every label is marked: {position of the opcode, label}.
+	 */
+	private final ArrayList<int[]> jumps = new ArrayList<>();
+
+	private final int maxStack;
+	private final int maxLocals;
+
+	/**
+	 * Constructor
+	 * @param owner The class the method is in, for its constants
+	 * @param maxStack deepest operand stack the code uses
+	 * @param maxLocals number of local variable slots, parameters included
+	 */
+	MethodWriter(ClassWriter owner, int maxStack, int maxLocals) {
+		this.owner = owner;
+		this.maxStack = maxStack;
+		this.maxLocals = maxLocals;
+	}
+
+	int getMaxStack() {
+		return maxStack;
+	}
+
+	int getMaxLocals() {
+		return maxLocals;
+	}
+
+	int newLabel() {
+		labels.add(-1);
+		return labels.size() - 1;
+	}
+
+	/**
+	 * Puts a label at the current position.
+	 */
+	void mark(int label) {
+		labels.set(label, size);
+	}
+
+	void op(int opcode) {
+		write(opcode);
+	}
+
+	/**
+	 * A branch, or a goto, to a label.
+	 */
+	void jump(int opcode, int label) {
+		jumps.add(new int[] {size, label});
+		write(opcode);
+		write(0);
+		write(0);
+	}
+
+	/**
+	 * Pushes an int constant with the shortest instruction.
+	 */
+	void push(int value) throws IOException {
+		if (value >= -1 && value <= 5) {
+			write(ICONST_0 + value);
+		} else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+			write(BIPUSH);
+			write(value);
+		} else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+			write(SIPUSH);
+			write(value >> 8);
+			write(value);
+		} else {
+			constant(owner.integer(value));
+		}
+	}
+
+	void ldc(String value) throws IOException {
+		constant(owner.string(value));
+	}
+
+	private void constant(int index) {
+		if (index < 256) {
+			write(LDC);
+			write(index);
+		} else {
+			write(LDC_W);
+			write(index >> 8);
+			write(index);
+		}
+	}
+
+	/**
+	 * ILOAD, ALOAD, ISTORE or ASTORE of a local variable.
+	 */
+	void local(int opcode, int index) {
+		if (index > 255) {
+			write(WIDE);
+			write(opcode);
+			write(index >> 8);
+			write(index);
+		} else {
+			write(opcode);
+			write(index);
+		}
+	}
+
+	void field(int opcode, String fieldOwner, String member, String descriptor) throws IOException {
+		int index = owner.fieldRef(fieldOwner, member, descriptor);
+		write(opcode);
+		write(index >> 8);
+		write(index);
+	}
+
+	void invoke(int opcode, String methodOwner, String member, String descriptor) throws IOException {
+		int index = owner.methodRef(methodOwner, member, descriptor);
+		write(opcode);
+		write(index >> 8);
+		write(index);
+	}
+
+	/**
+	 * An INVOKEINTERFACE, which also takes the number of argument slots, the object included.
+	 */
+	void invokeInterface(String methodOwner, String member, String descriptor, int argumentSlots) throws IOException {
+		int index = owner.interfaceMethodRef(methodOwner, member, descriptor);
+		write(INVOKEINTERFACE);
+		write(index >> 8);
+		write(index);
+		write(argumentSlots);
+		write(0);
+	}
+
+	/**
+	 * @return the code with every branch offset filled
+	 * @throws IOException When the method is too big for 16 bit branch offsets
+	 */
+	byte[] toByteArray() throws IOException {
+		if (size > Short.MAX_VALUE) throw new IOException("Method is too big");
+		for (int[] jump : jumps) {
+			int offset = labels.get(jump[1]) - jump[0];
+			code[jump[0] + 1] = (byte) (offset >> 8);
+			code[jump[0] + 2] = (byte) offset;
+		}
+		byte[] bytes = new byte[size];
+		System.arraycopy(code, 0, bytes, 0, size);
+		return bytes;
+	}
+
+	private void write(int value) {
+		if (size == code.length) {
+			byte[] newCode = new byte[code.length * 2];
+			System.arraycopy(code, 0, newCode, 0, size);
+			code = newCode;
+		}
+		code[size++] = (byte) value;
+	}
+}
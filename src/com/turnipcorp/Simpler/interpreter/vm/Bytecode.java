@@ -0,0 +1,154 @@
+package com.turnipcorp.Simpler.interpreter.vm;
+
+/**
+ * The opcodes of the Simpler++ virtual machine, each followed by a fixed number of int operands.
+ * <br /> Variables are registers: a ref is the slot shifted left once, with the lowest bit set when the slot is local to the macro call.
+ * <br /> Operands, in order:
+ * <ul>
+ * <li> HALT 0, the operand keeps every opcode at least two ints long
+ * <li> DECLARE_INT ref value / DECLARE_MUTABLE ref value state / DECLARE_STRING ref string
+ * <li> LOAD_CONST ref value name / STORE_STRING ref string name / CHECK_INT ref name
+ * <li> INC ref name / DEC ref name
+ * <li> ADD_CONST .. POW_CONST ref value name
+ * <li> ADD_SLOT .. POW_SLOT ref ref name, the operand token is the string after the name
+ * <li> PRINT_INT ref endl / PRINT_STRING ref endl / PRINT_CONST string endl
+ * <li> JMP target / JMP_BACK label target / LABEL label
+ * <li> JMP_IF_EQ .. JMP_IF_GE ref value target / JMP_IF_STRING ref (string &lt;&lt; 3 | comparison) target
+ * <li> FOR_INIT counter value / FOR_TEST counter last target / FOR_SET ref counter
+ * <li> FOR_NEXT counter increment last ref target / LOOP counter increment ref target, which also do the FOR_SET
+ * <li> DEFINE macro target / CALL macro name / RET
+ * <li> FAIL failure
+ * <li> FLUSH 0, the operand is there for the same reason as the one of HALT
+ * </ul>
+ * @see BytecodeCompiler
+ * @see VirtualMachine
+ */
+public final class Bytecode {
+
+	public static final int HALT = 0;
+	public static final int DECLARE_INT = 1;
+	public static final int DECLARE_MUTABLE = 2;
+	public static final int DECLARE_STRING = 3;
+	public static final int LOAD_CONST = 4;
+	public static final int STORE_STRING = 5;
+	public static final int CHECK_INT = 6;
+	public static final int INC = 7;
+	public static final int DEC = 8;
+	public static final int ADD_CONST = 9;
+	public static final int SUB_CONST = 10;
+	public static final int MUL_CONST = 11;
+	public static final int DIV_CONST = 12;
+	public static final int POW_CONST = 13;
+	public static final int ADD_SLOT = 14;
+	public static final int SUB_SLOT = 15;
+	public static final int MUL_SLOT = 16;
+	public static final int DIV_SLOT = 17;
+	public static final int POW_SLOT = 18;
+	public static final int PRINT_INT = 19;
+	public static final int PRINT_STRING = 20;
+	public static final int PRINT_CONST = 21;
+	public static final int JMP = 22;
+	public static final int JMP_BACK = 23;
+	public static final int LABEL = 24;
+	public static final int JMP_IF_EQ = 25;
+	public static final int JMP_IF_NE = 26;
+	public static final int JMP_IF_LT = 27;
+	public static final int JMP_IF_GT = 28;
+	public static final int JMP_IF_LE = 29;
+	public static final int JMP_IF_GE = 30;
+	public static final int JMP_IF_STRING = 31;
+	public static final int FOR_INIT = 32;
+	public static final int FOR_TEST = 33;
+	public static final int FOR_SET = 34;
+	public static final int FOR_NEXT = 35;
+	public static final int LOOP = 36;
+	public static final int DEFINE = 37;
+	public static final int CALL = 38;
+	public static final int RET = 39;
+	public static final int FAIL = 40;
+	public static final int FLUSH = 41;
+
+	/**
+	 * Comparisons, in the same order as JMP_IF_EQ .. JMP_IF_GE.
+	 */
+	public static final int EQ = 0;
+	public static final int NE = 1;
+	public static final int LT = 2;
+	public static final int GT = 3;
+	public static final int LE = 4;
+	public static final int GE = 5;
+
+	/**
+	 * Number of operands of every opcode.
+	 */
+	static final int[] OPERANDS = {
+		1, 2, 3, 2, 3, 3, 2, 2, 2,
+		3, 3, 3, 3, 3,
+		3, 3, 3, 3, 3,
+		2, 2, 2,
+		1, 2, 1,
+		3, 3, 3, 3, 3, 3, 3,
+		2, 3, 2, 5, 4,
+		2, 2, 0,
+		1, 1
+	};
+
+	/**
+	 * Name of every opcode, for the disassembly.
+	 */
+	static final String[] NAMES = {
+		"HALT", "DECLARE_INT", "DECLARE_MUTABLE", "DECLARE_STRING", "LOAD_CONST", "STORE_STRING", "CHECK_INT", "INC", "DEC",
+		"ADD_CONST", "SUB_CONST", "MUL_CONST", "DIV_CONST", "POW_CONST",
+		"ADD_SLOT", "SUB_SLOT", "MUL_SLOT", "DIV_SLOT", "POW_SLOT",
+		"PRINT_INT", "PRINT_STRING", "PRINT_CONST",
+		"JMP", "JMP_BACK", "LABEL",
+		"JMP_IF_EQ", "JMP_IF_NE", "JMP_IF_LT", "JMP_IF_GT", "JMP_IF_LE", "JMP_IF_GE", "JMP_IF_STRING",
+		"FOR_INIT", "FOR_TEST", "FOR_SET", "FOR_NEXT", "LOOP",
+		"DEFINE", "CALL", "RET",
+		"FAIL", "FLUSH"
+	};
+
+	/**
+	 * Constants only
+	 */
+	private Bytecode() {}
+
+	/**
+	 * @param opcode an opcode
+	 * @return the number of ints after it
+	 */
+	public static int operands(int opcode) {
+		return OPERANDS[opcode];
+	}
+
+	/**
+	 * @param operator the operator of an IF
+	 * @return the matching comparison, -1 if there is none
+	 */
+	public static int comparisonOf(String operator) {
+		switch (operator) {
+			case "==": return EQ;
+			case "!=": return NE;
+			case "<": return LT;
+			case ">": return GT;
+			case "<=": return LE;
+			case ">=": return GE;
+			default: return -1;
+		}
+	}
+
+	/**
+	 * @param comparison a comparison
+	 * @return the comparison that holds exactly when the given one does not
+	 */
+	public static int negate(int comparison) {
+		switch (comparison) {
+			case EQ: return NE;
+			case NE: return EQ;
+			case LT: return GE;
+			case GT: return LE;
+			case LE: return GT;
+			default: return LT;
+		}
+	}
+}
@@ -0,0 +1,428 @@
+package com.turnipcorp.Simpler.interpreter.vm;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import com.turnipcorp.Simpler.interpreter.Frame;
+import com.turnipcorp.Simpler.interpreter.Instruction;
+import com.turnipcorp.Simpler.interpreter.Opcode;
+import com.turnipcorp.Simpler.interpreter.SymbolTable;
+import com.turnipcorp.Simpler.lang.InterpreterError;
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * Lowers a compiled program to bytecode for the VirtualMachine, in one pass over its lines plus one to patch the jumps.
+ * <br /> Every FOR gets a hidden counter slot after the variables of its scope, so the body cannot change how often it runs,
+ * like in the Interpreter. Lines that can only fail become FAIL, so they throw when they are reached and not before.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - program : Instruction[]
+ * <li> - symbols : SymbolTable
+ * <li> - code : int[]
+ * <li> - size : int
+ * <li> - lineAddresses : int[]
+ * <li> - patches : ArrayList[int[]]
+ * <li> - strings : ArrayList[String]
+ * <li> - constants : HashMap[String, Integer]
+ * <li> - failures : ArrayList[Throwable]
+ * <li> - macroIds : HashMap[String, Integer]
+ * <li> - macroNames : ArrayList[String]
+ * <li> - macroCounters : ArrayList[Integer]
+ * <li> - globalCounters : int
+ * <li> - macroOf : int[]
+ * <li> - counters : int[]
+ * <li> - tops : int[]
+ * <li> - failed : boolean[]
+ * </ul>
+ * @see Bytecode
+ */
+public final class BytecodeCompiler {
+
+	private final Instruction[] program;
+	private final SymbolTable symbols;
+
+	/**
+	 * The bytecode so far, and how much of it is used.
+	 */
+	private int[] code = new int[64];
+	private int size = 0;
+
+	/**
+	 * Address of the first opcode of every line, and of the final HALT.
+	 */
+	private final int[] lineAddresses;
+
+	/**
+	 * Jump operands to fill once every line has an address: {operand index, line}.
+	 */
+	private final ArrayList<int[]> patches = new ArrayList<>();
+
+	private final ArrayList<String> strings = new ArrayList<>();
+
+	/**
+	 * Index of every string in strings, so each literal is stored once.
+	 */
+	private final HashMap<String, Integer> constants = new HashMap<>();
+	private final ArrayList<Throwable> failures = new ArrayList<>();
+	private final HashMap<String, Integer> macroIds = new HashMap<>();
+	private final ArrayList<String> macroNames = new ArrayList<>();
+
+	/**
+	 * Number of loop counters of every macro.
+	 */
+	private final ArrayList<Integer> macroCounters = new ArrayList<>();
+
+	/**
+	 * Number of loop counters outside of macros.
+	 */
+	private int globalCounters = 0;
+
+	/**
+	 * The MACRO line every line is in, -1 outside of macros.
+	 */
+	private final int[] macroOf;
+
+	/**
+	 * The counter ref and the address of the body of every FOR, indexed by line.
+	 */
+	private final int[] counters;
+	private final int[] tops;
+
+	/**
+	 * Whether the IF or FOR of the line became a FAIL, so its END emits nothing.
+	 */
+	private final boolean[] failed;
+
+	private BytecodeCompiler(Instruction[] program, SymbolTable symbols) {
+		this.program = program;
+		this.symbols = symbols;
+		this.lineAddresses = new int[program.length + 1];
+		this.macroOf = new int[program.length];
+		this.counters = new int[program.length];
+		this.tops = new int[program.length];
+		this.failed = new boolean[program.length];
+	}
+
+	/**
+	 * Lowers a whole program.
+	 * @param program the compiled program
+	 * @param symbols the table the program was compiled with
+	 * @return the bytecode of the program
+	 */
+	public static Chunk compile(Instruction[] program, SymbolTable symbols) {
+		return new BytecodeCompiler(program, symbols).lower();
+	}
+
+	private Chunk lower() {
+		int macro = -1;
+		for (int line = 0; line < program.length; line++) {
+			macroOf[line] = macro;
+			switch (program[line].getOpcode()) {
+				case MACRO: {
+					macro = line;
+					break;
+				} case END: {
+					if (program[line].getToken(1).equals("MACRO")) macro = macroOf[program[line].getTarget()];
+					break;
+				} default: {
+					break;
+				}
+			}
+		}
+		for (int line = 0; line < program.length; line++) {
+			lineAddresses[line] = size;
+			try {
+				lowerLine(line);
+			} catch (RuntimeException e) {
+				size = lineAddresses[line];
+				fail(e);
+				failed[line] = true;
+			}
+		}
+		lineAddresses[program.length] = size;
+		emit(Bytecode.HALT, 0);
+		for (int[] patch : patches) code[patch[0]] = lineAddresses[patch[1]];
+		int[] macroIntegers = new int[macroNames.size()];
+		int[] macroStrings = new int[macroNames.size()];
+		for (int id = 0; id < macroNames.size(); id++) {
+			SymbolTable scope = symbols.macroScope(macroNames.get(id));
+			macroIntegers[id] = scope.integerCount() + macroCounters.get(id);
+			macroStrings[id] = scope.stringCount();
+		}
+		int[] bytecode = new int[size];
+		System.arraycopy(code, 0, bytecode, 0, size);
+		return new Chunk(bytecode, strings.toArray(new String[0]), failures.toArray(new Throwable[0]),
+				symbols.integerCount() + globalCounters, symbols.stringCount(), macroIntegers, macroStrings, lineAddresses);
+	}
+
+	/**
+	 * Emits the bytecode of a line.
+	 * @param line index of the line
+	 * @throws NumberFormatException When a value of the line is not a number
+	 */
+	private void lowerLine(int line) throws NumberFormatException {
+		Instruction instruction = program[line];
+		String[] tokens = instruction.getTokens();
+		int ref = ref(instruction.getSlot(), instruction.isLocal());
+		switch (instruction.getOpcode()) {
+			case INT: {
+				if (!tokens[2].equals("=")) fail(new SimplerException("Expected '=' sign!"));
+				else if (instruction.isNumeric(1)) fail(new SimplerException("Expected valid variable name!"));
+				else emit(Bytecode.DECLARE_INT, ref, instruction.getLiteral(3));
+				break;
+			} case MUTABLE: {
+				if (tokens.length > 3) emit(Bytecode.DECLARE_MUTABLE, ref, instruction.getLiteral(4), Frame.DECLARED);
+				else emit(Bytecode.DECLARE_MUTABLE, ref, 0, Frame.NULL);
+				break;
+			} case STRING: {
+				emit(Bytecode.DECLARE_STRING, ref, constant(tokens[3]));
+				break;
+			} case PRINTVAR: {
+				int endl = tokens[tokens.length - 1].equals("endl") ? 1 : 0;
+				switch (instruction.getStorage()) {
+					case INT: case MUTABLE: {
+						emit(Bytecode.PRINT_INT, ref, endl);
+						break;
+					} case STRING: {
+						emit(Bytecode.PRINT_STRING, ref, endl);
+						break;
+					} default: {
+						fail(new SimplerException("Variable (Function) name not found!"));
+					}
+				}
+				break;
+			} case PRINTSTR: {
+				emit(Bytecode.PRINT_CONST, constant(tokens[1]), tokens[2].equals("endl") ? 1 : 0);
+				break;
+			} case IF: {
+				lowerIf(instruction, ref);
+				break;
+			} case FOR: {
+				lowerFor(line, instruction, ref);
+				break;
+			} case MACRO: {
+				emit(Bytecode.DEFINE, macroId(tokens[1]), 0);
+				patch(instruction.getTarget() + 1);
+				break;
+			} case CALL: {
+				emit(Bytecode.CALL, macroId(tokens[1]), constant(tokens[1]));
+				break;
+			} case LABEL: {
+				emit(Bytecode.LABEL, instruction.getSlot());
+				break;
+			} case GOTO: {
+				lowerGoto(line, instruction);
+				break;
+			} case END: {
+				lowerEnd(instruction);
+				break;
+			} case COMMENT: {
+				break;
+			} case FLUSH: {
+				emit(Bytecode.FLUSH, 0);
+				break;
+			} default: {
+				lowerAssign(instruction, ref);
+			}
+		}
+	}
+
+	/**
+	 * Jumps past the END IF when the negated comparison holds.
+	 */
+	private void lowerIf(Instruction instruction, int ref) {
+		String[] tokens = instruction.getTokens();
+		int comparison = Bytecode.comparisonOf(tokens[2]);
+		if (instruction.getSlot() == -1 || comparison == -1) {
+			fail(new SimplerException(comparison == -1 ? "Unknown operator!" : "Expected existing variable name!"));
+			failed[instruction.getLineNumber()] = true;
+			return;
+		}
+		if (tokens[3].equals("int")) emit(Bytecode.JMP_IF_EQ + Bytecode.negate(comparison), ref, instruction.getLiteral(4), 0);
+		else emit(Bytecode.JMP_IF_STRING, ref, constant(tokens[4]) << 3 | Bytecode.negate(comparison), 0);
+		patch(instruction.getTarget() + 1);
+	}
+
+	/**
+	 * FOR_INIT, FOR_TEST unless it runs forever, then FOR_SET for the first repetition.
+	 * The END FOR emits FOR_NEXT or LOOP, which set the variable of the next repetition and jump back after the FOR_SET.
+	 */
+	private void lowerFor(int line, Instruction instruction, int ref) throws NumberFormatException {
+		int increment = instruction.tokenCount() > 6 ? instruction.getLiteral(7) : 1;
+		boolean infinite = instruction.getToken(5).equals("NaN");
+		int last = infinite ? 0 : instruction.getLiteral(5);
+		int counter = counter(line);
+		emit(Bytecode.FOR_INIT, counter, instruction.getLiteral(3));
+		if (!infinite) {
+			emit(Bytecode.FOR_TEST, counter, last, 0);
+			patch(instruction.getTarget() + 1);
+		}
+		counters[line] = counter;
+		emit(Bytecode.FOR_SET, ref, counter);
+		tops[line] = size;
+	}
+
+	private void lowerEnd(Instruction instruction) {
+		int opener = instruction.getTarget();
+		if (failed[opener]) return;
+		switch (instruction.getToken(1)) {
+			case "FOR": {
+				Instruction loop = program[opener];
+				int increment = loop.tokenCount() > 6 ? loop.getLiteral(7) : 1;
+				int ref = ref(loop.getSlot(), loop.isLocal());
+				if (loop.getToken(5).equals("NaN")) emit(Bytecode.LOOP, counters[opener], increment, ref, tops[opener]);
+				else emit(Bytecode.FOR_NEXT, counters[opener], increment, loop.getLiteral(5), ref, tops[opener]);
+				break;
+			} case "MACRO": {
+				emit(Bytecode.RET);
+				break;
+			} default: {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * A GOTO can leave blocks, but not enter a FOR or a macro, or leave a macro.
+	 */
+	private void lowerGoto(int line, Instruction instruction) {
+		int target = instruction.getTarget();
+		if (target == -1) {
+			fail(new SimplerException("Label " + instruction.getToken(1) + " not found"));
+		} else if (macroOf[line] != -1 && macroOf[target] != macroOf[line]) {
+			fail(new SimplerException("Cannot GOTO out of macro " + program[macroOf[line]].getToken(1)));
+		} else if (macroOf[target] != macroOf[line] || entersLoop(line, target)) {
+			fail(new SimplerException("Cannot GOTO into a block"));
+		} else if (target <= line) {
+			emit(Bytecode.JMP_BACK, instruction.getSlot(), 0);
+			patch(target + 1);
+		} else {
+			emit(Bytecode.JMP, 0);
+			patch(target + 1);
+		}
+	}
+
+	/**
+	 * @return whether the target is in the body of a FOR the line is not in
+	 */
+	private boolean entersLoop(int line, int target) {
+		for (int opener = 0; opener < target; opener++) {
+			if (program[opener].getOpcode() != Opcode.FOR) continue;
+			int end = program[opener].getTarget();
+			if (target < end && (line <= opener || line >= end)) return true;
+		}
+		return false;
+	}
+
+	private void lowerAssign(Instruction instruction, int ref) throws NumberFormatException {
+		String[] tokens = instruction.getTokens();
+		switch (instruction.getStorage()) {
+			case STRING: {
+				if (tokens[1].equals("=")) emit(Bytecode.STORE_STRING, ref, constant(tokens[2]), constant(tokens[0]));
+				else fail(new SimplerException("Expected '=' sign!"));
+				return;
+			} case MUTABLE: {
+				if (tokens[1].equals("=")) {
+					emit(Bytecode.LOAD_CONST, ref, instruction.getLiteral(2), constant(tokens[0]));
+					return;
+				}
+				break;
+			} case INT: {
+				break;
+			} default: {
+				fail(new InterpreterError("Syntax Error: Unknown token: " + tokens[0]));
+				return;
+			}
+		}
+		int arithmetic;
+		switch (tokens[1]) {
+			case "++": {
+				emit(Bytecode.INC, ref, constant(tokens[0]));
+				return;
+			} case "--": {
+				emit(Bytecode.DEC, ref, constant(tokens[0]));
+				return;
+			}
+			case "+=": arithmetic = 0; break;
+			case "-=": arithmetic = 1; break;
+			case "*=": arithmetic = 2; break;
+			case "/=": arithmetic = 3; break;
+			case "**=": arithmetic = 4; break;
+			default: {
+				emit(Bytecode.CHECK_INT, ref, constant(tokens[0]));
+				fail(new SimplerException("Unknown operator!"));
+				return;
+			}
+		}
+		if (instruction.getOperandSlot() != -1) {
+			emit(Bytecode.ADD_SLOT + arithmetic, ref, ref(instruction.getOperandSlot(), instruction.isOperandLocal()), pair(tokens[0], tokens[2]));
+		} else {
+			emit(Bytecode.ADD_CONST + arithmetic, ref, instruction.getLiteral(2), constant(tokens[0]));
+		}
+	}
+
+	/**
+	 * @return a ref to a new loop counter in the scope of the line
+	 */
+	private int counter(int line) {
+		if (macroOf[line] == -1) return ref(symbols.integerCount() + globalCounters++, false);
+		String name = program[macroOf[line]].getToken(1);
+		int id = macroId(name);
+		int slot = symbols.macroScope(name).integerCount() + macroCounters.get(id);
+		macroCounters.set(id, macroCounters.get(id) + 1);
+		return ref(slot, true);
+	}
+
+	private static int ref(int slot, boolean local) {
+		return slot << 1 | (local ? 1 : 0);
+	}
+
+	private int macroId(String name) {
+		Integer id = macroIds.get(name);
+		if (id == null) {
+			macroIds.put(name, id = macroNames.size());
+			macroNames.add(name);
+			macroCounters.add(0);
+		}
+		return id;
+	}
+
+	private int constant(String value) {
+		Integer index = constants.get(value);
+		if (index == null) {
+			constants.put(value, index = strings.size());
+			strings.add(value);
+		}
+		return index;
+	}
+
+	/**
+	 * @return index of two strings stored next to each other
+	 */
+	private int pair(String first, String second) {
+		strings.add(first);
+		strings.add(second);
+		return strings.size() - 2;
+	}
+
+	private void fail(Throwable error) {
+		failures.add(error);
+		emit(Bytecode.FAIL, failures.size() - 1);
+	}
+
+	/**
+	 * Fills the last operand with the address of a line once it is known.
+	 */
+	private void patch(int line) {
+		patches.add(new int[] {size - 1, line});
+	}
+
+	private void emit(int... values) {
+		if (size + values.length > code.length) {
+			int[] newCode = new int[Math.max(code.length * 2, size + values.length)];
+			System.arraycopy(code, 0, newCode, 0, size);
+			code = newCode;
+		}
+		for (int value : values) code[size++] = value;
+	}
+}
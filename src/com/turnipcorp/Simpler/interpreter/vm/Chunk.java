@@ -0,0 +1,142 @@
+package com.turnipcorp.Simpler.interpreter.vm;
+
+/**
+ * A program lowered to bytecode, with everything the VirtualMachine needs besides memory.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> ~ code : int[]
+ * <li> ~ strings : String[]
+ * <li> ~ failures : Throwable[]
+ * <li> ~ globalIntegers : int
+ * <li> ~ globalStrings : int
+ * <li> ~ macroIntegers : int[]
+ * <li> ~ macroStrings : int[]
+ * <li> ~ lineAddresses : int[]
+ * </ul>
+ * @see BytecodeCompiler#compile(com.turnipcorp.Simpler.interpreter.Instruction[], com.turnipcorp.Simpler.interpreter.SymbolTable)
+ */
+public final class Chunk {
+
+	/**
+	 * The opcodes and their operands.
+	 */
+	final int[] code;
+
+	/**
+	 * String literals, and the names used in error messages.
+	 */
+	final String[] strings;
+
+	/**
+	 * The errors of the lines that can only fail, thrown by FAIL.
+	 */
+	final Throwable[] failures;
+
+	/**
+	 * Integer slots of the globals, loop counters included.
+	 */
+	final int globalIntegers;
+	final int globalStrings;
+
+	/**
+	 * Size of the frame of every call, indexed by macro.
+	 */
+	final int[] macroIntegers;
+	final int[] macroStrings;
+
+	/**
+	 * Address of the first opcode of every line, and the address after the last line.
+	 */
+	final int[] lineAddresses;
+
+	Chunk(int[] code, String[] strings, Throwable[] failures, int globalIntegers, int globalStrings, int[] macroIntegers, int[] macroStrings,
+			int[] lineAddresses) {
+		this.code = code;
+		this.strings = strings;
+		this.failures = failures;
+		this.globalIntegers = globalIntegers;
+		this.globalStrings = globalStrings;
+		this.macroIntegers = macroIntegers;
+		this.macroStrings = macroStrings;
+		this.lineAddresses = lineAddresses;
+	}
+
+	/**
+	 * @return number of ints in the code
+	 */
+	public int size() {
+		return code.length;
+	}
+
+	/**
+	 * @return the code itself, not a copy, so it must not be changed
+	 */
+	public int[] getCode() {
+		return code;
+	}
+
+	public String getString(int index) {
+		return strings[index];
+	}
+
+	public Throwable[] getFailures() {
+		return failures;
+	}
+
+	public int getGlobalIntegers() {
+		return globalIntegers;
+	}
+
+	public int getGlobalStrings() {
+		return globalStrings;
+	}
+
+	public int macroCount() {
+		return macroIntegers.length;
+	}
+
+	public int getMacroIntegers(int macro) {
+		return macroIntegers[macro];
+	}
+
+	public int getMacroStrings(int macro) {
+		return macroStrings[macro];
+	}
+
+	/**
+	 * @param line index of a line, or the number of lines for the end of the program
+	 * @return the address of the first opcode of the line
+	 */
+	public int getLineAddress(int line) {
+		return lineAddresses[line];
+	}
+
+	/**
+	 * Lines that emit nothing share the address of the next line, a jump to that address skips all of them.
+	 * @param address the target of a jump
+	 * @return the line a jump to the address continues after, like the LABEL line of a GOTO
+	 */
+	public int lineBefore(int address) {
+		int low = 0, high = lineAddresses.length - 1;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (lineAddresses[middle] < address) low = middle + 1;
+			else high = middle;
+		}
+		return low - 1;
+	}
+
+	/**
+	 * @return one opcode per line, with its address and operands
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (int pc = 0; pc < code.length; pc += 1 + Bytecode.OPERANDS[code[pc]]) {
+			builder.append(pc).append('\t').append(Bytecode.NAMES[code[pc]]);
+			for (int i = 1; i <= Bytecode.OPERANDS[code[pc]]; i++) builder.append(' ').append(code[pc + i]);
+			builder.append('\n');
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,325 @@
+package com.turnipcorp.Simpler.interpreter.vm;
+
+import com.turnipcorp.Simpler.interpreter.Frame;
+import com.turnipcorp.Simpler.interpreter.FramePool;
+import com.turnipcorp.Simpler.interpreter.LoopGuard;
+import com.turnipcorp.Simpler.interpreter.Output;
+import com.turnipcorp.Simpler.lang.InterpreterError;
+import com.turnipcorp.Simpler.lang.SimplerException;
+
+/**
+ * Runs bytecode in a single switch loop. Macro calls push a return address instead of recursing.
+ * <br /> The memory, the frame pool, the loop guard and the output are the ones of the Interpreter, so every engine behaves the same.
+ * <br /> List of methods:
+ * <ul>
+ * <li> + run (Chunk, Frame, FramePool, LoopGuard, Output) : void
+ * <li> - failInteger (byte, String) : void
+ * <li> - operandOf (String) : int
+ * <li> - holds (int, int) : boolean
+ * </ul>
+ * @see Bytecode
+ * @see com.turnipcorp.Simpler.interpreter.Engine#VM
+ */
+public final class VirtualMachine {
+
+	/**
+	 * Static methods only
+	 */
+	private VirtualMachine() {}
+
+	/**
+	 * Runs a chunk until its HALT.
+	 * @param chunk the lowered program
+	 * @param globals the global variables, grown to fit the loop counters
+	 * @param pool frames for the macro calls
+	 * @param guard charges the backward jumps to the budget
+	 * @param output where the program prints
+	 * @throws SimplerException Whenever a syntax error appears
+	 * @throws StackOverflowError When the budget runs out
+	 */
+	public static void run(Chunk chunk, Frame globals, FramePool pool, LoopGuard guard, Output output) throws SimplerException, StackOverflowError {
+		int[] code = chunk.code;
+		String[] strings = chunk.strings;
+		globals.ensureCapacity(chunk.globalIntegers, chunk.globalStrings);
+		int[] globalIntegers = globals.integers, localIntegers = null;
+		byte[] globalStates = globals.states, localStates = null;
+		String[] globalStrings = globals.strings, localStrings = null;
+		Frame frame = null;
+		int[] macros = new int[chunk.macroIntegers.length];
+		for (int i = 0; i < macros.length; i++) macros[i] = -1;
+		int[] returns = new int[16];
+		Frame[] callers = new Frame[16];
+		int calls = 0;
+		int pc = 0;
+		try {
+			while (true) {
+				int op = code[pc];
+				int a = code[pc + 1];
+				int slot = a >> 1;
+				int[] integers = (a & 1) == 0 ? globalIntegers : localIntegers;
+				byte[] states = (a & 1) == 0 ? globalStates : localStates;
+				switch (op) {
+					case Bytecode.HALT: {
+						return;
+					} case Bytecode.DECLARE_INT: {
+						if (states[slot] != Frame.UNDECLARED) throw new SimplerException("Expected new variable name!");
+						integers[slot] = code[pc + 2];
+						states[slot] = Frame.DECLARED;
+						pc += 3;
+						break;
+					} case Bytecode.DECLARE_MUTABLE: {
+						if (code[pc + 3] == Frame.DECLARED) integers[slot] = code[pc + 2];
+						states[slot] = (byte) code[pc + 3];
+						pc += 4;
+						break;
+					} case Bytecode.DECLARE_STRING: {
+						String[] memory = (a & 1) == 0 ? globalStrings : localStrings;
+						if (memory[slot] != null) throw new SimplerException("Expected new variable name!");
+						memory[slot] = strings[code[pc + 2]];
+						pc += 3;
+						break;
+					} case Bytecode.LOAD_CONST: {
+						if (states[slot] == Frame.UNDECLARED) throw new InterpreterError("Syntax Error: Unknown token: " + strings[code[pc + 3]]);
+						integers[slot] = code[pc + 2];
+						states[slot] = Frame.DECLARED;
+						pc += 4;
+						break;
+					} case Bytecode.STORE_STRING: {
+						String[] memory = (a & 1) == 0 ? globalStrings : localStrings;
+						if (memory[slot] == null) throw new InterpreterError("Syntax Error: Unknown token: " + strings[code[pc + 3]]);
+						memory[slot] = strings[code[pc + 2]];
+						pc += 4;
+						break;
+					} case Bytecode.CHECK_INT: {
+						if (states[slot] != Frame.DECLARED) failInteger(states[slot], strings[code[pc + 2]]);
+						pc += 3;
+						break;
+					} case Bytecode.INC: {
+						if (states[slot] != Frame.DECLARED) failInteger(states[slot], strings[code[pc + 2]]);
+						integers[slot]++;
+						pc += 3;
+						break;
+					} case Bytecode.DEC: {
+						if (states[slot] != Frame.DECLARED) failInteger(states[slot], strings[code[pc + 2]]);
+						integers[slot]--;
+						pc += 3;
+						break;
+					} case Bytecode.ADD_CONST: {
+						if (states[slot] != Frame.DECLARED) failInteger(states[slot], strings[code[pc + 3]]);
+						integers[slot] += code[pc + 2];
+						pc += 4;
+						break;
+					} case Bytecode.SUB_CONST: {
+						if (states[slot] != Frame.DECLARED) failInteger(states[slot], strings[code[pc + 3]]);
+						integers[slot] -= code[pc + 2];
+						pc += 4;
+						break;
+					} case Bytecode.MUL_CONST: {
+						if (states[slot] != Frame.DECLARED) failInteger(states[slot], strings[code[pc + 3]]);
+						integers[slot] *= code[pc + 2];
+						pc += 4;
+						break;
+					} case Bytecode.DIV_CONST: {
+						if (states[slot] != Frame.DECLARED) failInteger(states[slot], strings[code[pc + 3]]);
+						integers[slot] /= code[pc + 2];
+						pc += 4;
+						break;
+					} case Bytecode.POW_CONST: {
+						if (states[slot] != Frame.DECLARED) failInteger(states[slot], strings[code[pc + 3]]);
+						integers[slot] = (int) Math.round(Math.pow(integers[slot], code[pc + 2]));
+						pc += 4;
+						break;
+					} case Bytecode.ADD_SLOT: case Bytecode.SUB_SLOT: case Bytecode.MUL_SLOT: case Bytecode.DIV_SLOT: case Bytecode.POW_SLOT: {
+						if (states[slot] != Frame.DECLARED) failInteger(states[slot], strings[code[pc + 3]]);
+						int b = code[pc + 2];
+						int operand;
+						if (((b & 1) == 0 ? globalStates : localStates)[b >> 1] == Frame.DECLARED) operand = ((b & 1) == 0 ? globalIntegers : localIntegers)[b >> 1];
+						else operand = operandOf(strings[code[pc + 3] + 1]);
+						switch (op) {
+							case Bytecode.ADD_SLOT: integers[slot] += operand; break;
+							case Bytecode.SUB_SLOT: integers[slot] -= operand; break;
+							case Bytecode.MUL_SLOT: integers[slot] *= operand; break;
+							case Bytecode.DIV_SLOT: integers[slot] /= operand; break;
+							default: integers[slot] = (int) Math.round(Math.pow(integers[slot], operand));
+						}
+						pc += 4;
+						break;
+					} case Bytecode.PRINT_INT: {
+						if (states[slot] == Frame.DECLARED) output.print(Integer.toString(integers[slot]), code[pc + 2] == 1);
+						else if (states[slot] == Frame.NULL) output.print("null", code[pc + 2] == 1);
+						else throw new SimplerException("Variable (Function) name not found!");
+						pc += 3;
+						break;
+					} case Bytecode.PRINT_STRING: {
+						String value = ((a & 1) == 0 ? globalStrings : localStrings)[slot];
+						if (value == null) throw new SimplerException("Variable (Function) name not found!");
+						output.print(value, code[pc + 2] == 1);
+						pc += 3;
+						break;
+					} case Bytecode.PRINT_CONST: {
+						output.print(strings[a], code[pc + 2] == 1);
+						pc += 3;
+						break;
+					} case Bytecode.JMP: {
+						pc = a;
+						break;
+					} case Bytecode.JMP_BACK: {
+						guard.backwardJump(a);
+						pc = code[pc + 2];
+						break;
+					} case Bytecode.LABEL: {
+						guard.resetLabel(a);
+						pc += 2;
+						break;
+					} case Bytecode.JMP_IF_EQ: {
+						if (states[slot] != Frame.DECLARED) throw new SimplerException("Expected existing variable name!");
+						pc = integers[slot] == code[pc + 2] ? code[pc + 3] : pc + 4;
+						break;
+					} case Bytecode.JMP_IF_NE: {
+						if (states[slot] != Frame.DECLARED) throw new SimplerException("Expected existing variable name!");
+						pc = integers[slot] != code[pc + 2] ? code[pc + 3] : pc + 4;
+						break;
+					} case Bytecode.JMP_IF_LT: {
+						if (states[slot] != Frame.DECLARED) throw new SimplerException("Expected existing variable name!");
+						pc = integers[slot] < code[pc + 2] ? code[pc + 3] : pc + 4;
+						break;
+					} case Bytecode.JMP_IF_GT: {
+						if (states[slot] != Frame.DECLARED) throw new SimplerException("Expected existing variable name!");
+						pc = integers[slot] > code[pc + 2] ? code[pc + 3] : pc + 4;
+						break;
+					} case Bytecode.JMP_IF_LE: {
+						if (states[slot] != Frame.DECLARED) throw new SimplerException("Expected existing variable name!");
+						pc = integers[slot] <= code[pc + 2] ? code[pc + 3] : pc + 4;
+						break;
+					} case Bytecode.JMP_IF_GE: {
+						if (states[slot] != Frame.DECLARED) throw new SimplerException("Expected existing variable name!");
+						pc = integers[slot] >= code[pc + 2] ? code[pc + 3] : pc + 4;
+						break;
+					} case Bytecode.JMP_IF_STRING: {
+						String value = ((a & 1) == 0 ? globalStrings : localStrings)[slot];
+						if (value == null) throw new SimplerException("Expected existing variable name!");
+						int b = code[pc + 2];
+						if (holds(b & 7, value.compareTo(strings[b >> 3]))) pc = code[pc + 3];
+						else pc += 4;
+						break;
+					} case Bytecode.FOR_INIT: {
+						integers[slot] = code[pc + 2];
+						pc += 3;
+						break;
+					} case Bytecode.FOR_TEST: {
+						if (integers[slot] > code[pc + 2]) pc = code[pc + 3];
+						else pc += 4;
+						break;
+					} case Bytecode.FOR_SET: {
+						int b = code[pc + 2];
+						integers[slot] = ((b & 1) == 0 ? globalIntegers : localIntegers)[b >> 1];
+						states[slot] = Frame.DECLARED;
+						pc += 3;
+						break;
+					} case Bytecode.FOR_NEXT: {
+						int i = integers[slot] += code[pc + 2];
+						if (i > code[pc + 3]) {
+							pc += 6;
+							break;
+						}
+						guard.backwardJump(-1);
+						int b = code[pc + 4];
+						((b & 1) == 0 ? globalIntegers : localIntegers)[b >> 1] = i;
+						((b & 1) == 0 ? globalStates : localStates)[b >> 1] = Frame.DECLARED;
+						pc = code[pc + 5];
+						break;
+					} case Bytecode.LOOP: {
+						int i = integers[slot] += code[pc + 2];
+						guard.backwardJump(-1);
+						int b = code[pc + 3];
+						((b & 1) == 0 ? globalIntegers : localIntegers)[b >> 1] = i;
+						((b & 1) == 0 ? globalStates : localStates)[b >> 1] = Frame.DECLARED;
+						pc = code[pc + 4];
+						break;
+					} case Bytecode.DEFINE: {
+						macros[a] = pc + 3;
+						pc = code[pc + 2];
+						break;
+					} case Bytecode.CALL: {
+						if (macros[a] == -1) throw new SimplerException("Macro " + strings[code[pc + 2]] + " not found");
+						Frame callee = pool.acquire(chunk.macroIntegers[a], chunk.macroStrings[a]);
+						if (calls == returns.length) {
+							int[] newReturns = new int[calls * 2];
+							Frame[] newCallers = new Frame[calls * 2];
+							System.arraycopy(returns, 0, newReturns, 0, calls);
+							System.arraycopy(callers, 0, newCallers, 0, calls);
+							returns = newReturns;
+							callers = newCallers;
+						}
+						returns[calls] = pc + 3;
+						callers[calls++] = frame;
+						frame = callee;
+						localIntegers = frame.integers;
+						localStates = frame.states;
+						localStrings = frame.strings;
+						pc = macros[a];
+						break;
+					} case Bytecode.RET: {
+						pool.release();
+						frame = callers[--calls];
+						callers[calls] = null;
+						localIntegers = frame == null ? null : frame.integers;
+						localStates = frame == null ? null : frame.states;
+						localStrings = frame == null ? null : frame.strings;
+						pc = returns[calls];
+						break;
+					} case Bytecode.FAIL: {
+						Throwable error = chunk.failures[a];
+						if (error instanceof SimplerException) throw (SimplerException) error;
+						if (error instanceof Error) throw (Error) error;
+						throw (RuntimeException) error;
+					} case Bytecode.FLUSH: {
+						output.flush();
+						pc += 2;
+						break;
+					} default: {
+						throw new InterpreterError("Unknown opcode " + op + " at " + pc);
+					}
+				}
+			}
+		} finally {
+			while (calls-- > 0) pool.release();
+		}
+	}
+
+	/**
+	 * Throws the error of an integer that cannot be changed.
+	 * @param state Frame.UNDECLARED or Frame.NULL
+	 * @param name the variable name
+	 */
+	private static void failInteger(byte state, String name) throws SimplerException {
+		if (state == Frame.UNDECLARED) throw new InterpreterError("Syntax Error: Unknown token: " + name);
+		throw new SimplerException("Expected existing variable name!");
+	}
+
+	/**
+	 * The operand of an arithmetic line whose variable is not declared, read as a number like the Interpreter does.
+	 * @param token the operand as written
+	 * @return its value
+	 * @throws NumberFormatException When it is not a number
+	 */
+	private static int operandOf(String token) throws NumberFormatException {
+		return Integer.parseInt(token);
+	}
+
+	/**
+	 * @param comparison one of Bytecode.EQ .. Bytecode.GE
+	 * @param order the sign of left - right
+	 * @return whether left [comparison] right
+	 */
+	private static boolean holds(int comparison, int order) {
+		switch (comparison) {
+			case Bytecode.EQ: return order == 0;
+			case Bytecode.NE: return order != 0;
+			case Bytecode.LT: return order < 0;
+			case Bytecode.GT: return order > 0;
+			case Bytecode.LE: return order <= 0;
+			default: return order >= 0;
+		}
+	}
+}
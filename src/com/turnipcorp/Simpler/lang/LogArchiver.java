@@ -0,0 +1,131 @@
+package com.turnipcorp.Simpler.lang;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Names the rotated segments of a log file, then compresses them and deletes the oldest ones on a background thread.
+ * <br /> A segment of log.txt is named log.txt.[day].[number], and log.txt.[day].[number].gz once compressed.
+ * Every run also compresses the segments left uncompressed when a previous program exited.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - executor : ExecutorService
+ * </ul>
+ * <br /> List of methods:
+ * <ul>
+ * <li> ~ segmentOf (Path, LocalDate) : Path
+ * <li> ~ archive (Path, int) : void
+ * <li> - compress (Path, int) : void
+ * <li> - segments (Path, boolean) : ArrayList[Path]
+ * <li> - dayOf (Path, Path) : String
+ * <li> - numberOf (Path, Path) : int
+ * <li> - gzip (Path) : void
+ * </ul>
+ * @see LogRotation
+ */
+final class LogArchiver {
+
+	/**
+	 * One daemon thread, so segments are compressed one at a time, oldest first.
+	 */
+	private static final ExecutorService executor = Executors.newSingleThreadExecutor(task -> {
+		Thread thread = new Thread(task, "Simpler++ log archiver");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Static class, no constructor.
+	 */
+	private LogArchiver() {}
+
+	/**
+	 * @param log the log file
+	 * @param day the day the entries of the segment were written
+	 * @return the name of the segment, numbered after every other segment of the day, compressed or not
+	 * @throws IOException If the directory of the log file cannot be listed
+	 */
+	static Path segmentOf(Path log, LocalDate day) throws IOException {
+		int number = 0;
+		for (Path segment : segments(log, false)) if (dayOf(log, segment).equals(day.toString())) number = Math.max(number, numberOf(log, segment));
+		for (Path segment : segments(log, true)) if (dayOf(log, segment).equals(day.toString())) number = Math.max(number, numberOf(log, segment));
+		return log.resolveSibling(log.getFileName() + "." + day + "." + (number + 1));
+	}
+
+	/**
+	 * Compresses the segments of a log file and deletes the oldest ones, in the background.
+	 * @param log the log file
+	 * @param maxArchives how many compressed segments are kept
+	 */
+	static void archive(Path log, int maxArchives) {
+		executor.execute(() -> compress(log, maxArchives));
+	}
+
+	private static void compress(Path log, int maxArchives) {
+		try {
+			for (Path segment : segments(log, false)) gzip(segment);
+			ArrayList<Path> archives = segments(log, true);
+			for (int i = 0; i < archives.size() - maxArchives; i++) Files.deleteIfExists(archives.get(i));
+		} catch (IOException e) {
+			System.out.println("Could not archive the log successfully.");
+		}
+	}
+
+	/**
+	 * @param log the log file
+	 * @param compressed whether to list the compressed segments or the others
+	 * @return the segments, oldest first by the day and the number in their names
+	 */
+	private static ArrayList<Path> segments(Path log, boolean compressed) throws IOException {
+		ArrayList<Path> segments = new ArrayList<>();
+		String pattern = compressed ? "\\.\\d{4}-\\d{2}-\\d{2}\\.\\d+\\.gz" : "\\.\\d{4}-\\d{2}-\\d{2}\\.\\d+";
+		String name = log.getFileName().toString();
+		Path directory = log.toAbsolutePath().getParent();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, name + ".*")) {
+			for (Path file : files) {
+				String fileName = file.getFileName().toString();
+				if (fileName.startsWith(name) && fileName.substring(name.length()).matches(pattern)) segments.add(file);
+			}
+		}
+		segments.sort(Comparator.comparing((Path file) -> dayOf(log, file)).thenComparingInt(file -> numberOf(log, file)));
+		return segments;
+	}
+
+	/**
+	 * @return the day in the name of a segment, as yyyy-MM-dd
+	 */
+	private static String dayOf(Path log, Path segment) {
+		return segment.getFileName().toString().substring(log.getFileName().toString().length() + 1).substring(0, 10);
+	}
+
+	/**
+	 * @return the number in the name of a segment
+	 */
+	private static int numberOf(Path log, Path segment) {
+		String suffix = segment.getFileName().toString().substring(log.getFileName().toString().length() + 12);
+		return Integer.parseInt(suffix.endsWith(".gz") ? suffix.substring(0, suffix.length() - 3) : suffix);
+	}
+
+	/**
+	 * Replaces a segment with its compressed copy, written to a temporary file first.
+	 */
+	private static void gzip(Path segment) throws IOException {
+		Path temporary = segment.resolveSibling(segment.getFileName() + ".gz.tmp");
+		try (InputStream in = Files.newInputStream(segment); OutputStream out = new GZIPOutputStream(Files.newOutputStream(temporary), 1 << 16)) {
+			in.transferTo(out);
+		}
+		Files.move(temporary, segment.resolveSibling(segment.getFileName() + ".gz"), StandardCopyOption.REPLACE_EXISTING);
+		Files.delete(segment);
+	}
+}
@@ -0,0 +1,157 @@
+package com.turnipcorp.Simpler.lang;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded ring of log entries, filled by any thread and emptied by the writer thread of the Logger, without locks.
+ * <br /> Every slot has a sequence number: a thread claims the next slot by moving the tail with a compare and set,
+ * fills it, then publishes it by moving its sequence number. The writer reads the slots in order, and hands them back
+ * to the threads one lap later.
+ * <br /> Closing the ring makes every later offer fail, so an entry is either in the ring, or left to its caller.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - times : LocalDateTime[]
+ * <li> - levels : String[]
+ * <li> - messages : String[]
+ * <li> - sequences : AtomicLongArray
+ * <li> - tail : AtomicLong
+ * <li> - head : long
+ * <li> - end : long
+ * <li> - mask : int
+ * </ul>
+ * <br /> List of methods:
+ * <ul>
+ * <li> ~ LogBuffer (int)
+ * <li> ~ offer (LocalDateTime, String, String) : boolean
+ * <li> ~ drainTo (StringBuilder, DateTimeFormatter, int) : int
+ * <li> ~ isHalfFull () : boolean
+ * <li> ~ close () : void
+ * <li> ~ isDrained () : boolean
+ * </ul>
+ * @see Logger#Construct(String, boolean)
+ */
+final class LogBuffer {
+
+	private final LocalDateTime[] times;
+	private final String[] levels;
+	private final String[] messages;
+
+	/**
+	 * The position a slot is free for, or the position after the entry it holds once the entry is published.
+	 */
+	private final AtomicLongArray sequences;
+
+	/**
+	 * Tail of a closed ring.
+	 */
+	private static final long CLOSED = -1;
+
+	/**
+	 * Position of the next entry to offer, CLOSED once the ring is closed.
+	 */
+	private final AtomicLong tail = new AtomicLong();
+
+	/**
+	 * Position of the next entry to drain, only the writer thread moves it.
+	 */
+	private volatile long head = 0;
+
+	/**
+	 * Position after the last entry offered before the ring was closed.
+	 */
+	private volatile long end = Long.MAX_VALUE;
+
+	private final int mask;
+
+	/**
+	 * Constructor
+	 * @param capacity the number of entries the ring holds, rounded up to a power of two
+	 */
+	LogBuffer(int capacity) {
+		int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+		times = new LocalDateTime[size];
+		levels = new String[size];
+		messages = new String[size];
+		sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) sequences.set(i, i);
+		mask = size - 1;
+	}
+
+	/**
+	 * Appends an entry, from any thread.
+	 * @return false if the ring is full or closed, nothing was appended
+	 */
+	boolean offer(LocalDateTime time, String level, String message) {
+		long position = tail.get();
+		while (true) {
+			if (position == CLOSED) return false;
+			int slot = (int) position & mask;
+			long difference = sequences.get(slot) - position;
+			if (difference == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					times[slot] = time;
+					levels[slot] = level;
+					messages[slot] = message;
+					sequences.set(slot, position + 1);
+					return true;
+				}
+				position = tail.get();
+			} else if (difference < 0) {
+				return false;
+			} else {
+				position = tail.get();
+			}
+		}
+	}
+
+	/**
+	 * Formats the published entries into log lines, oldest first, only from the writer thread.
+	 * @param out where the lines are appended
+	 * @param format the format of the timestamps
+	 * @param max the most entries to drain
+	 * @return the number of entries drained
+	 */
+	int drainTo(StringBuilder out, DateTimeFormatter format, int max) {
+		int count = 0;
+		long position = head;
+		while (count < max) {
+			int slot = (int) position & mask;
+			if (sequences.get(slot) != position + 1) break;
+			format.formatTo(times[slot], out);
+			out.append(" [").append(levels[slot]).append("] ").append(messages[slot]).append('\n');
+			times[slot] = null;
+			messages[slot] = null;
+			sequences.set(slot, position + mask + 1);
+			position++;
+			count++;
+		}
+		head = position;
+		return count;
+	}
+
+	/**
+	 * @return whether at least half of the ring waits for the writer
+	 */
+	boolean isHalfFull() {
+		return tail.get() - head > mask / 2;
+	}
+
+	/**
+	 * Makes every later offer fail, the entries offered before are still drained.
+	 */
+	void close() {
+		long position = tail.getAndSet(CLOSED);
+		if (position != CLOSED) end = position;
+	}
+
+	/**
+	 * An entry offered before the ring was closed can still be being filled, draining again until this is true waits for it.
+	 * @return whether every entry offered before the ring was closed was drained
+	 */
+	boolean isDrained() {
+		return head == end;
+	}
+}
@@ -0,0 +1,77 @@
+package com.turnipcorp.Simpler.lang;
+
+/**
+ * When the log file is moved aside and a new one started, and how many of the old ones are kept.
+ * <br /> A rotated file is compressed with gzip in the background, next to the log file.
+ * <br /> List of attributes:
+ * <ul>
+ * <li> - maxBytes : long
+ * <li> - daily : boolean
+ * <li> - maxArchives : int
+ * </ul>
+ * @see Logger#getRotation()
+ */
+public class LogRotation {
+
+	/**
+	 * Pass this to a setter to remove the limit.
+	 */
+	public static final int UNLIMITED = 0;
+
+	/**
+	 * Size the log file can grow to before it is rotated. Unlimited by default.
+	 */
+	private long maxBytes = Long.MAX_VALUE;
+
+	/**
+	 * Whether the log file is rotated on the first entry of every day. Off by default.
+	 */
+	private boolean daily = false;
+
+	/**
+	 * How many compressed files are kept, the oldest ones are deleted. Unlimited by default.
+	 */
+	private int maxArchives = Integer.MAX_VALUE;
+
+	/**
+	 * Empty constructor, the log file is never rotated.
+	 */
+	public LogRotation() {}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * @param maxBytes the size of the log file that makes it rotate, UNLIMITED or less to never rotate by size
+	 */
+	public void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes <= UNLIMITED ? Long.MAX_VALUE : maxBytes;
+	}
+
+	public boolean isDaily() {
+		return daily;
+	}
+
+	public void setDaily(boolean daily) {
+		this.daily = daily;
+	}
+
+	public int getMaxArchives() {
+		return maxArchives;
+	}
+
+	/**
+	 * @param maxArchives the number of compressed files kept, UNLIMITED or less to keep them all
+	 */
+	public void setMaxArchives(int maxArchives) {
+		this.maxArchives = maxArchives <= UNLIMITED ? Integer.MAX_VALUE : maxArchives;
+	}
+
+	@Override
+	public String toString() {
+		return "size: " + (maxBytes == Long.MAX_VALUE ? "unlimited" : maxBytes)
+				+ ", daily: " + (daily ? "on" : "off")
+				+ ", kept: " + (maxArchives == Integer.MAX_VALUE ? "unlimited" : maxArchives);
+	}
+}
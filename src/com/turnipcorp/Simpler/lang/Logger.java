@@ -3,74 +3,456 @@ package com.turnipcorp.Simpler.lang;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
 
 public class Logger {
-	
+
+	/**
+	 * How important an entry is, entries below the level of the logger are dropped before their message is built.
+	 */
+	public enum Level {
+		INFO,
+		ERROR,
+		FATAL,
+		/**
+		 * Only as the level of the logger, drops every entry.
+		 */
+		OFF
+	}
+
+	/**
+	 * Lets through at most a number of entries per period, for messages logged over and over again.
+	 * <br /> The first entry let through after some were dropped tells how many were.
+	 * <br /> List of attributes:
+	 * <ul>
+	 * <li> - limit : int
+	 * <li> - period : long
+	 * <li> - periodStart : long
+	 * <li> - passed : int
+	 * <li> - skipped : int
+	 * </ul>
+	 */
+	public static final class Sampler {
+
+		private final int limit;
+
+		/**
+		 * Length of a period, in milliseconds.
+		 */
+		private final long period;
+
+		private long periodStart = 0;
+		private int passed = 0;
+		private int skipped = 0;
+
+		/**
+		 * Constructor
+		 * @param limit the most entries let through per period
+		 * @param periodMillis the length of a period, in milliseconds
+		 */
+		public Sampler(int limit, long periodMillis) {
+			this.limit = limit;
+			this.period = periodMillis;
+		}
+
+		/**
+		 * @return -1 if the entry is dropped, otherwise how many entries were dropped since the last one let through
+		 */
+		private synchronized int sample() {
+			long now = System.currentTimeMillis();
+			if (now - periodStart >= period) {
+				periodStart = now;
+				passed = 0;
+			}
+			if (passed >= limit) {
+				skipped++;
+				return -1;
+			}
+			passed++;
+			int dropped = skipped;
+			skipped = 0;
+			return dropped;
+		}
+	}
+
+	/**
+	 * Format of the timestamp of every entry, built once.
+	 */
+	private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm:ss:SSSS");
+
+	/**
+	 * Entries the ring of the asynchronous mode holds before callers have to wait for the writer.
+	 */
+	private static final int BUFFER_ENTRIES = 8192;
+
+	/**
+	 * Most entries the writer puts in one write.
+	 */
+	private static final int BATCH_ENTRIES = 1024;
+
+	/**
+	 * How long the writer sleeps when there is nothing to write, in nanoseconds.
+	 */
+	private static final long WRITER_PAUSE = 10_000_000L;
+
 	/**
 	 * File path to the log file
 	 */
 	private static String logFile = null;
-	
+
 	/**
 	 * FileWriter that writes to the log file
 	 */
 	private static OutputStream logWriter;
-	
+
+	/**
+	 * Guards the log file, apart from the Logger.class monitor that stop holds while it waits for the writer.
+	 */
+	private static final Object fileLock = new Object();
+
+	/**
+	 * The entries waiting for the writer in asynchronous mode, null when every call writes by itself.
+	 */
+	private static volatile LogBuffer buffer = null;
+
+	/**
+	 * The thread writing the entries of the buffer in batches.
+	 */
+	private static Thread writer = null;
+
+	private static volatile boolean writing = false;
+
+	/**
+	 * The least important level written to the log.
+	 */
+	private static volatile Level level = Level.INFO;
+
+	/**
+	 * When the log file is rotated, never by default.
+	 */
+	private static LogRotation rotation = new LogRotation();
+
+	/**
+	 * Size of the log file, and the day its first entry was written, to know when to rotate it.
+	 */
+	private static long segmentBytes = 0;
+	private static LocalDate segmentDay = null;
+
 	private static String getTime() {
-		return LocalDateTime.now().format(DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm:ss:SSSS"));
+		return LocalDateTime.now().format(TIME_FORMAT);
 	}
-	
+
 	/**
 	 * Static pseudo-constructor for the class.
 	 * @param filename The log file to write to
 	 */
 	public static void Construct(String filename) {
+		Construct(filename, false);
+	}
+
+	/**
+	 * Static pseudo-constructor for the class.
+	 * <br /> In asynchronous mode, logging only appends to a ring buffer, and a background thread writes the entries in
+	 * large batches. What is left in the buffer is written when the program exits.
+	 * @param filename The log file to write to
+	 * @param async whether the entries are written by a background thread
+	 */
+	public static void Construct(String filename, boolean async) {
 		logFile = filename;
 		try {
-			logWriter = Files.newOutputStream(Paths.get(logFile), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
-			logWriter.write("\n\n".getBytes());
+			Path log = Paths.get(logFile);
+			logWriter = Files.newOutputStream(log, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+			segmentBytes = Files.size(log);
+			segmentDay = segmentBytes == 0 ? LocalDate.now() : LocalDate.ofInstant(Files.getLastModifiedTime(log).toInstant(), ZoneId.systemDefault());
+			append("\n\n".getBytes());
 		} catch (IOException e) {
 			System.out.println("Could not open log file successfully. Please check if the file is already opened, and restart the program.");
 			System.exit(1);
 		}
+		if (!async) return;
+		LogBuffer ring = new LogBuffer(BUFFER_ENTRIES);
+		writing = true;
+		writer = new Thread(() -> write(ring), "Simpler++ logger");
+		writer.setDaemon(true);
+		writer.start();
+		buffer = ring;
+		Runtime.getRuntime().addShutdownHook(new Thread(Logger::stop, "Simpler++ logger shutdown"));
 	}
-	
+
+	public static Level getLevel() {
+		return level;
+	}
+
+	/**
+	 * @param level the least important level written to the log, OFF to write nothing
+	 */
+	public static void setLevel(Level level) {
+		Logger.level = level;
+	}
+
+	/**
+	 * @param level the level of an entry
+	 * @return whether entries of the level are written, to skip building a message nobody reads
+	 */
+	public static boolean isEnabled(Level level) {
+		return level != Level.OFF && level.compareTo(Logger.level) >= 0;
+	}
+
 	public static void info(String msg) {
+		if (isEnabled(Level.INFO)) log(Level.INFO, msg);
+	}
+
+	public static void error(String msg) {
+		if (isEnabled(Level.ERROR)) log(Level.ERROR, msg);
+	}
+
+	public static void fatal(String msg) {
+		if (isEnabled(Level.FATAL)) log(Level.FATAL, msg);
+	}
+
+	/**
+	 * Logs a message that is only built when INFO entries are written.
+	 * @param msg builds the message
+	 */
+	public static void info(Supplier<String> msg) {
+		if (isEnabled(Level.INFO)) log(Level.INFO, msg.get());
+	}
+
+	/**
+	 * Logs a message that is only built when ERROR entries are written.
+	 * @param msg builds the message
+	 */
+	public static void error(Supplier<String> msg) {
+		if (isEnabled(Level.ERROR)) log(Level.ERROR, msg.get());
+	}
+
+	/**
+	 * Logs a message that is only built when FATAL entries are written.
+	 * @param msg builds the message
+	 */
+	public static void fatal(Supplier<String> msg) {
+		if (isEnabled(Level.FATAL)) log(Level.FATAL, msg.get());
+	}
+
+	/**
+	 * Logs a repetitive message, only built when INFO entries are written and the sampler lets it through.
+	 * @param sampler limits how often the message is written
+	 * @param msg builds the message
+	 */
+	public static void info(Sampler sampler, Supplier<String> msg) {
+		if (isEnabled(Level.INFO)) log(Level.INFO, sampler, msg);
+	}
+
+	/**
+	 * Logs a repetitive message, only built when ERROR entries are written and the sampler lets it through.
+	 * @param sampler limits how often the message is written
+	 * @param msg builds the message
+	 */
+	public static void error(Sampler sampler, Supplier<String> msg) {
+		if (isEnabled(Level.ERROR)) log(Level.ERROR, sampler, msg);
+	}
+
+	/**
+	 * Logs a repetitive message, only built when FATAL entries are written and the sampler lets it through.
+	 * @param sampler limits how often the message is written
+	 * @param msg builds the message
+	 */
+	public static void fatal(Sampler sampler, Supplier<String> msg) {
+		if (isEnabled(Level.FATAL)) log(Level.FATAL, sampler, msg);
+	}
+
+	/**
+	 * Logs a repetitive message with one argument, only built when INFO entries are written and the sampler lets it through.
+	 * <br /> Unlike a lambda capturing the argument, nothing is allocated for an entry that is not written.
+	 * @param sampler limits how often the message is written
+	 * @param format the message, with {} where the argument goes
+	 * @param arg the argument
+	 */
+	public static void info(Sampler sampler, String format, Object arg) {
+		if (isEnabled(Level.INFO)) log(Level.INFO, sampler, format, arg);
+	}
+
+	/**
+	 * Logs a repetitive message with one argument, only built when ERROR entries are written and the sampler lets it through.
+	 * @param sampler limits how often the message is written
+	 * @param format the message, with {} where the argument goes
+	 * @param arg the argument
+	 */
+	public static void error(Sampler sampler, String format, Object arg) {
+		if (isEnabled(Level.ERROR)) log(Level.ERROR, sampler, format, arg);
+	}
+
+	/**
+	 * Logs a repetitive message with one argument, only built when FATAL entries are written and the sampler lets it through.
+	 * @param sampler limits how often the message is written
+	 * @param format the message, with {} where the argument goes
+	 * @param arg the argument
+	 */
+	public static void fatal(Sampler sampler, String format, Object arg) {
+		if (isEnabled(Level.FATAL)) log(Level.FATAL, sampler, format, arg);
+	}
+
+	/**
+	 * Writes a sampled entry, with the number of entries dropped before it.
+	 */
+	private static void log(Level level, Sampler sampler, Supplier<String> msg) {
+		int skipped = sampler.sample();
+		if (skipped == -1) return;
+		if (skipped == 0) log(level, msg.get());
+		else log(level, msg.get() + " (" + skipped + " similar entries skipped)");
+	}
+
+	/**
+	 * Writes a sampled entry with its argument, with the number of entries dropped before it.
+	 */
+	private static void log(Level level, Sampler sampler, String format, Object arg) {
+		int skipped = sampler.sample();
+		if (skipped == -1) return;
+		String msg = format.replace("{}", String.valueOf(arg));
+		if (skipped == 0) log(level, msg);
+		else log(level, msg + " (" + skipped + " similar entries skipped)");
+	}
+
+	/**
+	 * Writes an entry, or appends it to the buffer in asynchronous mode.
+	 * When the buffer is full, the caller waits for the writer instead of losing the entry.
+	 * An entry the buffer took is written by the writer, or by stop, never by its caller as well.
+	 * @param level INFO, ERROR or FATAL
+	 * @param msg the message
+	 */
+	private static void log(Level level, String msg) {
+		LogBuffer ring = buffer;
+		if (ring != null) {
+			LocalDateTime time = LocalDateTime.now();
+			boolean offered;
+			while (!(offered = ring.offer(time, level.name(), msg))) {
+				if (buffer != ring) break;
+				LockSupport.unpark(writer);
+				Thread.yield();
+			}
+			if (offered) {
+				if (ring.isHalfFull()) LockSupport.unpark(writer);
+				return;
+			}
+		}
 		try {
-			logWriter.write((getTime() + " [INFO] " + msg + "\n").getBytes());
+			append((getTime() + " [" + level.name() + "] " + msg + "\n").getBytes());
 		} catch (IOException e) {
 			System.out.println("Could not log to file successfully.");
 		}
 	}
-	
-	public static void error(String msg) {
+
+	/**
+	 * Body of the writer thread, writes the buffer in batches until the logger stops, then writes what is left.
+	 * @param ring the buffer to write
+	 */
+	private static void write(LogBuffer ring) {
+		StringBuilder batch = new StringBuilder(1 << 16);
+		while (writing) {
+			if (!writeBatch(ring, batch)) LockSupport.parkNanos(WRITER_PAUSE);
+		}
+		while (writeBatch(ring, batch));
+	}
+
+	/**
+	 * Writes the next entries of the buffer with a single write.
+	 * @param ring the buffer to write
+	 * @param batch an empty builder to format the entries into
+	 * @return false if the buffer was empty
+	 */
+	private static boolean writeBatch(LogBuffer ring, StringBuilder batch) {
+		if (ring.drainTo(batch, TIME_FORMAT, BATCH_ENTRIES) == 0) return false;
 		try {
-			logWriter.write((getTime() + " [ERROR] " + msg + "\n").getBytes());
+			append(batch.toString().getBytes());
 		} catch (IOException e) {
 			System.out.println("Could not log to file successfully.");
 		}
+		batch.setLength(0);
+		return true;
 	}
-	
-	public static void fatal(String msg) {
+
+	/**
+	 * Writes to the log file, rotating it first when it is too large or from another day.
+	 * @param bytes one entry or a batch of entries
+	 * @throws IOException If the log file cannot be written
+	 */
+	private static void append(byte[] bytes) throws IOException {
+		synchronized (fileLock) {
+			boolean full = segmentBytes + bytes.length > rotation.getMaxBytes();
+			boolean old = rotation.isDaily() && !LocalDate.now().equals(segmentDay);
+			if (segmentBytes > 0 && (full || old)) rotate();
+			logWriter.write(bytes);
+			segmentBytes += bytes.length;
+		}
+	}
+
+	/**
+	 * Moves the log file aside as a segment to compress, and starts a new one.
+	 * If the file cannot be moved, the entries keep going to it until it is full again.
+	 * @throws IOException If the new log file cannot be opened
+	 */
+	private static void rotate() throws IOException {
+		Path log = Paths.get(logFile);
+		logWriter.close();
 		try {
-			logWriter.write((getTime() + " [FATAL] " + msg + "\n").getBytes());
+			Files.move(log, LogArchiver.segmentOf(log, segmentDay));
+			LogArchiver.archive(log, rotation.getMaxArchives());
 		} catch (IOException e) {
-			System.out.println("Could not log to file successfully.");
+			System.out.println("Could not rotate the log successfully.");
 		}
+		logWriter = Files.newOutputStream(log, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		segmentBytes = 0;
+		segmentDay = LocalDate.now();
 	}
-	
+
+	/**
+	 * @return when the log file is rotated, change it with its setters
+	 */
+	public static LogRotation getRotation() {
+		return rotation;
+	}
+
+	/**
+	 * Stops the writer thread once it wrote every entry, the next entries are written by their callers.
+	 * <br /> The buffer is closed first, so an entry is either offered before, and written here, or written by its caller.
+	 */
+	private static synchronized void stop() {
+		LogBuffer ring = buffer;
+		if (ring == null) return;
+		buffer = null;
+		ring.close();
+		writing = false;
+		LockSupport.unpark(writer);
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		StringBuilder batch = new StringBuilder();
+		while (!ring.isDrained()) {
+			if (!writeBatch(ring, batch)) Thread.onSpinWait();
+		}
+	}
+
 	/**
 	 * Static pseudo-destructor of the logger class.
 	 */
 	public static void Destruct() {
-		try {
-			logWriter.close();
-		} catch (IOException e) {
-			System.out.println("Could not close logger.");
+		stop();
+		synchronized (fileLock) {
+			try {
+				logWriter.close();
+			} catch (IOException e) {
+				System.out.println("Could not close logger.");
+			}
 		}
 	}
 }
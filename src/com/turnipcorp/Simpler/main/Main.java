@@ -1,8 +1,15 @@
 package com.turnipcorp.Simpler.main;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Random;
+import java.util.Set;
 
+import com.turnipcorp.Simpler.console.BatchRunner;
 import com.turnipcorp.Simpler.console.Console;
+import com.turnipcorp.Simpler.console.ReplServer;
+import com.turnipcorp.Simpler.interpreter.Engine;
 import com.turnipcorp.Simpler.lang.Logger;
 import com.turnipcorp.Simpler.lang.TerminatedError;
 
@@ -19,6 +26,16 @@ import com.turnipcorp.Simpler.lang.TerminatedError;
  */
 public class Main {
 	
+	/**
+	 * The options followed by a value, the other ones are flags.
+	 */
+	private static final Set<String> VALUED = Set.of("--log-file", "--log-level", "--log-max-bytes", "--log-keep", "--jobs", "--engine", "--socket");
+	
+	/**
+	 * Logs 10 of the crash procedures per second at most.
+	 */
+	private static Logger.Sampler crashSampler = new Logger.Sampler(10, 1000);
+	
 	/**
 	 * Console object
 	 */
@@ -27,22 +44,147 @@ public class Main {
 	/**
 	 * Main driver code
 	 * Constructs the logger, then runs run() while true.
+	 * <br /> With run as the first argument, runs the files after it without the console and exits, like
+	 * <code>run a.spp b.spp --jobs 4</code>, options and files in any order. The exit code is the highest one of the
+	 * files, see BatchRunner.
+	 * <br /> With serve as the first argument, serves console sessions on a Unix domain socket until the program is
+	 * stopped, like <code>serve --socket /tmp/simpler.sock</code>, see ReplServer.
+	 * <br /> Options are written --name value or --name=value, flags --name or --name=true/false, a flag never takes the
+	 * argument after it.
+	 * <br /> The logger is configured by these arguments, or by the system properties in brackets:
+	 * <ul>
+	 * <li> --log-file [simpler.log.file]: the log file, SimplerMostRecent.log in the working directory by default
+	 * <li> --log-level [simpler.log.level]: info, error, fatal or off, the program exits with 2 for anything else
+	 * <li> --log-async [simpler.log.async]: a flag, a background thread writes the entries
+	 * <li> --log-max-bytes [simpler.log.maxBytes]: the size that makes the log file rotate, 0 for unlimited
+	 * <li> --log-daily [simpler.log.daily]: a flag, the log file rotates every day
+	 * <li> --log-keep [simpler.log.keep]: how many compressed log files are kept, 0 for all of them
+	 * </ul>
+	 * And the files given to run by these ones:
+	 * <ul>
+	 * <li> --jobs [simpler.jobs]: how many files run at the same time, the number of processors by default
+	 * <li> --engine [simpler.engine]: interpreter, ast, vm, jit or tiered
+	 * </ul>
+	 * And the server by this one:
+	 * <ul>
+	 * <li> --socket [simpler.socket]: the path of the socket file, Simpler.sock in the working directory by default
+	 * </ul>
 	 * @param args Console arguments
 	 * @see #run()
 	 */
 	public static void main(String[] args) {
-		Logger.Construct("E:/Summer2024/code/cty/java/com.turnipcorp.Simpler/SimplerMostRecent.log");
+		Logger.Level level = logLevel(option(args, "--log-level", "simpler.log.level", "info"));
+		Logger.getRotation().setMaxBytes(Long.parseLong(option(args, "--log-max-bytes", "simpler.log.maxBytes", "0")));
+		Logger.getRotation().setDaily(flag(args, "--log-daily", "simpler.log.daily"));
+		Logger.getRotation().setMaxArchives(Integer.parseInt(option(args, "--log-keep", "simpler.log.keep", "0")));
+		Logger.Construct(option(args, "--log-file", "simpler.log.file", "SimplerMostRecent.log"),
+				flag(args, "--log-async", "simpler.log.async"));
+		Logger.setLevel(level);
 		Logger.info("Logger created");
+		if (args.length > 0 && args[0].equals("run")) {
+			int jobs = Integer.parseInt(option(args, "--jobs", "simpler.jobs", String.valueOf(Runtime.getRuntime().availableProcessors())));
+			Engine engine = Engine.valueOf(option(args, "--engine", "simpler.engine", "interpreter").toUpperCase());
+			int status = new BatchRunner(jobs, engine).run(files(args));
+			Logger.Destruct();
+			System.exit(status);
+		}
+		if (args.length > 0 && args[0].equals("serve")) {
+			serve(option(args, "--socket", "simpler.socket", "Simpler.sock"));
+		}
 		while (true) {
 			run();
 		}
 	}
 	
+	/**
+	 * Reads an option as --name value or --name=value.
+	 * @param args Console arguments
+	 * @param name the name of the option, with its dashes, one of VALUED
+	 * @param property the system property read when the option is not in the arguments
+	 * @param fallback the value when neither is set, or when the option is the last argument
+	 * @return the value of the option
+	 */
+	private static String option(String[] args, String name, String property, String fallback) {
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].startsWith(name + "=")) return args[i].substring(name.length() + 1);
+			if (args[i].equals(name)) return i + 1 < args.length ? args[i + 1] : fallback;
+		}
+		return System.getProperty(property, fallback);
+	}
+	
+	/**
+	 * Reads a flag as --name or --name=true/false.
+	 * @param args Console arguments
+	 * @param name the name of the flag, with its dashes
+	 * @param property the system property read when the flag is not in the arguments
+	 * @return whether the flag is set
+	 */
+	private static boolean flag(String[] args, String name, String property) {
+		for (String arg : args) {
+			if (arg.startsWith(name + "=")) return Boolean.parseBoolean(arg.substring(name.length() + 1));
+			if (arg.equals(name)) return true;
+		}
+		return Boolean.getBoolean(property);
+	}
+	
+	/**
+	 * Exits with 2 when the level does not exist, before the log file is created.
+	 * @param name the value of --log-level
+	 * @return the level
+	 */
+	private static Logger.Level logLevel(String name) {
+		try {
+			return Logger.Level.valueOf(name.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			System.err.println("Unknown log level \"" + name + "\", expected info, error, fatal or off.");
+			System.exit(2);
+			return null;
+		}
+	}
+	
+	/**
+	 * @param args Console arguments, starting with run
+	 * @return the arguments after run that are neither options, flags nor the values of options
+	 */
+	private static String[] files(String[] args) {
+		ArrayList<String> files = new ArrayList<>();
+		for (int i = 1; i < args.length; i++) {
+			if (!args[i].startsWith("--")) files.add(args[i]);
+			else if (VALUED.contains(args[i])) i++;
+		}
+		return files.toArray(new String[files.size()]);
+	}
+	
+	/**
+	 * Serves console sessions until the program is stopped, then deletes the socket file.
+	 * Exits with 1 if the socket cannot be bound.
+	 * @param socket the path of the socket file
+	 */
+	private static void serve(String socket) {
+		try {
+			ReplServer server = new ReplServer(Path.of(socket));
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				try {
+					server.close();
+				} catch (IOException e) {
+					System.err.println("Could not delete " + socket);
+				}
+				Logger.info("Server stopped");
+				Logger.Destruct();
+			}));
+			server.serve();
+		} catch (IOException e) {
+			System.err.println("Could not serve on " + socket + ": " + e.getMessage());
+			Logger.fatal("Could not serve on " + socket + ": " + e.getMessage());
+		}
+		System.exit(1);
+	}
+	
 	/**
 	 * Exactly what the name tells you.
 	 * :D
 	 * Repeatedly calls stackOverflow in a try-catch block for a random number of times between 2500 and 5000.
-	 * Logs to the log with FATAL priority: Forcing crash... procedure _[number]_
+	 * Logs to the log with FATAL priority, 10 times per second at most: Forcing crash... procedure _[number]_
 	 */
 	public static void crash() {
 		int c = 0;
@@ -57,7 +199,7 @@ public class Main {
 				try {
 					stackOverflow();
 				} catch (Throwable e) {
-					Logger.fatal("Forcing crash... procedure " + ++c);
+					Logger.fatal(crashSampler, "Forcing crash... procedure {}", ++c);
 					continue;
 				}
 			}
@@ -94,8 +236,6 @@ public class Main {
 			System.err.println("Exception occured, stack trace above.");
 			System.err.println("Show the stack trace to the developer, and he might fix it, or not.");
 			Logger.error(e.getMessage());
-			console.interpreter.clearMemory();
-			console.interpreter.clearCache();
 		} catch (StackOverflowError e) {
 			System.err.println("\n" + e.getMessage());
 			Logger.error(e.getMessage());
@@ -118,11 +258,7 @@ public class Main {
 	 */
 	private static void console() throws Exception {
 		while (true) {
-			console.interpreter.clearMemory();
-			console.interpreter.clearCache();
 			console.getCommand();
-			console.interpreter.clearMemory();
-			console.interpreter.clearCache();
 		}
 	}
 }
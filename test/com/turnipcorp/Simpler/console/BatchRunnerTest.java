@@ -0,0 +1,84 @@
+package com.turnipcorp.Simpler.console;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.turnipcorp.Simpler.interpreter.Engine;
+import com.turnipcorp.Simpler.lang.Logger;
+
+/**
+ * Files run several at a time, their outputs in the order they were given and the highest exit code.
+ */
+class BatchRunnerTest {
+
+	@TempDir
+	Path dir;
+
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+	private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+	@BeforeAll
+	static void withoutLog() {
+		Logger.setLevel(Logger.Level.OFF);
+	}
+
+	@AfterAll
+	static void withLog() {
+		Logger.setLevel(Logger.Level.INFO);
+	}
+
+	private String file(String name, String... code) throws IOException {
+		return Files.write(dir.resolve(name), String.join("\n", code).getBytes(StandardCharsets.UTF_8)).toString();
+	}
+
+	private int run(int jobs, String... files) {
+		PrintStream stdout = System.out, stderr = System.err;
+		System.setOut(new PrintStream(out, true, StandardCharsets.UTF_8));
+		System.setErr(new PrintStream(err, true, StandardCharsets.UTF_8));
+		try {
+			return new BatchRunner(jobs, Engine.INTERPRETER).run(files);
+		} finally {
+			System.setOut(stdout);
+			System.setErr(stderr);
+		}
+	}
+
+	@Test
+	void outputsInTheOrderOfTheFiles() throws IOException {
+		String slow = file("slow.spp", "INT n = 0", "FOR k FROM 1 TO 200000", "n += 1", "END FOR", "PRINTVAR n endl");
+		String fast = file("fast.spp", "PRINTSTR \"fast\" endl");
+		assertEquals(BatchRunner.OK, run(4, slow, fast, slow));
+		assertEquals("200000\nfast\n200000\n", out.toString(StandardCharsets.UTF_8));
+		assertTrue(err.toString(StandardCharsets.UTF_8).contains("3 ok, 0 failed"));
+	}
+
+	@Test
+	void failedFile() throws IOException {
+		String ok = file("ok.spp", "PRINTSTR \"before\" endl");
+		String failed = file("failed.spp", "PRINTSTR \"printed\" endl", "GOTO nowhere");
+		assertEquals(BatchRunner.FAILED, run(2, ok, failed));
+		assertTrue(out.toString(StandardCharsets.UTF_8).startsWith("before\n"));
+		assertTrue(err.toString(StandardCharsets.UTF_8).contains(failed + ": "));
+		assertTrue(err.toString(StandardCharsets.UTF_8).contains("1 ok, 1 failed"));
+	}
+
+	@Test
+	void unreadableFileIsTheHighestCode() throws IOException {
+		String failed = file("failed.spp", "GOTO nowhere");
+		String missing = dir.resolve("missing.spp").toString();
+		assertEquals(BatchRunner.UNREADABLE, run(1, failed, missing));
+		assertTrue(err.toString(StandardCharsets.UTF_8).contains(missing + ": File not found (exit 2)"));
+	}
+}
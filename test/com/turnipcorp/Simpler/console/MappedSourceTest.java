@@ -0,0 +1,46 @@
+package com.turnipcorp.Simpler.console;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * The lines of copied and mapped files, and what is left of them once closed.
+ */
+class MappedSourceTest {
+
+	@TempDir
+	Path dir;
+
+	@ParameterizedTest
+	@ValueSource(ints = {0, 1 << 21})
+	void linesWithEveryTerminator(int padding) throws IOException {
+		String text = "INT a = 1\r\nPRINTVAR a endl\rPRINTSTR \"é\"\n" + "/".repeat(padding) + "\nlast";
+		Path file = Files.write(dir.resolve("lines.spp"), text.getBytes(StandardCharsets.UTF_8));
+		try (MappedSource source = new MappedSource(file.toString())) {
+			assertEquals(5, source.lineCount());
+			assertEquals("INT a = 1", source.line(0));
+			assertEquals("PRINTVAR a endl", source.line(1));
+			assertEquals("PRINTSTR \"é\"", source.line(2));
+			assertEquals(padding, source.line(3).length());
+			assertEquals("last", source.line(4));
+		}
+	}
+
+	@Test
+	void closedSourceCannotBeRead() throws IOException {
+		Path file = Files.write(dir.resolve("closed.spp"), "PRINTSTR \"a\" endl".getBytes(StandardCharsets.UTF_8));
+		MappedSource source = new MappedSource(file.toString());
+		source.close();
+		assertThrows(IllegalStateException.class, () -> source.line(0));
+	}
+}
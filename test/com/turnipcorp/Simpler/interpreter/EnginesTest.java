@@ -0,0 +1,133 @@
+package com.turnipcorp.Simpler.interpreter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.StringWriter;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * The same programs on every engine, which must print the same thing, or fail with the same message.
+ */
+class EnginesTest {
+
+	/**
+	 * Runs a program with a new Interpreter.
+	 * @return what it printed, followed by the message of the error that stopped it
+	 */
+	static String run(Engine engine, String... code) {
+		StringWriter printed = new StringWriter();
+		Interpreter interpreter = new Interpreter(null, new Output(printed, Output.DEFAULT_CAPACITY, Output.Flush.BUFFER));
+		interpreter.setEngine(engine);
+		interpreter.setTierThreshold(2);
+		try {
+			interpreter.interpretAndRun(code);
+		} catch (Exception | Error e) {
+			interpreter.getOutput().flush();
+			printed.append("! ").append(e.getMessage());
+		}
+		return printed.toString();
+	}
+
+	@ParameterizedTest
+	@EnumSource(Engine.class)
+	void variablesLoopsAndMacros(Engine engine) {
+		assertEquals("15\nbye\n55\nin macro\nin macro\n57\n9\n3\n", run(engine,
+				"INT x = 5",
+				"STRING s = \"hello\"",
+				"x += 10",
+				"PRINTVAR x endl",
+				"s = \"bye\"",
+				"PRINTVAR s endl",
+				"INT sum = 0",
+				"FOR k FROM 1 TO 10",
+				"sum += k",
+				"END FOR",
+				"PRINTVAR sum endl",
+				"MACRO hi",
+				"PRINTSTR \"in macro\" endl",
+				"sum ++",
+				"END MACRO",
+				"CALL hi",
+				"CALL hi",
+				"PRINTVAR sum endl",
+				"MUTABLE INT m = 3",
+				"m = 9",
+				"PRINTVAR m endl",
+				"INT n = 0",
+				"LABEL top",
+				"n ++",
+				"IF n < 3",
+				"GOTO top",
+				"END IF",
+				"PRINTVAR n endl"));
+	}
+
+	@ParameterizedTest
+	@EnumSource(Engine.class)
+	void gotoIntoAnIf(Engine engine) {
+		assertEquals("in\nafter\n", run(engine,
+				"INT x = 0",
+				"GOTO inside",
+				"IF x == 5",
+				"PRINTSTR \"no\" endl",
+				"LABEL inside",
+				"PRINTSTR \"in\" endl",
+				"END IF",
+				"PRINTSTR \"after\" endl"));
+	}
+
+	@ParameterizedTest
+	@EnumSource(Engine.class)
+	void gotoIntoNestedIfs(Engine engine) {
+		assertEquals("1\n2\nend\nstring in\n", run(engine,
+				"INT n = 0",
+				"LABEL top",
+				"n ++",
+				"IF n < 3",
+				"GOTO mid",
+				"END IF",
+				"PRINTSTR \"end\" endl",
+				"IF n == 99",
+				"IF n == 98",
+				"LABEL mid",
+				"PRINTVAR n endl",
+				"GOTO top",
+				"END IF",
+				"END IF",
+				"STRING s = \"a\"",
+				"GOTO sl",
+				"IF s == \"b\"",
+				"LABEL sl",
+				"PRINTSTR \"string in\" endl",
+				"END IF"));
+	}
+
+	@ParameterizedTest
+	@EnumSource(Engine.class)
+	void recursionUpToTheDepthBudget(Engine engine) {
+		assertEquals("999\n", run(engine,
+				"INT n = 0",
+				"MACRO down",
+				"n ++",
+				"IF n < 999",
+				"CALL down",
+				"END IF",
+				"END MACRO",
+				"CALL down",
+				"PRINTVAR n endl"));
+	}
+
+	@ParameterizedTest
+	@EnumSource(Engine.class)
+	void recursionPastTheDepthBudget(Engine engine) {
+		assertEquals("! Macro call depth of 1000 exceeded", run(engine,
+				"INT n = 0",
+				"MACRO down",
+				"n ++",
+				"CALL down",
+				"END MACRO",
+				"CALL down"));
+	}
+}
@@ -0,0 +1,108 @@
+package com.turnipcorp.Simpler.interpreter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Programs before and after the Optimizer, which must print the same thing, with fewer lines when they can.
+ */
+class OptimizerTest {
+
+	/**
+	 * Runs compiled lines, without the Optimizer of the Interpreter.
+	 * @return what they printed, followed by the message of the error that stopped them
+	 */
+	private static String run(Instruction[] code, SymbolTable symbols) {
+		StringWriter printed = new StringWriter();
+		Output output = new Output(printed, Output.DEFAULT_CAPACITY, Output.Flush.BUFFER);
+		try {
+			new Interpreter(null, output).newContext(new Program(code, symbols), output).run();
+		} catch (Exception | Error e) {
+			output.flush();
+			printed.append("! ").append(e.getMessage());
+		}
+		return printed.toString();
+	}
+
+	/**
+	 * Checks the program prints the same thing before and after the Optimizer.
+	 * @return the number of lines left by the Optimizer
+	 */
+	private static int optimized(String expected, String... code) throws Exception {
+		SymbolTable symbols = new SymbolTable();
+		Instruction[] compiled = Compiler.compile(code, symbols);
+		Instruction[] optimized = Optimizer.optimize(compiled);
+		assertEquals(expected, run(compiled, symbols));
+		assertEquals(expected, run(optimized, symbols));
+		for (int line = 0; line < optimized.length; line++) assertEquals(line, optimized[line].getLineNumber());
+		return optimized.length;
+	}
+
+	@Test
+	void constantsFoldAndAssignmentsFuse() throws Exception {
+		assertEquals(5, optimized("always\n4\n",
+				"// the Optimizer drops this line",
+				"INT c = 3",
+				"INT n = 0",
+				"IF c > 5",
+				"PRINTSTR \"never\" endl",
+				"END IF",
+				"IF c < 5",
+				"PRINTSTR \"always\" endl",
+				"END IF",
+				"FOR k FROM 10 TO 1",
+				"PRINTSTR \"no trip\" endl",
+				"END FOR",
+				"n += c",
+				"n += 2",
+				"n -= 1",
+				"PRINTVAR n endl"));
+	}
+
+	@Test
+	void changedVariableIsNoConstant() throws Exception {
+		assertEquals(6, optimized("yes\n5\n",
+				"INT c = 1",
+				"IF c > 0",
+				"PRINTSTR \"yes\" endl",
+				"END IF",
+				"c += 4",
+				"PRINTVAR c endl"));
+	}
+
+	@Test
+	void blockWithLabelIsKept() throws Exception {
+		String[] code = {
+			"INT c = 3",
+			"INT k = 0",
+			"GOTO inside",
+			"IF c > 5",
+			"LABEL inside",
+			"k ++",
+			"END IF",
+			"PRINTVAR k endl"
+		};
+		assertEquals(code.length, optimized("1\n", code));
+	}
+
+	@Test
+	void macroLinesAreNotFolded() throws Exception {
+		String[] code = {
+			"INT c = 2",
+			"INT n = 0",
+			"MACRO add",
+			"n += c",
+			"IF c > 1",
+			"n ++",
+			"END IF",
+			"END MACRO",
+			"CALL add",
+			"CALL add",
+			"PRINTVAR n endl"
+		};
+		assertEquals(code.length, optimized("6\n", code));
+	}
+}
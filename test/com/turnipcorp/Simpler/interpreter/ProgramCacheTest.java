@@ -0,0 +1,97 @@
+package com.turnipcorp.Simpler.interpreter;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Programs loaded from the cache, from intact files and from damaged ones, against the Compiler.
+ * <br /> A cache file starts with its MAGIC and FORMAT, then the number of integers and the name of the first one.
+ */
+class ProgramCacheTest {
+
+	private static final String[] CODE = {
+		"INT n = 0",
+		"MUTABLE INT m = 2",
+		"STRING s = \"text\"",
+		"MACRO bump",
+		"INT k = 1",
+		"n += k",
+		"END MACRO",
+		"LABEL top",
+		"CALL bump",
+		"IF n < 5",
+		"GOTO top",
+		"END IF",
+		"PRINTVAR n endl"
+	};
+
+	@TempDir
+	Path dir;
+
+	private static void assertSame(Instruction[] expected, SymbolTable expectedSymbols, Instruction[] actual, SymbolTable actualSymbols) {
+		assertEquals(expectedSymbols.integerCount(), actualSymbols.integerCount());
+		assertEquals(expectedSymbols.stringCount(), actualSymbols.stringCount());
+		assertEquals(expectedSymbols.labelCount(), actualSymbols.labelCount());
+		assertEquals(expectedSymbols.macroScope("bump").integerCount(), actualSymbols.macroScope("bump").integerCount());
+		assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i].getOpcode(), actual[i].getOpcode());
+			assertArrayEquals(expected[i].tokens(), actual[i].tokens());
+			assertEquals(expected[i].getStorage(), actual[i].getStorage());
+			assertEquals(expected[i].getSlot(), actual[i].getSlot());
+			assertEquals(expected[i].isLocal(), actual[i].isLocal());
+			assertEquals(expected[i].getTarget(), actual[i].getTarget());
+		}
+	}
+
+	private File[] cached() {
+		return dir.toFile().listFiles((parent, name) -> name.endsWith(".sppc"));
+	}
+
+	@Test
+	void hitIsTheCompiledProgram() throws Exception {
+		SymbolTable compiledSymbols = new SymbolTable();
+		Instruction[] compiled = Compiler.compile(CODE, compiledSymbols);
+		ProgramCache cache = new ProgramCache(dir.toFile());
+		cache.compile(CODE, new SymbolTable());
+		assertEquals(1, cached().length);
+		SymbolTable symbols = new SymbolTable();
+		assertSame(compiled, compiledSymbols, cache.compile(CODE, symbols), symbols);
+	}
+
+	@Test
+	void damagedFileIsCompiledAgain() throws Exception {
+		SymbolTable compiledSymbols = new SymbolTable();
+		Instruction[] compiled = Compiler.compile(CODE, compiledSymbols);
+		ProgramCache cache = new ProgramCache(dir.toFile());
+		cache.compile(CODE, new SymbolTable());
+		File file = cached()[0];
+		byte[] bytes = Files.readAllBytes(file.toPath());
+		byte[] damaged = Arrays.copyOf(bytes, bytes.length - 12);
+		assertEquals('n', damaged[14]);
+		damaged[14] = 'q';
+		Files.write(file.toPath(), damaged);
+		SymbolTable symbols = new SymbolTable();
+		assertSame(compiled, compiledSymbols, cache.compile(CODE, symbols), symbols);
+		assertArrayEquals(bytes, Files.readAllBytes(file.toPath()));
+	}
+
+	@Test
+	void changedProgramIsNotAHit() throws Exception {
+		ProgramCache cache = new ProgramCache(dir.toFile());
+		cache.compile(CODE, new SymbolTable());
+		String[] changed = Arrays.copyOf(CODE, CODE.length);
+		changed[0] = "INT n = 1";
+		SymbolTable symbols = new SymbolTable();
+		assertEquals("1", cache.compile(changed, symbols)[0].tokens()[3]);
+		assertEquals(2, cached().length);
+	}
+}
@@ -0,0 +1,76 @@
+package com.turnipcorp.Simpler.interpreter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * A Program shared by several runs, one after the other and at the same time.
+ */
+class ProgramTest {
+
+	private static final String[] CODE = {
+		"INT n = 0",
+		"MACRO bump",
+		"n += 3",
+		"END MACRO",
+		"FOR k FROM 1 TO 50",
+		"CALL bump",
+		"IF n > 100",
+		"n -= 100",
+		"END IF",
+		"END FOR",
+		"PRINTVAR n endl"
+	};
+
+	private static Interpreter interpreter(Engine engine) {
+		Interpreter interpreter = new Interpreter(null, new Output(new StringWriter(), Output.DEFAULT_CAPACITY, Output.Flush.BUFFER));
+		interpreter.setEngine(engine);
+		interpreter.setTierThreshold(2);
+		return interpreter;
+	}
+
+	private static String run(Interpreter interpreter, Program program) throws Exception {
+		StringWriter printed = new StringWriter();
+		interpreter.newContext(program, new Output(printed, Output.DEFAULT_CAPACITY, Output.Flush.BUFFER)).run();
+		return printed.toString();
+	}
+
+	@Test
+	void regionsOutliveTheRunThatCompiledThem() throws Exception {
+		Interpreter interpreter = interpreter(Engine.TIERED);
+		Program program = interpreter.compile(Source.of(CODE));
+		int macro = 0;
+		while (program.code()[macro].getOpcode() != Opcode.MACRO) macro++;
+		assertFalse(program.hasRegion(macro));
+		assertEquals("50\n", run(interpreter, program));
+		assertTrue(program.hasRegion(macro));
+		assertNotNull(program.region(macro, 0, 0, false));
+		assertSame(program.region(macro, 0, 0, false), program.region(macro, 0, 0, false));
+		assertEquals("50\n", run(interpreter, program));
+	}
+
+	@ParameterizedTest
+	@EnumSource(Engine.class)
+	void runsAtTheSameTime(Engine engine) throws Exception {
+		Interpreter interpreter = interpreter(engine);
+		Program program = interpreter.compile(Source.of(CODE));
+		ArrayList<Future<String>> runs = new ArrayList<>();
+		try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < 32; i++) runs.add(threads.submit(() -> run(interpreter, program)));
+			for (Future<String> printed : runs) assertEquals("50\n", printed.get());
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package com.turnipcorp.Simpler.interpreter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Sessions over pipes, many of them waiting for input at the same time.
+ */
+class SessionExecutorTest {
+
+	private static final int SESSIONS = 64;
+
+	@Test
+	void waitingSessionsDoNotBlockTheOthers() throws Exception {
+		ArrayList<Pipe> inputs = new ArrayList<>(), outputs = new ArrayList<>();
+		try (SessionExecutor executor = new SessionExecutor()) {
+			ArrayList<Future<?>> sessions = new ArrayList<>();
+			try {
+				for (int i = 0; i < SESSIONS; i++) {
+					Pipe input = Pipe.open(), output = Pipe.open();
+					inputs.add(input);
+					outputs.add(output);
+					sessions.add(executor.session(input.source(), output.sink()));
+				}
+				// Every session is waiting for its first line, the last one and then the first one must still answer.
+				for (int i : new int[] {SESSIONS - 1, 0}) {
+					write(inputs.get(i), "INT x = " + i + "\nPRINTVAR x endl\n\n");
+					String expected = ">>> >>> >>> " + i + "\n";
+					assertEquals(expected, assertTimeoutPreemptively(Duration.ofSeconds(10), () -> read(outputs.get(i), expected.length())));
+				}
+			} finally {
+				// Ends every session, even after a failure, so closing the executor does not wait for them forever.
+				for (Pipe input : inputs) input.sink().close();
+			}
+			for (Future<?> session : sessions) session.get(10, TimeUnit.SECONDS);
+		}
+	}
+
+	private static void write(Pipe pipe, String text) throws IOException {
+		ByteBuffer bytes = StandardCharsets.UTF_8.encode(text);
+		while (bytes.hasRemaining()) pipe.sink().write(bytes);
+	}
+
+	private static String read(Pipe pipe, int length) throws IOException {
+		ByteBuffer bytes = ByteBuffer.allocate(length);
+		while (bytes.hasRemaining() && pipe.source().read(bytes) != -1);
+		bytes.flip();
+		return StandardCharsets.UTF_8.decode(bytes).toString();
+	}
+}
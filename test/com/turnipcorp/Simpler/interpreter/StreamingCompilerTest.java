@@ -0,0 +1,100 @@
+package com.turnipcorp.Simpler.interpreter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.Reader;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Programs run while they are read, which must print the same thing as when they are compiled whole.
+ */
+class StreamingCompilerTest {
+
+	/**
+	 * Hands out one line per read, a little late, so the Interpreter waits and gets every part as soon as it ends.
+	 */
+	private static final class SlowReader extends Reader {
+		private final String[] code;
+		private int line = 0;
+
+		SlowReader(String[] code) {
+			this.code = code;
+		}
+
+		@Override
+		public int read(char[] buffer, int offset, int length) {
+			if (line == code.length) return -1;
+			try {
+				Thread.sleep(2);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			String next = code[line++] + "\n";
+			next.getChars(0, next.length(), buffer, offset);
+			return next.length();
+		}
+
+		@Override
+		public void close() {}
+	}
+
+	/**
+	 * Runs a program read through a SlowReader.
+	 * @return what it printed, followed by the message of the error that stopped it
+	 */
+	private static String stream(String... code) {
+		StringWriter printed = new StringWriter();
+		Interpreter interpreter = new Interpreter(null, new Output(printed, Output.DEFAULT_CAPACITY, Output.Flush.BUFFER));
+		try {
+			interpreter.interpretAndRun(new SlowReader(code));
+		} catch (Exception | Error e) {
+			interpreter.getOutput().flush();
+			printed.append("! ").append(e.getMessage());
+		}
+		return printed.toString();
+	}
+
+	private static void assertStreamed(String expected, String... code) {
+		assertEquals(expected, EnginesTest.run(Engine.INTERPRETER, code));
+		assertEquals(expected, stream(code));
+	}
+
+	@Test
+	void macroReadsGlobalsDeclaredAfterIt() {
+		assertStreamed("5\n7\n9\n",
+				"MACRO show",
+				"PRINTVAR n endl",
+				"n += step",
+				"END MACRO",
+				"INT n = 5",
+				"INT step = 2",
+				"CALL show",
+				"CALL show",
+				"PRINTVAR n endl");
+	}
+
+	@Test
+	void gotoForwardAndBack() {
+		assertStreamed("1\n2\n3\n",
+				"INT n = 0",
+				"GOTO start",
+				"PRINTSTR \"skipped\" endl",
+				"LABEL start",
+				"n ++",
+				"PRINTVAR n endl",
+				"IF n < 3",
+				"GOTO start",
+				"END IF");
+	}
+
+	@Test
+	void variableNeverDeclared() {
+		assertStreamed("1\n! Syntax Error: Unknown token: missing",
+				"INT n = 1",
+				"PRINTVAR n endl",
+				"missing += n",
+				"PRINTVAR n endl");
+	}
+}
@@ -0,0 +1,76 @@
+package com.turnipcorp.Simpler.lang;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The ring of the asynchronous Logger, from one thread and from many.
+ */
+class LogBufferTest {
+
+	private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("HH");
+	private static final LocalDateTime TIME = LocalDateTime.of(2000, 1, 1, 12, 0);
+
+	@Test
+	void drainsInOrderUntilFull() {
+		LogBuffer ring = new LogBuffer(4);
+		for (int i = 0; i < 4; i++) assertTrue(ring.offer(TIME, "INFO", "entry " + i));
+		assertFalse(ring.offer(TIME, "INFO", "one too many"));
+		assertTrue(ring.isHalfFull());
+		StringBuilder out = new StringBuilder();
+		assertEquals(3, ring.drainTo(out, FORMAT, 3));
+		assertEquals("12 [INFO] entry 0\n12 [INFO] entry 1\n12 [INFO] entry 2\n", out.toString());
+		assertTrue(ring.offer(TIME, "ERROR", "entry 4"));
+		out.setLength(0);
+		assertEquals(2, ring.drainTo(out, FORMAT, 10));
+		assertEquals("12 [INFO] entry 3\n12 [ERROR] entry 4\n", out.toString());
+		assertEquals(0, ring.drainTo(out, FORMAT, 10));
+	}
+
+	@Test
+	void closingKeepsWhatWasOffered() {
+		LogBuffer ring = new LogBuffer(8);
+		assertTrue(ring.offer(TIME, "INFO", "before"));
+		ring.close();
+		assertFalse(ring.offer(TIME, "INFO", "after"));
+		assertFalse(ring.isDrained());
+		StringBuilder out = new StringBuilder();
+		assertEquals(1, ring.drainTo(out, FORMAT, 10));
+		assertEquals("12 [INFO] before\n", out.toString());
+		assertTrue(ring.isDrained());
+	}
+
+	@Test
+	void everyEntryTakenBeforeCloseIsDrainedOnce() throws InterruptedException {
+		LogBuffer ring = new LogBuffer(1 << 16);
+		AtomicInteger taken = new AtomicInteger();
+		ArrayList<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 8; t++) {
+			int thread = t;
+			threads.add(Thread.ofPlatform().start(() -> {
+				for (int i = 0; i < 4000; i++) {
+					if (ring.offer(TIME, "INFO", thread + ":" + i)) taken.incrementAndGet();
+				}
+			}));
+		}
+		StringBuilder out = new StringBuilder();
+		while (taken.get() < 1000) ring.drainTo(out, FORMAT, 1000);
+		ring.close();
+		while (!ring.isDrained()) ring.drainTo(out, FORMAT, 1000);
+		for (Thread thread : threads) thread.join();
+		ring.drainTo(out, FORMAT, 1000);
+		String[] lines = out.toString().split("\n");
+		assertEquals(taken.get(), lines.length);
+		assertEquals(lines.length, new HashSet<>(Arrays.asList(lines)).size());
+	}
+}